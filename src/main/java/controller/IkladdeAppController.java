@@ -1,19 +1,34 @@
 package controller;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.scene.control.Label;
-import javafx.scene.image.Image;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Tooltip;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+import javafx.util.StringConverter;
 import model.*;
 import view.IkladdeAppView;
+import view.PhotoLoader;
+import view.PhotoPrefetcher;
 import org.controlsfx.control.CheckComboBox;
 import org.controlsfx.control.Rating;
-import database.RecipeDAO;
+import database.StepDictionaryDAO;
+import monitoring.Metrics;
+import monitoring.RecipeDisplayEvent;
+import monitoring.StartupTimer;
+import monitoring.Timer;
+import print.CookbookRenderer;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -28,9 +43,25 @@ public class IkladdeAppController {
     private List<Ingredient> baseIngredients;
     private int currentStepIndex = 0;
     private Integer selectedPortions = null;
+    private final CookbookRenderer printer = new CookbookRenderer();
+    private final SearchExecutor search = new SearchExecutor(Platform::runLater);
+    /** Anzahl Rezepte je Tag für den aktuellen Suchtext, angezeigt in der Tag-Auswahl. */
+    private Map<Tag, Integer> facetCounts = Map.of();
+    /** Gesetzt, während die Tag-Auswahl nur neu beschriftet wird; Änderungen der Häkchen lösen dann keine Suche aus. */
+    private boolean updatingFacets = false;
+    /** Sortierung der angezeigten Liste; null = Reihenfolge des Bestands. Gilt auch für nachgelieferte Treffer. */
+    private Comparator<Recipe> sortOrder = null;
+
+    private static final int SIMILAR_RECIPES_LIMIT = 5;
+    private static final Comparator<Recipe> BY_RATING = Comparator.comparingInt(Recipe::getRating).reversed();
+    private static final String SORT_BY_RATING = "Nach Bewertung sortieren";
+    private static final String SORT_UNSORTED = "Ursprüngliche Reihenfolge";
+    /** Wartezeit nach dem letzten Tastendruck, bevor gesucht wird. */
+    private static final long FILTER_DEBOUNCE_MS = 150;
 
     /**
-     * Erstellt den Controller, lädt Daten und verbindet UI-Elemente mit Logik.
+     * Erstellt den Controller, verbindet UI-Elemente mit Logik und lädt die Daten im Hintergrund.
+     * Bis die Daten da sind, zeigt die Liste einen Ladehinweis und die Rezeptverwaltung ist gesperrt.
      *
      * @param view Die Benutzeroberfläche
      * @param onOpenRecipeManager Callback zum Öffnen des Rezeptmanagers
@@ -41,9 +72,6 @@ public class IkladdeAppController {
         this.recipeManager = recipeManager;
         this.allRecipes = FXCollections.observableArrayList();
 
-        recipeManager.loadData();
-        allRecipes.setAll(recipeManager.getRecipes());
-
         view.getRecipeListView().setItems(allRecipes);
         view.getRecipeListView().getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
@@ -52,12 +80,40 @@ public class IkladdeAppController {
             }
         });
 
-        view.getFilterField().textProperty().addListener((obs, oldV, newV) -> applyFilters());
-        view.getTagCheckCombo().getCheckModel().getCheckedItems().addListener((ListChangeListener<Tag>) c -> applyFilters());
+        view.getSimilarRecipesListView().setOnMouseClicked(e -> {
+            Recipe similar = view.getSimilarRecipesListView().getSelectionModel().getSelectedItem();
+            if (similar != null && view.getRecipeListView().getItems().contains(similar)) {
+                view.getRecipeListView().getSelectionModel().select(similar);
+                view.getRecipeListView().scrollTo(similar);
+            }
+        });
+
+        view.getFilterField().textProperty().addListener((obs, oldV, newV) -> applyFilters(FILTER_DEBOUNCE_MS));
+        view.getTagCheckCombo().getCheckModel().getCheckedItems().addListener((ListChangeListener<Tag>) c -> {
+            if (!updatingFacets) applyFilters(0);
+        });
+        view.getTagCheckCombo().setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Tag tag) {
+                return tag == null ? "" : tag.getName() + " (" + facetCounts.getOrDefault(tag, 0) + ")";
+            }
+
+            @Override
+            public Tag fromString(String string) {
+                return null;
+            }
+        });
 
         view.getSortByRatingButton().setOnAction(e -> {
-            ObservableList<Recipe> currentList = view.getRecipeListView().getItems();
-            FXCollections.sort(currentList, Comparator.comparingInt(Recipe::getRating).reversed());
+            if (sortOrder == null) {
+                sortOrder = BY_RATING;
+                view.getSortByRatingButton().setText(SORT_UNSORTED);
+                FXCollections.sort(view.getRecipeListView().getItems(), sortOrder);
+            } else {
+                sortOrder = null;
+                view.getSortByRatingButton().setText(SORT_BY_RATING);
+                applyFilters(0);
+            }
         });
 
         view.getPortion2Button().setOnAction(e -> updatePortion(2));
@@ -81,37 +137,204 @@ public class IkladdeAppController {
 
         view.getRatingControl().ratingProperty().addListener((obs, oldR, newR) -> {
             Recipe selected = view.getRecipeListView().getSelectionModel().getSelectedItem();
-            if (selected != null) {
-                selected.setRating(newR.intValue());
-                recipeManager.saveRecipe(selected);
+            if (selected != null && selected.getRating() != newR.intValue()) {
+                // Rezepte im Bestand sind eingefroren; gespeichert wird eine Kopie, die das Rezept dann ersetzt
+                Recipe changed = selected.copy();
+                changed.setRating(newR.intValue());
+                recipeManager.saveRecipe(changed);
             }
         });
 
-        view.getManageRecipesButton().setOnAction(e -> {
-            onOpenRecipeManager.accept(recipeManager);
-            refreshRecipes();
-            refreshTags();
+        view.getPrintButton().setOnAction(e -> handlePrint());
+
+        view.getManageRecipesButton().setOnAction(e -> onOpenRecipeManager.accept(recipeManager));
+        view.getImportButton().setOnAction(e -> handleImport());
+
+        new PhotoPrefetcher(view.getRecipeListView());
+        recipeManager.addChangeListener(this::onRecipesChanged, Platform::runLater);
+        loadInBackground(true);
+    }
+
+    /**
+     * Übernimmt gesammelte Änderungen des Rezeptverwalters in die Liste (läuft im JavaFX-Thread).
+     * Wurden nur bestehende Rezepte gespeichert, werden sie in den Listen durch ihre neue Fassung ersetzt;
+     * sonst wird der Bestand übernommen und der Filter neu angewendet.
+     *
+     * @param changes Änderungen seit der letzten Zustellung
+     */
+    private void onRecipesChanged(List<RecipeChange> changes) {
+        CatalogStatistics statistics = recipeManager.getStatistics();
+        search.setRecipes(recipeManager.getRecipes(), statistics);
+        view.getTagCheckCombo().setTooltip(new Tooltip(statistics.describe()));
+        if (changes.stream().allMatch(c -> c.getType() == RecipeChange.Type.UPDATED)) {
+            ObservableList<Recipe> shown = view.getRecipeListView().getItems();
+            Recipe selected = view.getRecipeListView().getSelectionModel().getSelectedItem();
+            for (RecipeChange change : changes) {
+                replace(allRecipes, change.getRecipe());
+                if (shown != allRecipes) replace(shown, change.getRecipe());
+            }
+            if (sortOrder != null) {
+                FXCollections.sort(shown, sortOrder);
+            }
+            int index = selected != null ? shown.indexOf(selected) : -1;
+            if (index >= 0 && shown.get(index) != view.getRecipeListView().getSelectionModel().getSelectedItem()) {
+                view.getRecipeListView().getSelectionModel().select(index);
+            }
+            return;
+        }
+        allRecipes.setAll(recipeManager.getRecipes());
+        applyFilters(0);
+    }
+
+    /**
+     * Ersetzt ein Rezept (gleiche ID) in der Liste durch seine neue Fassung.
+     */
+    private static void replace(ObservableList<Recipe> list, Recipe recipe) {
+        int index = list.indexOf(recipe);
+        if (index >= 0) {
+            list.set(index, recipe);
+        }
+    }
+
+    /**
+     * Lädt Rezepte und Tags in einem Hintergrund-Thread und übergibt sie danach dem JavaFX-Thread.
+     * Solange ist die Rezeptverwaltung gesperrt. Beim Start werden mit {@code -Dikladde.steps.compress=true}
+     * vorher alle Schritttexte komprimiert gespeichert.
+     *
+     * @param startup true beim ersten Laden nach dem Programmstart
+     */
+    private void loadInBackground(boolean startup) {
+        view.getManageRecipesButton().setDisable(true);
+        Thread loader = new Thread(() -> {
+            if (startup && Boolean.getBoolean("ikladde.steps.compress")) {
+                new StepDictionaryDAO().compressCatalog();
+            }
+            recipeManager.loadData();
+            List<Tag> allTags = recipeManager.getAllTags();
+            // Die Rezepte selbst kommen über onRecipesChanged (RELOADED), das vorher eingereiht wurde
+            Platform.runLater(() -> {
+                view.getTagCheckCombo().getItems().setAll(allTags);
+                view.getManageRecipesButton().setDisable(false);
+                if (!startup) return;
+                view.setRecipesLoading(false);
+                StartupTimer.mark("Daten geladen");
+                StartupTimer.report();
+                if (Boolean.getBoolean("ikladde.startup.exitAfterLoad")) {
+                    Platform.exit();
+                }
+            });
+        }, "recipe-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Wendet aktuelle Filter (Text & Tags) auf die Rezeptliste an. Die Suche läuft im Hintergrund;
+     * die ersten Treffer ersetzen sofort die Liste, weitere werden angehängt, sobald sie berechnet sind.
+     * Ein zuvor ausgewähltes Rezept bleibt ausgewählt, wenn es weiterhin passt.
+     * Zum Schluss werden die Zahlen in der Tag-Auswahl an den Suchtext angepasst.
+     *
+     * @param delayMs Entprellzeit in Millisekunden (0 = sofort, z. B. nach dem Laden)
+     */
+    private void applyFilters(long delayMs) {
+        String text = view.getFilterField().getText();
+        List<Tag> selectedTags = new ArrayList<>(view.getTagCheckCombo().getCheckModel().getCheckedItems());
+        Recipe selected = view.getRecipeListView().getSelectionModel().getSelectedItem();
+        search.submit(text, selectedTags, delayMs, new SearchExecutor.Listener() {
+            @Override
+            public void onResults(List<Recipe> recipes, boolean first) {
+                if (first) {
+                    ObservableList<Recipe> items = FXCollections.observableArrayList(recipes);
+                    if (sortOrder != null) FXCollections.sort(items, sortOrder);
+                    view.getRecipeListView().setItems(items);
+                } else {
+                    insertSorted(view.getRecipeListView().getItems(), recipes);
+                }
+                if (selected != null && recipes.contains(selected)) {
+                    view.getRecipeListView().getSelectionModel().select(selected);
+                }
+            }
+
+            @Override
+            public void onFacets(Map<Tag, Integer> counts) {
+                showFacetCounts(counts);
+            }
         });
+    }
 
-        List<Tag> allTags = new RecipeDAO().getAllTags();
-        view.getTagCheckCombo().getItems().setAll(allTags);
+    /**
+     * Fügt nachgelieferte Treffer ein. Ist eine Sortierung gewählt, kommt jeder Treffer an seine Stelle
+     * (hinter gleichrangige); aufeinanderfolgende Treffer mit derselben Stelle werden gemeinsam eingefügt,
+     * damit die Liste nicht für jedes Rezept eine eigene Änderung meldet.
+     *
+     * @param items   angezeigte, bereits sortierte Liste
+     * @param recipes weitere Treffer
+     */
+    private void insertSorted(ObservableList<Recipe> items, List<Recipe> recipes) {
+        if (sortOrder == null) {
+            items.addAll(recipes);
+            return;
+        }
+        List<Recipe> chunk = new ArrayList<>(recipes);
+        chunk.sort(sortOrder);
+        int inserted = 0;
+        int i = 0;
+        while (i < chunk.size()) {
+            int position = upperBound(items, chunk.get(i), inserted);
+            int end = i + 1;
+            while (end < chunk.size() && (position == items.size()
+                    || sortOrder.compare(chunk.get(end), items.get(position)) < 0)) {
+                end++;
+            }
+            items.addAll(position, chunk.subList(i, end));
+            inserted = position + end - i;
+            i = end;
+        }
     }
 
     /**
-     * Wendet aktuelle Filter (Text & Tags) auf die Rezeptliste an.
+     * @return erste Stelle ab {@code from}, deren Rezept nach {@code recipe} einsortiert ist
      */
-    private void applyFilters() {
-        String text = view.getFilterField().getText().toLowerCase();
-        ObservableList<Tag> selectedTags = view.getTagCheckCombo().getCheckModel().getCheckedItems();
-        ObservableList<Recipe> filtered = FXCollections.observableArrayList();
-        for (Recipe r : allRecipes) {
-            boolean matchesName = text.isEmpty() || r.getName().toLowerCase().contains(text);
-            boolean matchesTags = selectedTags.isEmpty() || r.getTags().stream().anyMatch(selectedTags::contains);
-            if (matchesName && matchesTags) {
-                filtered.add(r);
+    private int upperBound(List<Recipe> items, Recipe recipe, int from) {
+        int low = from;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortOrder.compare(items.get(mid), recipe) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
-        view.getRecipeListView().setItems(filtered);
+        return low;
+    }
+
+    /**
+     * Beschriftet die Tag-Auswahl mit neuen Zahlen. Die Zellen der Auswahl zeichnen sich nur neu,
+     * wenn sich ihr Eintrag ändert; daher wird jeder Eintrag durch sich selbst ersetzt und die
+     * Häkchen danach wiederhergestellt.
+     *
+     * @param counts Tag → Anzahl Rezepte zum aktuellen Suchtext
+     */
+    private void showFacetCounts(Map<Tag, Integer> counts) {
+        if (counts.equals(facetCounts)) return;
+        facetCounts = counts;
+        CheckComboBox<Tag> combo = view.getTagCheckCombo();
+        List<Tag> checked = new ArrayList<>(combo.getCheckModel().getCheckedItems());
+        updatingFacets = true;
+        try {
+            ObservableList<Tag> items = combo.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                items.set(i, items.get(i));
+            }
+            for (Tag tag : checked) {
+                if (!combo.getCheckModel().isChecked(tag)) {
+                    combo.getCheckModel().check(tag);
+                }
+            }
+        } finally {
+            updatingFacets = false;
+        }
     }
 
     /**
@@ -120,38 +343,42 @@ public class IkladdeAppController {
      * @param recipe Das aktuell ausgewählte Rezept
      */
     private void showRecipeDetails(Recipe recipe) {
-        view.getCenterRecipeNameLabel().setText(recipe.getName());
-        view.getRightRecipeNameLabel().setText(recipe.getName());
-        selectedPortions = null;
-        if (recipe.getPhoto() != null) {
-            view.getRecipeImageView().setImage(new Image("file:" + recipe.getPhoto().getFilePath()));
-        } else {
-            view.getRecipeImageView().setImage(null);
-        }
+        RecipeDisplayEvent event = new RecipeDisplayEvent();
+        event.begin();
+        event.recipeId = recipe.getId();
+        event.recipeName = recipe.getName();
+        try (Timer.Sample sample = Metrics.time("ui.showRecipeDetails")) {
+            view.getCenterRecipeNameLabel().setText(recipe.getName());
+            view.getRightRecipeNameLabel().setText(recipe.getName());
+            selectedPortions = null;
+            if (recipe.getPhoto() != null) {
+                view.getRecipeImageView().setImage(PhotoLoader.load(recipe.getPhoto().getFilePath()));
+            } else {
+                view.getRecipeImageView().setImage(null);
+            }
 
-        if (recipe.getModifiedDate() != null) {
-            view.getLastModifiedLabel().setText("Letzte Änderung: " + recipe.getModifiedDate());
-        } else {
-            view.getLastModifiedLabel().setText("Letzte Änderung: unbekannt");
-        }
+            if (recipe.getModifiedDate() != null) {
+                view.getLastModifiedLabel().setText("Letzte Änderung: " + recipe.getModifiedDate());
+            } else {
+                view.getLastModifiedLabel().setText("Letzte Änderung: unbekannt");
+            }
 
-        view.getRatingControl().setRating(recipe.getRating());
+            view.getRatingControl().setRating(recipe.getRating());
 
-        view.getTagsFlowPane().getChildren().clear();
-        for (Tag tag : recipe.getTags()) {
-            Label tagLabel = new Label(tag.getName());
-            tagLabel.setStyle("-fx-border-color: gray; -fx-padding: 2;");
-            view.getTagsFlowPane().getChildren().add(tagLabel);
-        }
+            view.getTagChips().show(recipe.getTags());
 
-        currentStepIndex = 0;
-        updateStepText();
+            currentStepIndex = 0;
+            updateStepText();
 
-        baseIngredients = new ArrayList<>(recipe.getIngredients());
-        updateIngredientsTable(1);
+            baseIngredients = new ArrayList<>(recipe.getIngredients());
+            updateIngredientsTable(1);
 
-        view.getLastModifiedLabel().setText("Erstellungsdatum: " + recipe.getCreatedDate());
-        updateDisplayedPortions(recipe);
+            view.getLastModifiedLabel().setText("Erstellungsdatum: " + recipe.getCreatedDate());
+            updateDisplayedPortions(recipe);
+
+            view.getSimilarRecipesListView().getItems().setAll(recipeManager.findSimilar(recipe, SIMILAR_RECIPES_LIMIT));
+        }
+        event.commit();
     }
 
     /**
@@ -171,6 +398,109 @@ public class IkladdeAppController {
         view.getIngredientsTable().setItems(list);
     }
 
+    /**
+     * Speichert das ausgewählte Rezept mit der gewählten Portionszahl als PDF.
+     * Ist kein Rezept ausgewählt, werden nach Rückfrage alle angezeigten Rezepte als Kochbuch gespeichert.
+     * Das Setzen läuft im Hintergrund; der Knopf ist solange gesperrt.
+     */
+    private void handlePrint() {
+        Recipe selected = view.getRecipeListView().getSelectionModel().getSelectedItem();
+        List<Recipe> recipes;
+        String fileName;
+        int portions;
+        if (selected != null) {
+            recipes = List.of(selected);
+            fileName = selected.getName() + ".pdf";
+            portions = selectedPortions != null ? selectedPortions : 0;
+        } else {
+            recipes = new ArrayList<>(view.getRecipeListView().getItems());
+            if (recipes.isEmpty()) return;
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                    "Kein Rezept ausgewählt. Alle " + recipes.size() + " angezeigten Rezepte als Kochbuch speichern?",
+                    ButtonType.YES, ButtonType.NO);
+            confirm.setHeaderText(null);
+            if (confirm.showAndWait().orElse(ButtonType.NO) != ButtonType.YES) return;
+            fileName = "Kochbuch.pdf";
+            portions = 0;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Als PDF speichern");
+        fileChooser.setInitialFileName(fileName.replaceAll("[\\\\/:*?\"<>|]", "_"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF-Dateien", "*.pdf"));
+        File target = fileChooser.showSaveDialog(view.getPrintButton().getScene().getWindow());
+        if (target == null) return;
+
+        view.getPrintButton().setDisable(true);
+        Thread worker = new Thread(() -> {
+            String message;
+            Alert.AlertType type = Alert.AlertType.INFORMATION;
+            try {
+                int pages = printer.renderCookbook(recipes, portions, target);
+                message = target.getName() + " wurde gespeichert (" + pages + (pages == 1 ? " Seite)." : " Seiten).");
+            } catch (IOException | RuntimeException ex) {
+                // auch unerwartete Fehler melden, sonst bliebe der Knopf gesperrt
+                ex.printStackTrace();
+                message = "Fehler beim Speichern der PDF-Datei.";
+                type = Alert.AlertType.ERROR;
+            }
+            String text = message;
+            Alert.AlertType alertType = type;
+            Platform.runLater(() -> {
+                view.getPrintButton().setDisable(false);
+                Alert alert = new Alert(alertType, text, ButtonType.OK);
+                alert.setHeaderText(null);
+                alert.showAndWait();
+            });
+        }, "print-export");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Importiert alle Rezeptbilder eines gewählten Ordners über den Rezeptverwalter.
+     * Der Import läuft im Hintergrund; die neuen Rezepte erscheinen über {@link #onRecipesChanged},
+     * sobald ein Block gespeichert ist. Zum Schluss wird eine Zusammenfassung mit den Fehlern angezeigt.
+     */
+    private void handleImport() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Ordner mit Rezeptbildern wählen");
+        File folder = chooser.showDialog(view.getImportButton().getScene().getWindow());
+        if (folder == null) return;
+
+        view.getImportButton().setDisable(true);
+        Thread worker = new Thread(() -> {
+            StringBuilder message = new StringBuilder();
+            Alert.AlertType type = Alert.AlertType.INFORMATION;
+            try {
+                ImportResult result = AIRecipeHelper.importFromFolder(folder, recipeManager);
+                message.append(result.getImported().size()).append(" Rezepte importiert.");
+                if (!result.getFailed().isEmpty()) {
+                    type = Alert.AlertType.WARNING;
+                    message.append("\n").append(result.getFailed().size()).append(" Dateien fehlgeschlagen:");
+                    result.getFailed().forEach((file, reason) ->
+                            message.append("\n").append(file.getName()).append(": ").append(reason));
+                }
+            } catch (RuntimeException ex) {
+                // auch unerwartete Fehler melden, sonst bliebe der Knopf gesperrt
+                ex.printStackTrace();
+                message.setLength(0);
+                message.append("Fehler beim Importieren des Ordners.");
+                type = Alert.AlertType.ERROR;
+            }
+            String text = message.toString();
+            Alert.AlertType alertType = type;
+            Platform.runLater(() -> {
+                view.getImportButton().setDisable(false);
+                Alert alert = new Alert(alertType, text, ButtonType.OK);
+                alert.setHeaderText(null);
+                alert.showAndWait();
+            });
+        }, "recipe-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     /**
      * Berechnet den Portionsfaktor neu und aktualisiert Anzeige und Zutaten.
      *
@@ -206,20 +536,11 @@ public class IkladdeAppController {
     }
 
     /**
-     * Aktualisiert die Tag-Auswahl aus der Datenbank.
-     */
-    public void refreshTags() {
-        List<Tag> tags = new RecipeDAO().getAllTags();
-        view.getTagCheckCombo().getItems().setAll(tags);
-    }
-
-    /**
-     * Lädt die Rezepte aus der Datenbank neu und wendet Filter an.
+     * Lädt Rezepte und Tags im Hintergrund neu (z. B. nach dem Schließen der Rezeptverwaltung);
+     * die Liste wird über {@link #onRecipesChanged} aktualisiert.
      */
     public void refreshRecipes() {
-        recipeManager.loadData();
-        allRecipes.setAll(recipeManager.getRecipes());
-        applyFilters();
+        loadInBackground(false);
     }
 
     /**
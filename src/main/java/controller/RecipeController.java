@@ -1,10 +1,15 @@
 package controller;
 
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.TextInputDialog;
 import javafx.stage.FileChooser;
 import model.*;
+import org.controlsfx.control.textfield.AutoCompletionBinding;
+import org.controlsfx.control.textfield.TextFields;
 import view.RecipeView;
 import javafx.collections.ObservableList;
 import javafx.stage.Stage;
@@ -14,20 +19,30 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Controller für das Rezeptverwaltungsfenster.
  * Behandelt Benutzeraktionen wie Hinzufügen, Bearbeiten, Löschen und Speichern von Rezepten.
+ * Der Editor arbeitet auf eigenen Kopien der Rezepte; erst beim Speichern ersetzt der
+ * {@link RecipeManager} das Rezept im gemeinsamen Bestand.
  */
 public class RecipeController {
 
     private final RecipeManager recipeManager;
     private final RecipeView recipeView;
+    private final EditJournal journal = new EditJournal(new File("database/edits.journal"));
     private Recipe currentRecipe;
 
+    private static final int SUGGESTION_LIMIT = 8;
+
     /**
      * Initialisiert den Controller und verbindet alle Aktionen mit der Benutzeroberfläche.
+     * Die Rezepte stammen aus dem Bestand im Speicher; die Datenbank wird dafür nicht erneut gelesen.
      *
      * @param recipeManager Zentrale Rezeptverwaltung
      * @param recipeView    Ansicht für die Rezeptbearbeitung
@@ -36,14 +51,30 @@ public class RecipeController {
         this.recipeManager = recipeManager;
         this.recipeView = recipeView;
 
-        recipeManager.loadData();
-        recipeView.getRecipeListView().getItems().addAll(recipeManager.getRecipes());
+        List<Recipe> working = new ArrayList<>();
+        for (Recipe recipe : recipeManager.getRecipes()) {
+            working.add(recipe.copy());
+        }
+        int recovered = journal.recover(working);
+        recipeView.getRecipeListView().getItems().addAll(working);
+        if (recovered > 0) {
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION,
+                        "Nicht gespeicherte Änderungen an " + recovered + " Rezept(en) wurden wiederhergestellt.", ButtonType.OK);
+                alert.setHeaderText(null);
+                alert.showAndWait();
+            });
+        }
 
         recipeView.getRecipeListView().getSelectionModel().selectedItemProperty().addListener((obs, alt, neu) -> {
             currentRecipe = neu;
             recipeView.displayRecipe(neu);
+            updateUndoButtons();
         });
+        updateUndoButtons();
 
+        recipeView.getUndoButton().setOnAction(e -> handleUndo());
+        recipeView.getRedoButton().setOnAction(e -> handleRedo());
         recipeView.getSaveButton().setOnAction(e -> handleSave());
         recipeView.getAddRecipeButton().setOnAction(e -> handleAdd());
         recipeView.getRemoveRecipeButton().setOnAction(e -> handleDelete());
@@ -58,6 +89,7 @@ public class RecipeController {
         recipeView.getRemoveTagButton().setOnAction(e -> handleRemoveTag());
 
         recipeView.getChangePhotoButton().setOnAction(e -> handleChangePhoto());
+        recipeView.getFindDuplicatesButton().setOnAction(e -> handleFindDuplicates());
 
         recipeView.getCloseButton().setOnAction(e -> {
             Stage stage = (Stage) recipeView.getScene().getWindow();
@@ -71,7 +103,7 @@ public class RecipeController {
     private void handleAdd() {
         Recipe newRecipe = new Recipe("Neues Rezept");
         newRecipe.setCreatedDate(LocalDate.now().toString());
-        recipeManager.addRecipe(newRecipe);
+        // In den gemeinsamen Bestand kommt das Rezept erst beim Speichern
         recipeView.getRecipeListView().getItems().add(newRecipe);
         recipeView.getRecipeListView().getSelectionModel().select(newRecipe);
     }
@@ -81,18 +113,9 @@ public class RecipeController {
      */
     private void handleSave() {
         if (currentRecipe != null) {
-            currentRecipe.setName(recipeView.getNameField().getText());
-            try {
-                int portions = Integer.parseInt(recipeView.getPortionsField().getText());
-                currentRecipe.setPortions(portions);
-            } catch (NumberFormatException e) {
-                currentRecipe.setPortions(2);
-            }
-
-            currentRecipe.getTags().clear();
-            currentRecipe.getTags().addAll(recipeView.getTagListView().getItems());
-
-            recipeManager.saveRecipe(currentRecipe);
+            recordFieldEdits();
+            recipeManager.saveEdits(currentRecipe, journal.getPending(currentRecipe));
+            journal.markSaved(currentRecipe);
 
             ObservableList<Recipe> list = recipeView.getRecipeListView().getItems();
             int index = list.indexOf(currentRecipe);
@@ -113,6 +136,7 @@ public class RecipeController {
      */
     private void handleDelete() {
         if (currentRecipe != null) {
+            journal.forget(currentRecipe);
             recipeManager.removeRecipe(currentRecipe);
             recipeView.getRecipeListView().getItems().remove(currentRecipe);
             currentRecipe = null;
@@ -121,39 +145,147 @@ public class RecipeController {
     }
 
     /**
-     * Fügt dem Rezept eine neue Zutat hinzu.
+     * Sucht mögliche Duplikate in einem Hintergrund-Thread; der Knopf ist solange gesperrt.
+     * Das Ergebnis wird danach im JavaFX-Thread mit {@link #showDuplicates} angezeigt.
+     */
+    private void handleFindDuplicates() {
+        Task<List<DuplicateCandidate>> task = new Task<>() {
+            @Override
+            protected List<DuplicateCandidate> call() {
+                return recipeManager.findDuplicates();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            recipeView.getFindDuplicatesButton().setDisable(false);
+            showDuplicates(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            recipeView.getFindDuplicatesButton().setDisable(false);
+            task.getException().printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Fehler bei der Duplikatsuche.", ButtonType.OK);
+            alert.setHeaderText(null);
+            alert.showAndWait();
+        });
+        recipeView.getFindDuplicatesButton().setDisable(true);
+        Thread worker = new Thread(task, "duplicate-search");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Zeigt die gefundenen Duplikate und führt das gewählte Paar nach Rückfrage zusammen.
+     *
+     * @param candidates Duplikat-Kandidaten, ähnlichste zuerst
+     */
+    private void showDuplicates(List<DuplicateCandidate> candidates) {
+        if (candidates.isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Keine Duplikate gefunden.", ButtonType.OK);
+            alert.setHeaderText(null);
+            alert.showAndWait();
+            return;
+        }
+        ChoiceDialog<DuplicateCandidate> dialog = new ChoiceDialog<>(candidates.get(0), candidates);
+        dialog.setHeaderText("Mögliche Duplikate (das rechte Rezept wird entfernt)");
+        Optional<DuplicateCandidate> result = dialog.showAndWait();
+        result.ifPresent(candidate -> {
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                    "\"" + candidate.getDuplicate().getName() + "\" mit \"" + candidate.getKeep().getName() + "\" zusammenführen?",
+                    ButtonType.YES, ButtonType.NO);
+            confirm.setHeaderText(null);
+            if (confirm.showAndWait().orElse(ButtonType.NO) == ButtonType.YES && recipeManager.mergeRecipes(candidate)) {
+                ObservableList<Recipe> list = recipeView.getRecipeListView().getItems();
+                int duplicate = list.indexOf(candidate.getDuplicate());
+                if (duplicate >= 0) {
+                    journal.forget(list.remove(duplicate));
+                }
+                // Die zusammengeführte Fassung aus dem Bestand ersetzt die Kopie im Editor
+                int keep = list.indexOf(candidate.getKeep());
+                for (Recipe merged : recipeManager.getRecipes()) {
+                    if (keep >= 0 && merged.equals(candidate.getKeep())) {
+                        journal.forget(list.get(keep));
+                        list.set(keep, merged.copy());
+                    }
+                }
+                recipeView.getRecipeListView().getSelectionModel().select(keep);
+            }
+        });
+    }
+
+    /**
+     * Fügt dem Rezept eine neue Zutat hinzu. Beim Tippen werden bekannte Zutaten und,
+     * nach der Menge, bekannte Einheiten vorgeschlagen.
      */
     private void handleAddIngredient() {
         if (currentRecipe == null) return;
         TextInputDialog dialog = new TextInputDialog();
         dialog.setHeaderText("Neue Zutat eingeben (z.B. Zucker 100 g)");
+        AutoCompletionBinding<String> completion = TextFields.bindAutoCompletion(dialog.getEditor(),
+                request -> suggestIngredientInput(request.getUserText()));
         Optional<String> result = dialog.showAndWait();
+        completion.dispose();
         result.ifPresent(input -> {
-            String[] parts = input.split(" ", 3);
-            if (parts.length >= 2) {
-                String name = parts[0];
-                double quantity;
-                try {
-                    quantity = Double.parseDouble(parts[1]);
-                } catch (NumberFormatException e) {
-                    quantity = 1.0;
+            // Die Menge ist das erste Wort, das eine Zahl ist; davor steht der Name, danach die Einheit
+            String[] parts = input.trim().split("\\s+");
+            int quantityIndex = 1;
+            for (int i = 1; i < parts.length; i++) {
+                if (parseQuantity(parts[i]) != null) {
+                    quantityIndex = i;
+                    break;
                 }
-                String unit = (parts.length == 3) ? parts[2] : "";
+            }
+            if (parts.length >= 2) {
+                String name = String.join(" ", Arrays.asList(parts).subList(0, quantityIndex));
+                Double parsed = parseQuantity(parts[quantityIndex]);
+                double quantity = parsed != null ? parsed : 1.0;
+                String unit = String.join(" ", Arrays.asList(parts).subList(quantityIndex + 1, parts.length));
                 Ingredient ing = new Ingredient(name, quantity, unit);
-                currentRecipe.addIngredient(ing);
-                recipeView.getIngredientListView().getItems().add(ing);
+                journal.record(currentRecipe, EditOperation.addIngredient(currentRecipe.getIngredients().size(), ing));
+                recipeView.getIngredientListView().getItems().setAll(currentRecipe.getIngredients());
+                updateUndoButtons();
             }
         });
     }
 
+    /**
+     * Vorschläge für die Zutateneingabe: ohne Menge bekannte Zutatennamen,
+     * nach der Menge bekannte Einheiten (der bereits getippte Anfang bleibt erhalten).
+     */
+    private List<String> suggestIngredientInput(String input) {
+        String[] parts = input.split("\\s+", -1);
+        for (int i = 1; i < parts.length - 1; i++) {
+            if (parseQuantity(parts[i]) != null) {
+                String head = String.join(" ", Arrays.asList(parts).subList(0, i + 1)) + " ";
+                String unitPrefix = String.join(" ", Arrays.asList(parts).subList(i + 1, parts.length));
+                List<String> result = new ArrayList<>();
+                for (String unit : recipeManager.getSuggestions().suggestUnits(unitPrefix, SUGGESTION_LIMIT)) {
+                    result.add(head + unit);
+                }
+                return result;
+            }
+        }
+        if (input.isBlank() || parseQuantity(parts[parts.length - 1]) != null) {
+            return List.of();
+        }
+        return recipeManager.getSuggestions().suggestIngredients(input, SUGGESTION_LIMIT);
+    }
+
+    private static Double parseQuantity(String text) {
+        try {
+            return Double.parseDouble(text.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Entfernt die aktuell ausgewählte Zutat.
      */
     private void handleRemoveIngredient() {
-        Ingredient selected = recipeView.getIngredientListView().getSelectionModel().getSelectedItem();
-        if (currentRecipe != null && selected != null) {
-            currentRecipe.removeIngredient(selected);
-            recipeView.getIngredientListView().getItems().remove(selected);
+        int index = recipeView.getIngredientListView().getSelectionModel().getSelectedIndex();
+        if (currentRecipe != null && index >= 0) {
+            journal.record(currentRecipe, EditOperation.removeIngredient(index, currentRecipe.getIngredients().get(index)));
+            recipeView.getIngredientListView().getItems().remove(index);
+            updateUndoButtons();
         }
     }
 
@@ -166,9 +298,9 @@ public class RecipeController {
         dialog.setHeaderText("Neuen Schritt eingeben");
         Optional<String> result = dialog.showAndWait();
         result.ifPresent(desc -> {
-            Step step = new Step(desc);
-            currentRecipe.addStep(step);
-            recipeView.getStepListView().getItems().add(step);
+            journal.record(currentRecipe, EditOperation.addStep(currentRecipe.getSteps().size(), desc));
+            recipeView.getStepListView().getItems().setAll(currentRecipe.getSteps());
+            updateUndoButtons();
         });
     }
 
@@ -176,25 +308,30 @@ public class RecipeController {
      * Entfernt den aktuell ausgewählten Schritt.
      */
     private void handleRemoveStep() {
-        Step selected = recipeView.getStepListView().getSelectionModel().getSelectedItem();
-        if (currentRecipe != null && selected != null) {
-            currentRecipe.removeStep(selected);
-            recipeView.getStepListView().getItems().remove(selected);
+        int index = recipeView.getStepListView().getSelectionModel().getSelectedIndex();
+        if (currentRecipe != null && index >= 0) {
+            journal.record(currentRecipe, EditOperation.removeStep(index, currentRecipe.getSteps().get(index).getDescription()));
+            recipeView.getStepListView().getItems().remove(index);
+            updateUndoButtons();
         }
     }
 
     /**
-     * Fügt dem Rezept einen neuen Tag hinzu.
+     * Fügt dem Rezept einen neuen Tag hinzu. Beim Tippen werden die häufigsten passenden Tags vorgeschlagen.
      */
     private void handleAddTag() {
         if (currentRecipe == null) return;
         TextInputDialog dialog = new TextInputDialog();
         dialog.setHeaderText("Neuen Tag eingeben");
+        AutoCompletionBinding<String> completion = TextFields.bindAutoCompletion(dialog.getEditor(),
+                request -> request.getUserText().isBlank() ? List.of()
+                        : recipeManager.getSuggestions().suggestTags(request.getUserText(), SUGGESTION_LIMIT));
         Optional<String> result = dialog.showAndWait();
+        completion.dispose();
         result.ifPresent(name -> {
-            Tag tag = new Tag(name);
-            currentRecipe.addTag(tag);
-            recipeView.getTagListView().getItems().add(tag);
+            journal.record(currentRecipe, EditOperation.addTag(currentRecipe.getTags().size(), name));
+            recipeView.getTagListView().getItems().setAll(currentRecipe.getTags());
+            updateUndoButtons();
         });
     }
 
@@ -202,10 +339,11 @@ public class RecipeController {
      * Entfernt den aktuell ausgewählten Tag.
      */
     private void handleRemoveTag() {
-        Tag selected = recipeView.getTagListView().getSelectionModel().getSelectedItem();
-        if (currentRecipe != null && selected != null) {
-            currentRecipe.removeTag(selected);
-            recipeView.getTagListView().getItems().remove(selected);
+        int index = recipeView.getTagListView().getSelectionModel().getSelectedIndex();
+        if (currentRecipe != null && index >= 0) {
+            journal.record(currentRecipe, EditOperation.removeTag(index, currentRecipe.getTags().get(index).getName()));
+            recipeView.getTagListView().getItems().remove(index);
+            updateUndoButtons();
         }
     }
 
@@ -230,8 +368,10 @@ public class RecipeController {
 
                 Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
-                currentRecipe.setPhoto(new Photo("photos/" + fileName));
+                String previous = currentRecipe.getPhoto() != null ? currentRecipe.getPhoto().getFilePath() : null;
+                journal.record(currentRecipe, EditOperation.setPhoto(previous, "photos/" + fileName));
                 recipeView.updatePhoto(target.getPath());
+                updateUndoButtons();
             } catch (IOException ex) {
                 ex.printStackTrace();
                 Alert alert = new Alert(Alert.AlertType.ERROR, "Fehler beim Kopieren des Fotos.");
@@ -239,4 +379,51 @@ public class RecipeController {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Macht die letzte Änderung am ausgewählten Rezept rückgängig.
+     */
+    private void handleUndo() {
+        if (currentRecipe == null) return;
+        recordFieldEdits();
+        if (journal.undo(currentRecipe)) {
+            recipeView.displayRecipe(currentRecipe);
+        }
+        updateUndoButtons();
+    }
+
+    /**
+     * Wiederholt die zuletzt rückgängig gemachte Änderung.
+     */
+    private void handleRedo() {
+        if (currentRecipe == null) return;
+        if (journal.redo(currentRecipe)) {
+            recipeView.displayRecipe(currentRecipe);
+        }
+        updateUndoButtons();
+    }
+
+    /**
+     * Übernimmt geänderten Namen und Portionen aus den Textfeldern als Änderungen ins Journal.
+     */
+    private void recordFieldEdits() {
+        String name = recipeView.getNameField().getText();
+        if (!Objects.equals(name, currentRecipe.getName())) {
+            journal.record(currentRecipe, EditOperation.setName(currentRecipe.getName(), name));
+        }
+        int portions;
+        try {
+            portions = Integer.parseInt(recipeView.getPortionsField().getText());
+        } catch (NumberFormatException e) {
+            portions = 2;
+        }
+        if (portions != currentRecipe.getPortions()) {
+            journal.record(currentRecipe, EditOperation.setPortions(currentRecipe.getPortions(), portions));
+        }
+    }
+
+    private void updateUndoButtons() {
+        recipeView.getUndoButton().setDisable(currentRecipe == null || !journal.canUndo(currentRecipe));
+        recipeView.getRedoButton().setDisable(currentRecipe == null || !journal.canRedo(currentRecipe));
+    }
+}
@@ -0,0 +1,209 @@
+package database;
+
+import model.StepDictionary;
+import model.TagRegistry;
+import monitoring.Metrics;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ein Rezeptkatalog in einer eigenen SQLite-Datei (z. B. privat, Familie, Restaurant).
+ * Jeder Katalog hat einen eigenen kleinen Verbindungspool: geschlossene Verbindungen werden
+ * nicht beendet, sondern für die nächste Anfrage aufgehoben. Offene Transaktionen werden dabei zurückgerollt.
+ */
+public class Catalog {
+
+    /** So viele ungenutzte Verbindungen hält jeder Katalog höchstens bereit. */
+    private static final int POOL_SIZE = 4;
+
+    private static final Catalog DEFAULT = new Catalog("Standard", new File("database/ikladde.db"));
+
+    private final String name;
+    private final File file;
+    private final BlockingQueue<Connection> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final TagRegistry tags = new TagRegistry();
+
+    /** Wörterbücher für komprimierte Schritttexte; sie gehören zur jeweiligen Datei. */
+    final Map<Integer, StepDictionary> stepDictionaries = new ConcurrentHashMap<>();
+    volatile StepDictionary currentStepDictionary;
+    volatile boolean currentStepDictionaryLoaded = false;
+    /** Wörterbücher für Zutatennamen und Einheiten (Tabellen ingredient_name und unit). */
+    final TermDictionary ingredientNames = new TermDictionary("ingredient_name");
+    final TermDictionary units = new TermDictionary("unit");
+
+    /**
+     * @param name Anzeigename des Katalogs
+     * @param file SQLite-Datei; wird beim ersten Zugriff angelegt
+     */
+    public Catalog(String name, File file) {
+        this.name = name;
+        this.file = file;
+    }
+
+    /**
+     * @return der Katalog der Anwendung unter database/ikladde.db
+     */
+    public static Catalog getDefault() {
+        return DEFAULT;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return Verzeichnis der Tags dieses Katalogs (IDs gelten nur innerhalb einer Datei)
+     */
+    public TagRegistry getTagRegistry() {
+        return tags;
+    }
+
+    /**
+     * @return Datei für den Schnappschuss beim Beenden, neben der Datenbank mit Endung .snapshot
+     */
+    public File getSnapshotFile() {
+        String fileName = file.getName();
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return new File(file.getAbsoluteFile().getParentFile(), base + ".snapshot");
+    }
+
+    /**
+     * Gibt eine Verbindung aus dem Pool zurück oder öffnet eine neue.
+     * {@link Connection#close()} gibt sie an den Pool zurück.
+     *
+     * @return Verbindung zu diesem Katalog
+     * @throws SQLException falls keine Verbindung geöffnet werden kann
+     */
+    public Connection getConnection() throws SQLException {
+        Connection physical = idle.poll();
+        if (physical == null || physical.isClosed()) {
+            physical = DatabaseHelper.getConnection(file);
+            Metrics.counter("db.pool.opened").increment();
+        } else {
+            Metrics.counter("db.pool.reused").increment();
+        }
+        return pooled(physical);
+    }
+
+    /**
+     * Schließt alle ungenutzten Verbindungen, z. B. beim Beenden der Anwendung.
+     */
+    public void close() {
+        List<Connection> connections = new ArrayList<>();
+        idle.drainTo(connections);
+        for (Connection conn : connections) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private Connection pooled(Connection physical) {
+        boolean[] released = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!released[0]) {
+                                released[0] = true;
+                                transactionEnded((Connection) proxy, false);
+                                release(physical);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return released[0] || physical.isClosed();
+                        }
+                        case "unwrap" -> {
+                            return physical.unwrap((Class<?>) args[0]);
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            if (released[0]) throw new SQLException("Verbindung wurde bereits geschlossen");
+                        }
+                    }
+                    try {
+                        Object result = method.invoke(physical, args);
+                        afterCall((Connection) proxy, method, args);
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Erkennt das Ende einer Transaktion: commit() und setAutoCommit(true) bestätigen sie, rollback() verwirft sie.
+     */
+    private void afterCall(Connection conn, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "commit" -> transactionEnded(conn, true);
+            case "setAutoCommit" -> {
+                if (Boolean.TRUE.equals(args[0])) transactionEnded(conn, true);
+            }
+            case "rollback" -> {
+                if (args == null) transactionEnded(conn, false);
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Gibt die Wörterbuchbegriffe einer beendeten Transaktion für alle frei oder verwirft sie.
+     * Beim Zurückgeben an den Pool wird eine offene Transaktion zurückgerollt, ihre Begriffe also verworfen.
+     */
+    private void transactionEnded(Connection conn, boolean committed) {
+        if (committed) {
+            ingredientNames.committed(conn);
+            units.committed(conn);
+        } else {
+            ingredientNames.discarded(conn);
+            units.discarded(conn);
+        }
+    }
+
+    private void release(Connection physical) throws SQLException {
+        if (physical.isClosed()) return;
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        if (!idle.offer(physical)) {
+            physical.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,323 @@
+package database;
+
+import monitoring.Metrics;
+import monitoring.QueryTrace;
+import monitoring.Timer;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pflegt die Datenbankdatei eines Katalogs im Hintergrund: Statistiken für den Abfrageplaner
+ * ({@code ANALYZE}/{@code PRAGMA optimize}), Freigabe leerer Seiten ({@code incremental_vacuum}),
+ * Konsistenzprüfung ({@code integrity_check}) und WAL-Checkpoint.
+ *
+ * <p>Gearbeitet wird nur im Leerlauf: erst wenn seit der letzten Abfrage der Anwendung eine Weile nichts
+ * geschehen ist ({@link QueryTrace#isIdle(long)}), und dann je Durchgang nur eine fällige Aufgabe, die
+ * überfälligste zuerst. Die Freigabe leerer Seiten läuft in kleinen Schritten und hört auf, sobald wieder
+ * Abfragen kommen. Wann eine Aufgabe zuletzt lief, steht in catalog_meta, sodass etwa die tägliche
+ * Prüfung nicht bei jedem Start wiederholt wird. Ergebnisse landen als Messwerte unter
+ * {@code db.maintenance.*} und als Zeile auf der Konsole.</p>
+ *
+ * <p>Im Hintergrund läuft nichts, was die Datei länger sperrt als die Wartezeit der Anwendung beim Speichern
+ * ({@code busy_timeout}): die einmalige Umstellung älterer Dateien auf {@code auto_vacuum = INCREMENTAL}
+ * (ein vollständiges VACUUM) geschieht nur über {@link #runAll()}, und große Dateien werden nur oberflächlich
+ * ({@code quick_check}) oder gar nicht geprüft.</p>
+ *
+ * <p>Die Ruhezeit lässt sich über die Systemeigenschaft {@code ikladde.maintenance.idle} (Sekunden) ändern;
+ * 0 schaltet die Wartung ab.</p>
+ */
+public class CatalogMaintenance {
+
+    /** Wartungsaufgaben mit ihrem Mindestabstand. */
+    public enum Task {
+        OPTIMIZE("optimize", 6 * 3600),
+        VACUUM("incrementalVacuum", 15 * 60),
+        INTEGRITY_CHECK("integrityCheck", 24 * 3600),
+        CHECKPOINT("walCheckpoint", 5 * 60);
+
+        private final String metricName;
+        private final long intervalSeconds;
+
+        Task(String metricName, long intervalSeconds) {
+            this.metricName = metricName;
+            this.intervalSeconds = intervalSeconds;
+        }
+    }
+
+    /** So oft wird geprüft, ob Leerlauf herrscht und eine Aufgabe fällig ist. */
+    private static final long POLL_SECONDS = 15;
+    /** Erst so lange nach dem Start wird gewartet, damit das Laden der Rezepte nicht gestört wird. */
+    private static final long INITIAL_DELAY_SECONDS = 60;
+    /** So viele leere Seiten gibt ein Schritt von incremental_vacuum höchstens frei. */
+    private static final int VACUUM_STEP_PAGES = 128;
+    /** So viele Fehler meldet integrity_check höchstens. */
+    private static final int MAX_INTEGRITY_ERRORS = 20;
+    /** Bis zu dieser Dateigröße wird im Hintergrund vollständig geprüft (integrity_check). */
+    private static final long FULL_CHECK_MAX_BYTES = 16L * 1024 * 1024;
+    /** Bis zu dieser Dateigröße wird im Hintergrund ohne Indexabgleich geprüft (quick_check), darüber gar nicht. */
+    private static final long QUICK_CHECK_MAX_BYTES = 128L * 1024 * 1024;
+
+    private final Catalog catalog;
+    private final long idleNanos;
+    private final Map<Task, Long> lastRun = Collections.synchronizedMap(new EnumMap<>(Task.class));
+    private volatile boolean lastRunLoaded = false;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param catalog Katalog, dessen Datei gepflegt wird
+     */
+    public CatalogMaintenance(Catalog catalog) {
+        this.catalog = catalog;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(Long.getLong("ikladde.maintenance.idle", 30));
+    }
+
+    /**
+     * Startet die regelmäßige Prüfung in einem Hintergrund-Thread niedriger Priorität.
+     */
+    public synchronized void start() {
+        if (scheduler != null || idleNanos <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-maintenance");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runDueTask, INITIAL_DELAY_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Beendet die Wartung; eine laufende Aufgabe wird nach ihrem aktuellen Schritt abgebrochen.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Führt im Leerlauf die überfälligste Aufgabe aus.
+     */
+    private void runDueTask() {
+        try {
+            if (!QueryTrace.isIdle(idleNanos)) {
+                Metrics.counter("db.maintenance.deferred").increment();
+                return;
+            }
+            loadLastRun();
+            long now = System.currentTimeMillis() / 1000;
+            Task due = null;
+            long mostOverdue = -1;
+            for (Task task : Task.values()) {
+                long overdue = now - lastRun.getOrDefault(task, 0L) - task.intervalSeconds;
+                if (overdue >= 0 && overdue > mostOverdue) {
+                    due = task;
+                    mostOverdue = overdue;
+                }
+            }
+            if (due != null) {
+                run(due, true);
+            }
+        } catch (RuntimeException e) {
+            // Ein Fehler darf die regelmäßige Ausführung nicht beenden
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Führt alle Aufgaben sofort und vollständig aus, ohne auf Leerlauf zu warten. Stellt ältere Dateien dabei
+     * einmalig auf {@code auto_vacuum = INCREMENTAL} um. Sperrt die Datei unter Umständen lange; gedacht für
+     * den Aufruf von der Kommandozeile, während die Anwendung nicht läuft.
+     *
+     * @return Ergebnis je Aufgabe
+     */
+    public Map<Task, String> runAll() {
+        loadLastRun();
+        Map<Task, String> results = new EnumMap<>(Task.class);
+        for (Task task : Task.values()) {
+            results.put(task, run(task, false));
+        }
+        return results;
+    }
+
+    /**
+     * Führt eine Aufgabe aus, vermerkt den Zeitpunkt und meldet das Ergebnis.
+     *
+     * @param task      Aufgabe
+     * @param scheduled true im Hintergrund: nur kurze Schritte, Abbruch bei neuen Abfragen
+     * @return Ergebnis als kurzer Text
+     */
+    private String run(Task task, boolean scheduled) {
+        String result;
+        try (Timer.Sample sample = Metrics.time("db.maintenance." + task.metricName);
+             Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement()) {
+            result = switch (task) {
+                case OPTIMIZE -> optimize(stmt);
+                case VACUUM -> vacuum(stmt, scheduled);
+                case INTEGRITY_CHECK -> integrityCheck(stmt, scheduled ? catalog.getFile().length() : 0);
+                case CHECKPOINT -> checkpoint(stmt);
+            };
+            long now = System.currentTimeMillis() / 1000;
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT OR REPLACE INTO catalog_meta (key, value) VALUES (?, ?)")) {
+                pstmt.setString(1, "maintenance." + task.metricName);
+                pstmt.setLong(2, now);
+                pstmt.executeUpdate();
+            }
+            lastRun.put(task, now);
+        } catch (SQLException e) {
+            Metrics.counter("db.maintenance.errors").increment();
+            e.printStackTrace();
+            result = "Fehler: " + e.getMessage();
+        }
+        System.out.println("Wartung " + catalog + ": " + task.metricName + " – " + result);
+        return result;
+    }
+
+    private void loadLastRun() {
+        if (lastRunLoaded) return;
+        try (Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT key, value FROM catalog_meta WHERE key LIKE 'maintenance.%'")) {
+            while (rs.next()) {
+                String name = rs.getString("key").substring("maintenance.".length());
+                for (Task task : Task.values()) {
+                    if (task.metricName.equals(name)) lastRun.put(task, rs.getLong("value"));
+                }
+            }
+            lastRunLoaded = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Ohne Statistiken (sqlite_stat1) einmal vollständig ANALYZE, danach nur noch {@code PRAGMA optimize},
+     * das Tabellen neu analysiert, deren Größe sich deutlich geändert hat.
+     */
+    private static String optimize(Statement stmt) throws SQLException {
+        boolean analyzed;
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE name = 'sqlite_stat1'")) {
+            analyzed = rs.next();
+        }
+        if (!analyzed) {
+            stmt.executeUpdate("ANALYZE;");
+            return "ANALYZE";
+        }
+        stmt.execute("PRAGMA optimize;");
+        return "PRAGMA optimize";
+    }
+
+    /**
+     * Gibt leere Seiten an das Dateisystem zurück. Dateien ohne auto_vacuum werden dafür einmalig
+     * mit VACUUM umgestellt, aber nur außerhalb des Hintergrundbetriebs; danach genügen kurze Schritte
+     * von incremental_vacuum.
+     */
+    private static String vacuum(Statement stmt, boolean scheduled) throws SQLException {
+        int mode = pragmaInt(stmt, "auto_vacuum");
+        int free = pragmaInt(stmt, "freelist_count");
+        if (mode != 2 && scheduled) {
+            return "übersprungen (auto_vacuum = " + (mode == 1 ? "FULL" : "NONE") + ", Umstellung über CatalogMaintenance), " + free + " Seiten frei";
+        }
+        if (mode != 2) {
+            stmt.executeUpdate("PRAGMA auto_vacuum = INCREMENTAL;");
+            stmt.executeUpdate("VACUUM;");
+            Metrics.counter("db.maintenance.pagesFreed").add(free);
+            return "auf auto_vacuum = INCREMENTAL umgestellt, " + free + " Seiten freigegeben";
+        }
+        int freed = 0;
+        while (free > 0) {
+            if (Thread.currentThread().isInterrupted() || (scheduled && !QueryTrace.isIdle(0))) {
+                Metrics.counter("db.maintenance.yielded").increment();
+                break;
+            }
+            stmt.execute("PRAGMA incremental_vacuum(" + VACUUM_STEP_PAGES + ");");
+            int remaining = pragmaInt(stmt, "freelist_count");
+            if (remaining >= free) break;
+            freed += free - remaining;
+            free = remaining;
+        }
+        Metrics.counter("db.maintenance.pagesFreed").add(freed);
+        return freed + " Seiten freigegeben, " + free + " frei";
+    }
+
+    /**
+     * Prüft die Datei auf Beschädigungen. Die Prüfung liest die ganze Datei unter einer Lesesperre,
+     * im Hintergrund wird sie daher mit der Dateigröße eingeschränkt.
+     *
+     * @param scheduledSize Dateigröße im Hintergrundbetrieb, 0 für eine vollständige Prüfung
+     */
+    private static String integrityCheck(Statement stmt, long scheduledSize) throws SQLException {
+        if (scheduledSize > QUICK_CHECK_MAX_BYTES) {
+            return "übersprungen (" + scheduledSize / (1024 * 1024) + " MiB, Prüfung über CatalogMaintenance)";
+        }
+        String pragma = scheduledSize > FULL_CHECK_MAX_BYTES ? "quick_check" : "integrity_check";
+        List<String> problems = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma + "(" + MAX_INTEGRITY_ERRORS + ");")) {
+            while (rs.next()) {
+                String line = rs.getString(1);
+                if (!"ok".equals(line)) problems.add(line);
+            }
+        }
+        if (problems.isEmpty()) return pragma + " ok";
+        Metrics.counter("db.maintenance.integrityErrors").add(problems.size());
+        problems.forEach(p -> System.err.println(pragma + ": " + p));
+        return pragma + ": " + problems.size() + " Fehler";
+    }
+
+    /**
+     * Überträgt das Write-Ahead-Log in die Datenbank, ohne auf Leser oder Schreiber zu warten (PASSIVE).
+     * Im klassischen Journal-Modus gibt es nichts zu tun.
+     */
+    private static String checkpoint(Statement stmt) throws SQLException {
+        String mode;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode;")) {
+            mode = rs.next() ? rs.getString(1) : "";
+        }
+        if (!"wal".equalsIgnoreCase(mode)) {
+            return "übersprungen (journal_mode = " + mode + ")";
+        }
+        try (ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(PASSIVE);")) {
+            if (!rs.next()) return "keine Angaben";
+            int log = rs.getInt(2);
+            int checkpointed = rs.getInt(3);
+            Metrics.counter("db.maintenance.walFramesCheckpointed").add(Math.max(0, checkpointed));
+            return (rs.getInt(1) != 0 ? "teilweise (belegt), " : "") + checkpointed + " von " + log + " Seiten übertragen";
+        }
+    }
+
+    private static int pragmaInt(Statement stmt, String pragma) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma + ";")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Führt alle Wartungsaufgaben sofort aus.
+     * Aufruf: {@code CatalogMaintenance [katalog.db]}
+     */
+    public static void main(String[] args) {
+        Catalog catalog = args.length > 0 ? new Catalog(new File(args[0]).getName(), new File(args[0])) : Catalog.getDefault();
+        long size = catalog.getFile().length();
+        new CatalogMaintenance(catalog).runAll();
+        catalog.close();
+        System.out.println("Dateigröße: " + size / 1024 + " KiB -> " + catalog.getFile().length() / 1024 + " KiB");
+    }
+}
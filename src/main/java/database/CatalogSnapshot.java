@@ -0,0 +1,265 @@
+package database;
+
+import database.SignatureDAO.StoredSignature;
+import model.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binärer Schnappschuss des gesamten Rezeptbestands samt MinHash-Signaturen.
+ * Wird beim regulären Beenden geschrieben und beim nächsten Start per Memory-Mapping gelesen,
+ * sodass keine Abfragen pro Rezept nötig sind. Gültig ist der Schnappschuss nur, solange
+ * die Generationsnummer der Datenbank (Tabelle catalog_meta) unverändert ist.
+ *
+ * <p>Aufbau: Kennung, Version, Generation, Rezepte, Signaturen, CRC32 über alle vorherigen Bytes.
+ * Komprimierte Schritttexte werden unverändert übernommen.</p>
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x494B4C53; // "IKLS"
+    private static final int VERSION = 3;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Inhalt eines gelesenen Schnappschusses.
+     */
+    public static class Contents {
+        private final List<Recipe> recipes;
+        private final Map<Integer, StoredSignature> signatures;
+
+        Contents(List<Recipe> recipes, Map<Integer, StoredSignature> signatures) {
+            this.recipes = recipes;
+            this.signatures = signatures;
+        }
+
+        public List<Recipe> getRecipes() {
+            return recipes;
+        }
+
+        public Map<Integer, StoredSignature> getSignatures() {
+            return signatures;
+        }
+    }
+
+    /**
+     * Liest einen Schnappschuss, sofern er zur aktuellen Generation der Datenbank passt.
+     *
+     * @param file         Schnappschussdatei
+     * @param generation   aktuelle Generation der Datenbank
+     * @param catalog      Katalog, zu dem der Schnappschuss gehört (Wörterbücher und Tag-Verzeichnis)
+     * @return Inhalt oder null, wenn die Datei fehlt, veraltet oder beschädigt ist
+     */
+    public static Contents read(File file, long generation, Catalog catalog) {
+        if (generation < 0 || !file.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 24 || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != generation) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit((int) size - Long.BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES)) {
+                return null;
+            }
+
+            int recipeCount = buffer.getInt();
+            List<Recipe> recipes = new ArrayList<>(recipeCount);
+            StepDictionaryDAO dictionaries = new StepDictionaryDAO(catalog);
+            for (int i = 0; i < recipeCount; i++) {
+                recipes.add(readRecipe(buffer, dictionaries, catalog.getTagRegistry()));
+            }
+
+            int signatureCount = buffer.getInt();
+            Map<Integer, StoredSignature> signatures = new HashMap<>(signatureCount * 2);
+            for (int i = 0; i < signatureCount; i++) {
+                int recipeId = buffer.getInt();
+                long featuresHash = buffer.getLong();
+                int[] signature = new int[buffer.getInt()];
+                buffer.asIntBuffer().get(signature);
+                buffer.position(buffer.position() + signature.length * Integer.BYTES);
+                signatures.put(recipeId, new StoredSignature(featuresHash, signature));
+            }
+            return new Contents(recipes, signatures);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Schnappschuss nicht lesbar, lade aus der Datenbank: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Schreibt einen Schnappschuss. Die Datei wird zuerst unter einem temporären Namen geschrieben
+     * und dann ersetzt, sodass nie ein halb geschriebener Schnappschuss gelesen wird.
+     *
+     * @param file       Zieldatei
+     * @param generation Generation der Datenbank, zu der der Bestand gehört
+     * @param recipes    gespeicherte Rezepte (Rezepte ohne ID werden übersprungen)
+     * @param signatures MinHash-Signaturen je Rezept-ID
+     */
+    public static void write(File file, long generation, List<Recipe> recipes, Map<Integer, StoredSignature> signatures) {
+        File tmp = new File(file.getPath() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)) {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) throws IOException {
+                crc.update(b, off, len);
+                super.write(b, off, len);
+            }
+
+            @Override
+            public synchronized void write(int b) throws IOException {
+                crc.update(b);
+                super.write(b);
+            }
+        })) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+
+            List<Recipe> saved = new ArrayList<>();
+            for (Recipe r : recipes) {
+                if (r.getId() != 0) saved.add(r);
+            }
+            out.writeInt(saved.size());
+            for (Recipe r : saved) {
+                writeRecipe(out, r);
+            }
+
+            out.writeInt(signatures.size());
+            for (Map.Entry<Integer, StoredSignature> e : signatures.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeLong(e.getValue().getFeaturesHash());
+                int[] signature = e.getValue().getSignature();
+                out.writeInt(signature.length);
+                for (int v : signature) {
+                    out.writeInt(v);
+                }
+            }
+            out.flush();
+            long checksum = crc.getValue();
+            out.writeLong(checksum);
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeRecipe(DataOutputStream out, Recipe r) throws IOException {
+        out.writeInt(r.getId());
+        writeString(out, r.getName());
+        out.writeInt(r.getRating());
+        out.writeInt(r.getPortions());
+        writeString(out, r.getCreatedDate());
+        writeString(out, r.getPhoto() != null ? r.getPhoto().getFilePath() : null);
+
+        out.writeInt(r.getIngredients().size());
+        for (Ingredient ing : r.getIngredients()) {
+            writeString(out, ing.getName());
+            out.writeDouble(ing.getQuantity());
+            writeString(out, ing.getUnit());
+        }
+        out.writeInt(r.getSteps().size());
+        for (Step step : r.getSteps()) {
+            // Komprimierte Schritte bleiben komprimiert: Wörterbuch-ID und Bytes statt Text
+            if (step.getCompressed() != null) {
+                out.writeInt(step.getDictionary().getId());
+                out.writeInt(step.getCompressed().length);
+                out.write(step.getCompressed());
+            } else {
+                out.writeInt(0);
+                writeString(out, step.getDescription());
+            }
+        }
+        out.writeInt(r.getTags().size());
+        for (Tag tag : r.getTags()) {
+            out.writeInt(tag.getId());
+            writeString(out, tag.getName());
+        }
+    }
+
+    private static Recipe readRecipe(ByteBuffer in, StepDictionaryDAO dictionaries, TagRegistry tagRegistry) {
+        Recipe r = new Recipe();
+        r.setId(in.getInt());
+        r.setName(readString(in));
+        r.setRating(in.getInt());
+        r.setPortions(in.getInt());
+        r.setCreatedDate(readString(in));
+        String photoPath = readString(in);
+        if (photoPath != null) {
+            r.setPhoto(new Photo(photoPath));
+        }
+
+        int ingredients = in.getInt();
+        for (int i = 0; i < ingredients; i++) {
+            String name = readString(in);
+            double quantity = in.getDouble();
+            r.addIngredient(new Ingredient(name, quantity, readString(in)));
+        }
+        int steps = in.getInt();
+        for (int i = 0; i < steps; i++) {
+            int dictionaryId = in.getInt();
+            if (dictionaryId == 0) {
+                r.addStep(new Step(readString(in)));
+                continue;
+            }
+            byte[] compressed = new byte[in.getInt()];
+            in.get(compressed);
+            StepDictionary dictionary = dictionaries.getDictionary(dictionaryId);
+            if (dictionary == null) {
+                throw new IllegalStateException("Unbekanntes Wörterbuch " + dictionaryId);
+            }
+            r.addStep(new Step(compressed, dictionary));
+        }
+        int tags = in.getInt();
+        for (int i = 0; i < tags; i++) {
+            int tagId = in.getInt();
+            String name = readString(in);
+            r.addTag(tagId > 0 ? tagRegistry.intern(tagId, name) : new Tag(name));
+        }
+        return r;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,501 @@
+package database;
+
+import model.*;
+import monitoring.Metrics;
+import monitoring.Timer;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gleicht zwei Katalogdateien inkrementell ab.
+ * Jede Datei merkt sich je Gegenstelle (Tabelle sync_state), bis zu welcher Sequenznummer ihres
+ * Änderungsprotokolls (change_log) die Gegenstelle bereits alles kennt. Übertragen werden nur Rezepte,
+ * die seitdem geändert wurden; der Aufwand hängt damit von der Zahl der Änderungen ab, nicht von der Kataloggröße.
+ *
+ * <p>Wurde dasselbe Rezept (gleiche uid) auf beiden Seiten geändert und unterscheidet sich der Inhalt,
+ * liegt ein Konflikt vor. Je nach {@link ConflictPolicy} gewinnt eine Seite, oder der Konflikt wird gemeldet,
+ * in sync_conflict vermerkt und beim nächsten Abgleich erneut geprüft.</p>
+ *
+ * <p>Beim ersten Abgleich zweier Dateien werden alle Rezepte verglichen. Sind beide Kopien derselben Datei,
+ * gilt der gemeinsame Teil ihrer Protokolle als bereits abgeglichen. Sonst zählen nur protokollierte Löschungen
+ * als Änderung: ein Rezept, das nur auf einer Seite steht, wird übernommen, es sei denn, die andere Seite hat es
+ * gelöscht. Löschungen bleiben dafür als Grabstein im Protokoll stehen, damit gelöschte Rezepte nicht von einer
+ * neuen Gegenstelle zurückkehren. Fotos werden nur als Pfad übertragen.</p>
+ */
+public class CatalogSync {
+
+    public enum ConflictPolicy {
+        /** Konflikte nur melden, beide Seiten bleiben unverändert. */
+        REPORT,
+        /** Bei Konflikten gewinnt die linke Datei. */
+        PREFER_LEFT,
+        /** Bei Konflikten gewinnt die rechte Datei. */
+        PREFER_RIGHT
+    }
+
+    /**
+     * Ergebnis eines Abgleichs.
+     */
+    public static class SyncResult {
+        private int leftToRight;
+        private int rightToLeft;
+        private int unchanged;
+        private final List<String> conflicts = new ArrayList<>();
+
+        /** @return Anzahl von links nach rechts übertragener Rezepte (inkl. Löschungen) */
+        public int getLeftToRight() {
+            return leftToRight;
+        }
+
+        /** @return Anzahl von rechts nach links übertragener Rezepte (inkl. Löschungen) */
+        public int getRightToLeft() {
+            return rightToLeft;
+        }
+
+        /** @return Anzahl geänderter Rezepte, die auf beiden Seiten bereits gleich waren */
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /** @return Namen der Rezepte mit ungelöstem Konflikt */
+        public List<String> getConflicts() {
+            return conflicts;
+        }
+
+        @Override
+        public String toString() {
+            return "nach rechts " + leftToRight + ", nach links " + rightToLeft + ", gleich " + unchanged + ", Konflikte " + conflicts.size();
+        }
+    }
+
+    /**
+     * Gleicht zwei Katalogdateien ab. Beide Dateien sind während des Abgleichs für Schreibzugriffe gesperrt.
+     *
+     * @param left   erste Katalogdatei
+     * @param right  zweite Katalogdatei
+     * @param policy Verhalten bei Konflikten
+     * @return Ergebnis
+     * @throws SQLException falls eine der Dateien nicht gelesen oder geschrieben werden kann
+     */
+    public SyncResult sync(File left, File right, ConflictPolicy policy) throws SQLException {
+        SyncResult result = new SyncResult();
+        try (Timer.Sample sample = Metrics.time("sync.catalog");
+             Connection l = DatabaseHelper.getConnection(left);
+             Connection r = DatabaseHelper.getConnection(right)) {
+            begin(l);
+            begin(r);
+            try {
+                long leftId = instanceId(l);
+                long rightId = instanceId(r);
+                if (leftId == rightId) {
+                    // Kopie derselben Datei: die rechte Seite erhält eine eigene Kennung
+                    try (Statement stmt = r.createStatement()) {
+                        stmt.executeUpdate("UPDATE catalog_meta SET value = abs(random()) WHERE key = 'instance'");
+                    }
+                    rightId = instanceId(r);
+                    long common = commonHistory(l, r);
+                    if (common > 0) {
+                        markSent(l, rightId, common);
+                        markSent(r, leftId, common);
+                    }
+                }
+
+                Long leftSent = sentSeq(l, rightId);
+                Long rightSent = sentSeq(r, leftId);
+                Set<String> leftChanges = changesSince(l, rightId, leftSent);
+                Set<String> rightChanges = changesSince(r, leftId, rightSent);
+                Set<String> all = new LinkedHashSet<>(leftChanges);
+                all.addAll(rightChanges);
+                if (leftSent == null) all.addAll(allUids(l));
+                if (rightSent == null) all.addAll(allUids(r));
+
+                Map<Integer, StepDictionary> leftDictionaries = new HashMap<>();
+                Map<Integer, StepDictionary> rightDictionaries = new HashMap<>();
+                for (String uid : all) {
+                    Recipe inLeft = load(l, uid, leftDictionaries);
+                    Recipe inRight = load(r, uid, rightDictionaries);
+                    boolean changedLeft = leftChanges.contains(uid);
+                    boolean changedRight = rightChanges.contains(uid);
+                    if (!changedLeft && !changedRight) {
+                        // Nur beim ersten Abgleich: vorhanden, aber auf keiner Seite als geändert protokolliert
+                        changedLeft = inLeft != null;
+                        changedRight = inRight != null;
+                    }
+
+                    if (fingerprint(inLeft).equals(fingerprint(inRight))) {
+                        result.unchanged++;
+                    } else if (changedLeft && changedRight) {
+                        if (policy == ConflictPolicy.PREFER_LEFT) {
+                            store(r, uid, inLeft);
+                            result.leftToRight++;
+                        } else if (policy == ConflictPolicy.PREFER_RIGHT) {
+                            store(l, uid, inRight);
+                            result.rightToLeft++;
+                        } else {
+                            markConflict(l, rightId, uid);
+                            markConflict(r, leftId, uid);
+                            result.conflicts.add(inLeft != null ? inLeft.getName() : inRight.getName());
+                            continue;
+                        }
+                    } else if (changedLeft) {
+                        store(r, uid, inLeft);
+                        result.leftToRight++;
+                    } else {
+                        store(l, uid, inRight);
+                        result.rightToLeft++;
+                    }
+                    clearConflict(l, rightId, uid);
+                    clearConflict(r, leftId, uid);
+                }
+
+                // Alles bis hierher kennt die Gegenstelle, auch die eben übernommenen Änderungen
+                markSent(l, rightId, maxSeq(l));
+                markSent(r, leftId, maxSeq(r));
+                pruneChangeLog(l);
+                pruneChangeLog(r);
+
+                // Fällt die zweite Bestätigung aus, werden beim nächsten Mal dieselben Rezepte
+                // erneut verglichen; sie sind dann gleich und werden nicht nochmals übertragen
+                r.commit();
+                l.commit();
+            } catch (SQLException | RuntimeException e) {
+                l.rollback();
+                r.rollback();
+                throw e;
+            }
+        }
+        Metrics.counter("sync.transferred").add(result.leftToRight + result.rightToLeft);
+        return result;
+    }
+
+    private static void begin(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        // Sofort schreibend sperren, damit zwischen Lesen der Änderungen und Setzen des Stands niemand schreibt
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE catalog_meta SET value = value WHERE key = 'instance'");
+        }
+    }
+
+    private static long instanceId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT value FROM catalog_meta WHERE key = 'instance'")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * @return Sequenznummer, bis zu der die Gegenstelle alles kennt, oder null ohne bisherigen Abgleich
+     */
+    private static Long sentSeq(Connection conn, long peer) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT sent_seq FROM sync_state WHERE peer_instance = ?")) {
+            pstmt.setLong(1, peer);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : null;
+        }
+    }
+
+    /**
+     * uids aller Rezepte, die seit dem letzten Abgleich mit der Gegenstelle geändert wurden, plus offene Konflikte.
+     * Ohne bisherigen Abgleich zählen nur die Grabsteine: ob ein Rezept seit dem Auseinanderlaufen der
+     * Dateien bearbeitet wurde, lässt sich dann nicht sagen.
+     */
+    private static Set<String> changesSince(Connection conn, long peer, Long sentSeq) throws SQLException {
+        Set<String> uids = new LinkedHashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT DISTINCT recipe_uid FROM change_log WHERE seq > ?" + (sentSeq == null ? " AND op = 'DELETE'" : "")
+                        + " UNION SELECT recipe_uid FROM sync_conflict WHERE peer_instance = ?")) {
+            pstmt.setLong(1, sentSeq != null ? sentSeq : 0);
+            pstmt.setLong(2, peer);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) uids.add(rs.getString(1));
+        }
+        return uids;
+    }
+
+    /**
+     * Höchste Sequenznummer, deren Protokolleintrag in beiden Kopien gleich ist. Bis dahin stammen
+     * die Protokolle aus der gemeinsamen Ursprungsdatei.
+     *
+     * @return Sequenznummer oder 0, falls kein gemeinsamer Eintrag mehr im Protokoll steht
+     */
+    private static long commonHistory(Connection l, Connection r) throws SQLException {
+        String sql = "SELECT seq, recipe_uid || '|' || op || '|' || changed_at FROM change_log ORDER BY seq DESC";
+        Map<Long, String> right = new HashMap<>();
+        try (Statement stmt = r.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) right.put(rs.getLong(1), rs.getString(2));
+        }
+        try (Statement stmt = l.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                if (rs.getString(2).equals(right.get(rs.getLong(1)))) return rs.getLong(1);
+            }
+        }
+        return 0;
+    }
+
+    private static Set<String> allUids(Connection conn) throws SQLException {
+        Set<String> uids = new LinkedHashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT uid FROM recipe")) {
+            while (rs.next()) uids.add(rs.getString(1));
+        }
+        return uids;
+    }
+
+    private static long maxSeq(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM change_log")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void markSent(Connection conn, long peer, long seq) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT OR REPLACE INTO sync_state (peer_instance, sent_seq) VALUES (?, ?)")) {
+            pstmt.setLong(1, peer);
+            pstmt.setLong(2, seq);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Entfernt Protokolleinträge, die alle bekannten Gegenstellen bereits erhalten haben.
+     * Löschungen bleiben als Grabstein stehen, da eine noch unbekannte Gegenstelle das Rezept haben kann;
+     * es gibt höchstens einen je gelöschter uid.
+     */
+    private static void pruneChangeLog(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM change_log WHERE op <> 'DELETE' AND seq <= (SELECT MIN(sent_seq) FROM sync_state)");
+        }
+    }
+
+    private static void markConflict(Connection conn, long peer, String uid) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT OR IGNORE INTO sync_conflict (peer_instance, recipe_uid) VALUES (?, ?)")) {
+            pstmt.setLong(1, peer);
+            pstmt.setString(2, uid);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void clearConflict(Connection conn, long peer, String uid) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM sync_conflict WHERE peer_instance = ? AND recipe_uid = ?")) {
+            pstmt.setLong(1, peer);
+            pstmt.setString(2, uid);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Lädt ein Rezept vollständig anhand seiner uid.
+     *
+     * @return Rezept oder null, falls es in dieser Datei nicht (mehr) existiert
+     */
+    private static Recipe load(Connection conn, String uid, Map<Integer, StepDictionary> dictionaries) throws SQLException {
+        Recipe recipe;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM recipe WHERE uid = ?")) {
+            pstmt.setString(1, uid);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) return null;
+            recipe = new Recipe();
+            recipe.setId(rs.getInt("id"));
+            recipe.setName(rs.getString("name"));
+            recipe.setRating(rs.getInt("rating"));
+            recipe.setPortions(rs.getInt("portions"));
+            recipe.setCreatedDate(rs.getString("createdDate"));
+            String photoPath = rs.getString("photoPath");
+            if (photoPath != null) {
+                recipe.setPhoto(new Photo(photoPath));
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT n.name, i.quantity, u.name AS unit FROM ingredient i"
+                + " JOIN ingredient_name n ON n.id = i.name_id LEFT JOIN unit u ON u.id = i.unit_id"
+                + " WHERE i.recipe_id = ? ORDER BY i.id")) {
+            pstmt.setInt(1, recipe.getId());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                recipe.addIngredient(new Ingredient(rs.getString("name"), rs.getDouble("quantity"), rs.getString("unit")));
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT description, description_z, dictionary_id FROM step WHERE recipe_id = ? ORDER BY number")) {
+            pstmt.setInt(1, recipe.getId());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                byte[] compressed = rs.getBytes("description_z");
+                String text = rs.getString("description");
+                if (compressed != null) {
+                    // Wörterbücher gehören zur jeweiligen Datei; übertragen wird der entpackte Text
+                    text = dictionary(conn, rs.getInt("dictionary_id"), dictionaries).decompress(compressed);
+                }
+                recipe.addStep(new Step(text));
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT t.name FROM tag t JOIN recipe_tag rt ON t.id = rt.tag_id WHERE rt.recipe_id = ? ORDER BY t.name")) {
+            pstmt.setInt(1, recipe.getId());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                recipe.addTag(new Tag(rs.getString("name")));
+            }
+        }
+        return recipe;
+    }
+
+    private static StepDictionary dictionary(Connection conn, int id, Map<Integer, StepDictionary> cache) throws SQLException {
+        StepDictionary cached = cache.get(id);
+        if (cached != null) return cached;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT dictionary FROM step_dictionary WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) throw new SQLException("Wörterbuch " + id + " fehlt");
+            StepDictionary dictionary = new StepDictionary(id, rs.getBytes(1));
+            cache.put(id, dictionary);
+            return dictionary;
+        }
+    }
+
+    /**
+     * Schreibt ein Rezept unter seiner uid in die Datei oder löscht es, wenn recipe null ist.
+     */
+    private static void store(Connection conn, String uid, Recipe recipe) throws SQLException {
+        if (recipe == null) {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM recipe WHERE uid = ?")) {
+                pstmt.setString(1, uid);
+                pstmt.executeUpdate();
+            }
+            return;
+        }
+        String photoPath = recipe.getPhoto() != null ? recipe.getPhoto().getFilePath() : null;
+        int id = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM recipe WHERE uid = ?")) {
+            pstmt.setString(1, uid);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) id = rs.getInt(1);
+        }
+        if (id != 0) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE recipe SET name = ?, photoPath = ?, rating = ?, portions = ?, createdDate = ? WHERE id = ?")) {
+                pstmt.setString(1, recipe.getName());
+                pstmt.setString(2, photoPath);
+                pstmt.setInt(3, recipe.getRating());
+                pstmt.setInt(4, recipe.getPortions());
+                pstmt.setString(5, recipe.getCreatedDate());
+                pstmt.setInt(6, id);
+                pstmt.executeUpdate();
+            }
+            for (String table : new String[]{"ingredient", "step", "recipe_tag"}) {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + table + " WHERE recipe_id = ?")) {
+                    pstmt.setInt(1, id);
+                    pstmt.executeUpdate();
+                }
+            }
+        } else {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO recipe (uid, name, photoPath, rating, portions, createdDate) VALUES (?, ?, ?, ?, ?, ?)");
+                 Statement stmt = conn.createStatement()) {
+                pstmt.setString(1, uid);
+                pstmt.setString(2, recipe.getName());
+                pstmt.setString(3, photoPath);
+                pstmt.setInt(4, recipe.getRating());
+                pstmt.setInt(5, recipe.getPortions());
+                pstmt.setString(6, recipe.getCreatedDate());
+                pstmt.executeUpdate();
+                ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid();");
+                if (rs.next()) id = rs.getInt(1);
+            }
+        }
+
+        // Wörterbuch-IDs gelten nur innerhalb einer Datei: Begriffe anlegen und per Name zuordnen
+        try (PreparedStatement names = conn.prepareStatement("INSERT OR IGNORE INTO ingredient_name (name) VALUES (?)");
+             PreparedStatement units = conn.prepareStatement("INSERT OR IGNORE INTO unit (name) VALUES (?)");
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO ingredient (recipe_id, name_id, quantity, unit_id)"
+                     + " VALUES (?, (SELECT id FROM ingredient_name WHERE name = ?), ?, (SELECT id FROM unit WHERE name = ?))")) {
+            for (Ingredient ing : recipe.getIngredients()) {
+                names.setString(1, ing.getName());
+                names.executeUpdate();
+                if (ing.getUnit() != null) {
+                    units.setString(1, ing.getUnit());
+                    units.executeUpdate();
+                }
+                pstmt.setInt(1, id);
+                pstmt.setString(2, ing.getName());
+                pstmt.setDouble(3, ing.getQuantity());
+                pstmt.setString(4, ing.getUnit());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO step (recipe_id, number, description) VALUES (?, ?, ?)")) {
+            int number = 1;
+            for (Step step : recipe.getSteps()) {
+                pstmt.setInt(1, id);
+                pstmt.setInt(2, number++);
+                pstmt.setString(3, step.getDescription());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        try (PreparedStatement tagStmt = conn.prepareStatement("INSERT OR IGNORE INTO tag (name) VALUES (?)");
+             PreparedStatement linkStmt = conn.prepareStatement(
+                     "INSERT OR IGNORE INTO recipe_tag (recipe_id, tag_id) VALUES (?, (SELECT id FROM tag WHERE name = ?))")) {
+            for (Tag tag : recipe.getTags()) {
+                tagStmt.setString(1, tag.getName());
+                tagStmt.executeUpdate();
+                linkStmt.setInt(1, id);
+                linkStmt.setString(2, tag.getName());
+                linkStmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Inhalt eines Rezepts ohne die dateiabhängige ID, zum Vergleich beider Seiten.
+     */
+    private static String fingerprint(Recipe r) {
+        if (r == null) return "";
+        StringBuilder sb = new StringBuilder();
+        sb.append(r.getName()).append('\u0001').append(r.getRating()).append('\u0001').append(r.getPortions())
+                .append('\u0001').append(r.getCreatedDate())
+                .append('\u0001').append(r.getPhoto() != null ? r.getPhoto().getFilePath() : null);
+        for (Ingredient ing : r.getIngredients()) {
+            sb.append('\u0002').append(ing.getName()).append('\u0001').append(ing.getQuantity()).append('\u0001').append(ing.getUnit());
+        }
+        for (Step step : r.getSteps()) {
+            sb.append('\u0003').append(step.getDescription());
+        }
+        for (Tag tag : r.getTags()) {
+            sb.append('\u0004').append(tag.getName());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gleicht zwei Katalogdateien von der Kommandozeile ab.
+     * Aufruf: {@code CatalogSync links.db rechts.db [--prefer-left|--prefer-right]}
+     *
+     * @param args Dateien und optional die Konfliktregel
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Aufruf: CatalogSync links.db rechts.db [--prefer-left|--prefer-right]");
+            return;
+        }
+        ConflictPolicy policy = ConflictPolicy.REPORT;
+        if (args.length > 2 && "--prefer-left".equals(args[2])) policy = ConflictPolicy.PREFER_LEFT;
+        if (args.length > 2 && "--prefer-right".equals(args[2])) policy = ConflictPolicy.PREFER_RIGHT;
+        try {
+            SyncResult result = new CatalogSync().sync(new File(args[0]), new File(args[1]), policy);
+            System.out.println("Abgleich abgeschlossen: " + result);
+            for (String name : result.getConflicts()) {
+                System.out.println("  Konflikt: " + name);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,9 +1,21 @@
 package database;
 
+import monitoring.Metrics;
+import monitoring.Timer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Hilfsklasse zum Zugriff auf die SQLite-Datenbank.
@@ -11,28 +23,89 @@ import java.sql.Statement;
  */
 public class DatabaseHelper {
 
-    private static final String DB_URL = "jdbc:sqlite:database/ikladde.db";
+    /** Tabellen, deren Änderungen die Generationsnummer des Katalogs erhöhen. */
+    private static final String[] CATALOG_TABLES = {"recipe", "ingredient", "step", "tag", "recipe_tag"};
+
+    /** Tabellen mit Rezeptinhalten, deren Änderungen im Änderungsprotokoll (change_log) landen. */
+    private static final String[] RECIPE_CHILD_TABLES = {"ingredient", "step", "recipe_tag"};
 
     /**
-     * Stellt eine Verbindung zur Datenbank her und initialisiert das Schema falls nötig.
+     * Zutatenzeilen verweisen auf die Wörterbücher ingredient_name und unit, statt Name und Einheit
+     * in jeder Zeile als Text zu wiederholen. Platzhalter: Tabellenname.
+     */
+    private static final String INGREDIENT_TABLE = """
+            CREATE TABLE IF NOT EXISTS %s (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                recipe_id INTEGER NOT NULL,
+                name_id INTEGER NOT NULL,
+                quantity REAL,
+                unit_id INTEGER,
+                FOREIGN KEY (recipe_id) REFERENCES recipe(id) ON DELETE CASCADE,
+                FOREIGN KEY (name_id) REFERENCES ingredient_name(id),
+                FOREIGN KEY (unit_id) REFERENCES unit(id)
+            );
+            """;
+
+    private static final Set<String> schemaChecked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Gibt eine Verbindung zum Standardkatalog zurück (aus dessen Verbindungspool).
      *
      * @return Aktive Datenbankverbindung
      * @throws SQLException falls ein Fehler beim Verbindungsaufbau auftritt
+     * @see Catalog#getDefault()
      */
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(DB_URL);
-        initSchemaIfMissing(conn);
-        return conn;
+        return Catalog.getDefault().getConnection();
+    }
+
+    /**
+     * Öffnet eine neue Verbindung zu einer bestimmten Katalogdatei und initialisiert das Schema falls nötig.
+     * Die Schemaprüfung läuft je Datei nur einmal pro Programmlauf, sobald sie einmal gelungen ist;
+     * schlägt sie fehl (z. B. SQLITE_BUSY während einer Umstellung), wird sie bei der nächsten Verbindung wiederholt.
+     *
+     * @param dbFile SQLite-Datei
+     * @return Aktive Datenbankverbindung
+     * @throws SQLException falls ein Fehler beim Verbindungsaufbau oder beim Anlegen des Schemas auftritt
+     */
+    public static Connection getConnection(File dbFile) throws SQLException {
+        try (Timer.Sample sample = Metrics.time("db.getConnection")) {
+            String url = "jdbc:sqlite:" + dbFile.getPath();
+            Connection conn = DriverManager.getConnection(url);
+            if (!schemaChecked.contains(url)) {
+                synchronized (DatabaseHelper.class) {
+                    if (!schemaChecked.contains(url)) {
+                        try {
+                            initSchemaIfMissing(conn);
+                        } catch (SQLException e) {
+                            Metrics.counter("db.schemaFailures").increment();
+                            conn.close();
+                            throw e;
+                        }
+                        schemaChecked.add(url);
+                    }
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("PRAGMA foreign_keys = ON;");
+                // Mehrere Verbindungen je Datei: kurz warten statt sofort SQLITE_BUSY
+                stmt.execute("PRAGMA busy_timeout = 5000;");
+            }
+            return conn;
+        }
     }
 
     /**
      * Erstellt die benötigten Tabellen, falls sie noch nicht existieren.
      *
      * @param conn Aktive Verbindung zur Datenbank
+     * @throws SQLException falls das Schema nicht angelegt oder umgestellt werden konnte
      */
-    private static void initSchemaIfMissing(Connection conn) {
+    private static void initSchemaIfMissing(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("PRAGMA foreign_keys = ON;");
+            // Wirkt nur bei neuen Dateien (bzw. beim nächsten VACUUM); leere Seiten gibt dann CatalogMaintenance frei
+            stmt.executeUpdate("PRAGMA auto_vacuum = INCREMENTAL;");
 
             stmt.executeUpdate("""
                 CREATE TABLE IF NOT EXISTS recipe (
@@ -46,16 +119,24 @@ public class DatabaseHelper {
             """);
 
             stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS ingredient (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    recipe_id INTEGER NOT NULL,
-                    name TEXT NOT NULL,
-                    quantity REAL,
-                    unit TEXT,
-                    FOREIGN KEY (recipe_id) REFERENCES recipe(id) ON DELETE CASCADE
+                CREATE TABLE IF NOT EXISTS ingredient_name (
+                    id INTEGER PRIMARY KEY,
+                    name TEXT UNIQUE NOT NULL
                 );
             """);
 
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS unit (
+                    id INTEGER PRIMARY KEY,
+                    name TEXT UNIQUE NOT NULL
+                );
+            """);
+
+            stmt.executeUpdate(String.format(INGREDIENT_TABLE, "ingredient"));
+            migrateIngredientDictionary(stmt, conn);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_ingredient_recipe ON ingredient(recipe_id);");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_ingredient_name ON ingredient(name_id);");
+
             stmt.executeUpdate("""
                 CREATE TABLE IF NOT EXISTS step (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -83,8 +164,259 @@ public class DatabaseHelper {
                 );
             """);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS recipe_signature (
+                    recipe_id INTEGER PRIMARY KEY,
+                    features_hash INTEGER NOT NULL,
+                    signature BLOB NOT NULL,
+                    FOREIGN KEY (recipe_id) REFERENCES recipe(id) ON DELETE CASCADE
+                );
+            """);
+
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS step_dictionary (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    dictionary BLOB NOT NULL,
+                    createdDate TEXT
+                );
+            """);
+            // Komprimierte Schritttexte: description bleibt dann leer
+            addColumnIfMissing(stmt, "step", "description_z", "BLOB");
+            addColumnIfMissing(stmt, "step", "dictionary_id", "INTEGER REFERENCES step_dictionary(id)");
+
+            // Generationsnummer: jede Änderung am Katalog (auch von außerhalb der Anwendung) erhöht sie per Trigger
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS catalog_meta (
+                    key TEXT PRIMARY KEY,
+                    value INTEGER NOT NULL
+                );
+            """);
+            stmt.executeUpdate("INSERT OR IGNORE INTO catalog_meta (key, value) VALUES ('generation', 0);");
+            for (String table : CATALOG_TABLES) {
+                for (String operation : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+                    stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS " + table + "_" + operation.toLowerCase() + "_generation"
+                            + " AFTER " + operation + " ON " + table
+                            + " BEGIN UPDATE catalog_meta SET value = value + 1 WHERE key = 'generation'; END;");
+                }
+            }
+
+            initChangeLog(stmt, conn);
+            initStatistics(stmt);
+        }
+    }
+
+    /**
+     * Stellt eine Zutatentabelle im alten Format (Name und Einheit als Text je Zeile) auf Wörterbuch-IDs um.
+     * Häufige Begriffe erhalten die kleinsten IDs, die SQLite am kürzesten speichert. Die Tabelle wird
+     * neu aufgebaut, da sich Spalten mit Fremdschlüsseln nicht nachträglich ändern lassen; ihre Trigger
+     * legt {@link #initSchemaIfMissing} danach wieder an. Zeilen-IDs bleiben erhalten.
+     */
+    private static void migrateIngredientDictionary(Statement stmt, Connection conn) throws SQLException {
+        boolean legacy = false;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(ingredient)")) {
+            while (rs.next()) {
+                legacy |= "name".equals(rs.getString("name"));
+            }
+        }
+        if (!legacy) return;
+
+        try (Timer.Sample sample = Metrics.time("db.migrateIngredients")) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.executeUpdate("INSERT OR IGNORE INTO ingredient_name (name)"
+                        + " SELECT name FROM ingredient GROUP BY name ORDER BY COUNT(*) DESC;");
+                stmt.executeUpdate("INSERT OR IGNORE INTO unit (name)"
+                        + " SELECT unit FROM ingredient WHERE unit IS NOT NULL GROUP BY unit ORDER BY COUNT(*) DESC;");
+                stmt.executeUpdate(String.format(INGREDIENT_TABLE, "ingredient_migrated"));
+                stmt.executeUpdate("""
+                    INSERT INTO ingredient_migrated (id, recipe_id, name_id, quantity, unit_id)
+                    SELECT i.id, i.recipe_id, n.id, i.quantity, u.id
+                    FROM ingredient i
+                    JOIN ingredient_name n ON n.name = i.name
+                    LEFT JOIN unit u ON u.name = i.unit;
+                """);
+                stmt.executeUpdate("DROP TABLE ingredient;");
+                stmt.executeUpdate("ALTER TABLE ingredient_migrated RENAME TO ingredient;");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        // Die alte Tabelle hinterlässt freie Seiten; erst VACUUM verkleinert die Datei
+        stmt.executeUpdate("VACUUM;");
+    }
+
+    /**
+     * Änderungsprotokoll für den Abgleich zwischen Katalogen. Rezepte erhalten eine katalogübergreifende
+     * uid; jede Änderung an einem Rezept oder seinen Zutaten, Schritten und Tags erzeugt per Trigger einen
+     * Eintrag mit fortlaufender Sequenznummer.
+     */
+    private static void initChangeLog(Statement stmt, Connection conn) throws SQLException {
+        addColumnIfMissing(stmt, "recipe", "uid", "TEXT");
+        // Vorhandene Rezepte erhalten eine aus ID, Name und Datum abgeleitete uid, damit
+        // Kopien derselben Datei dieselben uids vergeben
+        Map<Integer, String> missing = new LinkedHashMap<>();
+        try (ResultSet rs = stmt.executeQuery("SELECT id, name, createdDate FROM recipe WHERE uid IS NULL")) {
+            while (rs.next()) {
+                String seed = rs.getInt("id") + "|" + rs.getString("name") + "|" + rs.getString("createdDate");
+                missing.put(rs.getInt("id"), UUID.nameUUIDFromBytes(seed.getBytes(StandardCharsets.UTF_8)).toString().replace("-", ""));
+            }
+        }
+        if (!missing.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE recipe SET uid = ? WHERE id = ?")) {
+                for (Map.Entry<Integer, String> e : missing.entrySet()) {
+                    pstmt.setString(1, e.getValue());
+                    pstmt.setInt(2, e.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        stmt.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS idx_recipe_uid ON recipe(uid);");
+        stmt.executeUpdate("INSERT OR IGNORE INTO catalog_meta (key, value) VALUES ('instance', abs(random()));");
+
+        stmt.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS change_log (
+                seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                recipe_uid TEXT NOT NULL,
+                op TEXT NOT NULL,
+                changed_at TEXT NOT NULL
+            );
+        """);
+        // Je Rezept genügt die letzte Änderung; das Protokoll wächst so höchstens mit der Zahl der Rezepte
+        boolean compact;
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = 'idx_change_log_uid'")) {
+            compact = rs.next();
+        }
+        if (!compact) {
+            stmt.executeUpdate("DELETE FROM change_log WHERE seq NOT IN (SELECT MAX(seq) FROM change_log GROUP BY recipe_uid);");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS recipe_insert_changelog;");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS recipe_update_changelog;");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS recipe_delete_changelog;");
+            for (String table : RECIPE_CHILD_TABLES) {
+                for (String operation : new String[]{"insert", "update", "delete"}) {
+                    stmt.executeUpdate("DROP TRIGGER IF EXISTS " + table + "_" + operation + "_changelog;");
+                }
+            }
+            stmt.executeUpdate("CREATE UNIQUE INDEX idx_change_log_uid ON change_log(recipe_uid);");
+        }
+        stmt.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS sync_state (
+                peer_instance INTEGER PRIMARY KEY,
+                sent_seq INTEGER NOT NULL
+            );
+        """);
+        stmt.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS sync_conflict (
+                peer_instance INTEGER NOT NULL,
+                recipe_uid TEXT NOT NULL,
+                PRIMARY KEY (peer_instance, recipe_uid)
+            );
+        """);
+
+        // Neue Rezepte erhalten eine zufällige uid
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_uid_default AFTER INSERT ON recipe WHEN NEW.uid IS NULL"
+                + " BEGIN UPDATE recipe SET uid = lower(hex(randomblob(16))) WHERE id = NEW.id; END;");
+        String log = "INSERT OR REPLACE INTO change_log (recipe_uid, op, changed_at) VALUES (%s, '%s', datetime('now'))";
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_insert_changelog AFTER INSERT ON recipe WHEN NEW.uid IS NOT NULL"
+                + " BEGIN " + String.format(log, "NEW.uid", "UPSERT") + "; END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_update_changelog AFTER UPDATE ON recipe WHEN NEW.uid IS NOT NULL"
+                + " BEGIN " + String.format(log, "NEW.uid", "UPSERT") + "; END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_delete_changelog AFTER DELETE ON recipe WHEN OLD.uid IS NOT NULL"
+                + " BEGIN " + String.format(log, "OLD.uid", "DELETE") + "; END;");
+        for (String table : RECIPE_CHILD_TABLES) {
+            for (String operation : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+                String row = "DELETE".equals(operation) ? "OLD" : "NEW";
+                String uid = "(SELECT uid FROM recipe WHERE id = " + row + ".recipe_id)";
+                // Beim Löschen eines Rezepts (ON DELETE CASCADE) existiert das Rezept nicht mehr
+                stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS " + table + "_" + operation.toLowerCase() + "_changelog"
+                        + " AFTER " + operation + " ON " + table
+                        + " WHEN " + uid + " IS NOT NULL"
+                        + " BEGIN " + String.format(log, uid, "UPSERT") + "; END;");
+            }
+        }
+    }
+
+    /**
+     * Kennzahlen des Katalogs in Summentabellen: Rezepte je Tag, je Bewertung und je Portionszahl sowie
+     * Gesamtzahl von Rezepten und Zutaten. Trigger halten sie bei jeder Änderung aktuell, sodass sie
+     * sich ohne Durchlauf über alle Rezepte lesen lassen. Beim ersten Anlegen werden sie einmal gefüllt.
+     */
+    private static void initStatistics(Statement stmt) throws SQLException {
+        boolean exists;
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'stat_total'")) {
+            exists = rs.next();
+        }
+        stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stat_tag (tag_id INTEGER PRIMARY KEY, recipe_count INTEGER NOT NULL);");
+        stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stat_rating (rating INTEGER PRIMARY KEY, recipe_count INTEGER NOT NULL);");
+        stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stat_portions (portions INTEGER PRIMARY KEY, recipe_count INTEGER NOT NULL);");
+        stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stat_total (key TEXT PRIMARY KEY, value INTEGER NOT NULL);");
+        if (!exists) {
+            rebuildStatistics(stmt);
+        }
+
+        String bump = "INSERT INTO %1$s (%2$s, recipe_count) VALUES (%3$s, %4$s)"
+                + " ON CONFLICT(%2$s) DO UPDATE SET recipe_count = recipe_count + %4$s;";
+        String total = "UPDATE stat_total SET value = value + %2$s WHERE key = '%1$s';";
+        String rating = "IFNULL(%s.rating, 0)";
+        String portions = "IFNULL(%s.portions, 0)";
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_insert_stats AFTER INSERT ON recipe BEGIN "
+                + String.format(bump, "stat_rating", "rating", String.format(rating, "NEW"), "1")
+                + String.format(bump, "stat_portions", "portions", String.format(portions, "NEW"), "1")
+                + String.format(total, "recipes", "1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_delete_stats AFTER DELETE ON recipe BEGIN "
+                + String.format(bump, "stat_rating", "rating", String.format(rating, "OLD"), "-1")
+                + String.format(bump, "stat_portions", "portions", String.format(portions, "OLD"), "-1")
+                + String.format(total, "recipes", "-1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_rating_stats AFTER UPDATE OF rating ON recipe"
+                + " WHEN IFNULL(OLD.rating, 0) <> IFNULL(NEW.rating, 0) BEGIN "
+                + String.format(bump, "stat_rating", "rating", String.format(rating, "OLD"), "-1")
+                + String.format(bump, "stat_rating", "rating", String.format(rating, "NEW"), "1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_portions_stats AFTER UPDATE OF portions ON recipe"
+                + " WHEN IFNULL(OLD.portions, 0) <> IFNULL(NEW.portions, 0) BEGIN "
+                + String.format(bump, "stat_portions", "portions", String.format(portions, "OLD"), "-1")
+                + String.format(bump, "stat_portions", "portions", String.format(portions, "NEW"), "1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_tag_insert_stats AFTER INSERT ON recipe_tag BEGIN "
+                + String.format(bump, "stat_tag", "tag_id", "NEW.tag_id", "1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_tag_delete_stats AFTER DELETE ON recipe_tag BEGIN "
+                + String.format(bump, "stat_tag", "tag_id", "OLD.tag_id", "-1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS recipe_tag_update_stats AFTER UPDATE OF tag_id ON recipe_tag"
+                + " WHEN OLD.tag_id <> NEW.tag_id BEGIN "
+                + String.format(bump, "stat_tag", "tag_id", "OLD.tag_id", "-1")
+                + String.format(bump, "stat_tag", "tag_id", "NEW.tag_id", "1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS ingredient_insert_stats AFTER INSERT ON ingredient BEGIN "
+                + String.format(total, "ingredients", "1") + " END;");
+        stmt.executeUpdate("CREATE TRIGGER IF NOT EXISTS ingredient_delete_stats AFTER DELETE ON ingredient BEGIN "
+                + String.format(total, "ingredients", "-1") + " END;");
+    }
+
+    /**
+     * Berechnet alle Summentabellen aus den Rezepten neu (beim ersten Anlegen oder zur Reparatur).
+     *
+     * @param stmt Statement auf einer Verbindung zum Katalog
+     * @throws SQLException bei Datenbankfehlern
+     */
+    static void rebuildStatistics(Statement stmt) throws SQLException {
+        stmt.executeUpdate("DELETE FROM stat_tag;");
+        stmt.executeUpdate("DELETE FROM stat_rating;");
+        stmt.executeUpdate("DELETE FROM stat_portions;");
+        stmt.executeUpdate("DELETE FROM stat_total;");
+        stmt.executeUpdate("INSERT INTO stat_tag (tag_id, recipe_count) SELECT tag_id, COUNT(*) FROM recipe_tag GROUP BY tag_id;");
+        stmt.executeUpdate("INSERT INTO stat_rating (rating, recipe_count) SELECT IFNULL(rating, 0), COUNT(*) FROM recipe GROUP BY 1;");
+        stmt.executeUpdate("INSERT INTO stat_portions (portions, recipe_count) SELECT IFNULL(portions, 0), COUNT(*) FROM recipe GROUP BY 1;");
+        stmt.executeUpdate("INSERT INTO stat_total (key, value) SELECT 'recipes', COUNT(*) FROM recipe;");
+        stmt.executeUpdate("INSERT INTO stat_total (key, value) SELECT 'ingredients', COUNT(*) FROM ingredient;");
+    }
+
+    private static void addColumnIfMissing(Statement stmt, String table, String column, String definition) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) return;
+            }
         }
+        stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
     }
 }
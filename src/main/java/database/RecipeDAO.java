@@ -1,10 +1,16 @@
 package database;
 
 import model.*;
+import monitoring.Metrics;
+import monitoring.QueryTrace;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Dieses DAO verwaltet das Laden, Speichern, Aktualisieren und Löschen von Rezepten
@@ -12,6 +18,27 @@ import java.util.List;
  */
 public class RecipeDAO {
 
+    /** SQLite erlaubt je nach Version nur 999 Parameter pro Abfrage. */
+    private static final int MAX_IDS_PER_QUERY = 900;
+
+    private final Catalog catalog;
+    private final StepDictionaryDAO stepDictionaries;
+
+    /**
+     * DAO für den Standardkatalog.
+     */
+    public RecipeDAO() {
+        this(Catalog.getDefault());
+    }
+
+    /**
+     * @param catalog Katalog, dessen Datenbank verwendet wird
+     */
+    public RecipeDAO(Catalog catalog) {
+        this.catalog = catalog;
+        this.stepDictionaries = new StepDictionaryDAO(catalog);
+    }
+
     /**
      * Gibt alle Rezepte aus der Datenbank zurück.
      *
@@ -20,7 +47,8 @@ public class RecipeDAO {
     public List<Recipe> getAllRecipes() {
         List<Recipe> recipes = new ArrayList<>();
         String sql = "SELECT * FROM recipe";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (QueryTrace trace = QueryTrace.start("dao.getAllRecipes", sql);
+             Connection conn = catalog.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -37,6 +65,7 @@ public class RecipeDAO {
                 }
                 recipes.add(recipe);
             }
+            trace.setRowCount(recipes.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -49,31 +78,70 @@ public class RecipeDAO {
      * @param recipe Das neue Rezept
      */
     public void insertRecipe(Recipe recipe) {
-        String sql = "INSERT INTO recipe (name, photoPath, rating, portions, createdDate) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (QueryTrace trace = QueryTrace.start("dao.insertRecipe", "INSERT INTO recipe/ingredient/step/recipe_tag");
+             Connection conn = catalog.getConnection()) {
+            insertRecipe(conn, recipe);
+            resolveTags(conn, recipe);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
+    /**
+     * Fügt mehrere neue Rezepte in einer gemeinsamen Transaktion ein (z. B. beim Massenimport).
+     * Schlägt ein Rezept fehl, wird der gesamte Block zurückgerollt.
+     *
+     * @param recipes die neuen Rezepte; ihre IDs werden nach dem Einfügen gesetzt
+     * @return true, wenn alle Rezepte gespeichert wurden
+     */
+    public boolean insertRecipes(List<Recipe> recipes) {
+        try (QueryTrace trace = QueryTrace.start("dao.insertRecipes", "INSERT INTO recipe/ingredient/step/recipe_tag (Block)");
+             Connection conn = catalog.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Recipe recipe : recipes) {
+                    insertRecipe(conn, recipe);
+                }
+                conn.commit();
+                for (Recipe recipe : recipes) {
+                    resolveTags(conn, recipe);
+                }
+                trace.setRowCount(recipes.size());
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                for (Recipe recipe : recipes) {
+                    recipe.setId(0);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void insertRecipe(Connection conn, Recipe recipe) throws SQLException {
+        String sql = "INSERT INTO recipe (name, photoPath, rating, portions, createdDate) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, recipe.getName());
             pstmt.setString(2, recipe.getPhoto() != null ? recipe.getPhoto().getFilePath() : null);
             pstmt.setInt(3, recipe.getRating());
             pstmt.setInt(4, recipe.getPortions());
             pstmt.setString(5, recipe.getCreatedDate());
             pstmt.executeUpdate();
+        }
 
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid();")) {
-                if (rs.next()) {
-                    recipe.setId(rs.getInt(1));
-                }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid();")) {
+            if (rs.next()) {
+                recipe.setId(rs.getInt(1));
             }
-
-            insertIngredients(conn, recipe);
-            insertSteps(conn, recipe);
-            insertTags(conn, recipe);
-
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
+
+        insertIngredients(conn, recipe);
+        insertSteps(conn, recipe);
+        insertTags(conn, recipe);
     }
 
     /**
@@ -83,7 +151,8 @@ public class RecipeDAO {
      */
     public void updateRecipe(Recipe recipe) {
         String sql = "UPDATE recipe SET name = ?, photoPath = ?, rating = ?, portions = ?, createdDate = ? WHERE id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (QueryTrace trace = QueryTrace.start("dao.updateRecipe", sql);
+             Connection conn = catalog.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, recipe.getName());
@@ -92,7 +161,7 @@ public class RecipeDAO {
             pstmt.setInt(4, recipe.getPortions());
             pstmt.setString(5, recipe.getCreatedDate());
             pstmt.setInt(6, recipe.getId());
-            pstmt.executeUpdate();
+            trace.setRowCount(pstmt.executeUpdate());
 
             deleteIngredients(conn, recipe.getId());
             insertIngredients(conn, recipe);
@@ -102,12 +171,114 @@ public class RecipeDAO {
 
             deleteRecipeTags(conn, recipe.getId());
             insertTags(conn, recipe);
+            resolveTags(conn, recipe);
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Speichert einzelne Änderungen aus dem Editor in einer Transaktion, statt das ganze Rezept neu zu schreiben.
+     * Zutaten haben keine Positionsspalte; eine Zutat, die nicht am Ende eingefügt wird, lässt sich daher
+     * nicht einzeln speichern. In diesem Fall wird zurückgerollt und false geliefert.
+     *
+     * @param recipeId   ID des gespeicherten Rezepts
+     * @param operations Änderungen in Reihenfolge
+     * @return true, wenn alle Änderungen gespeichert wurden
+     */
+    public boolean applyEdits(int recipeId, List<EditOperation> operations) {
+        if (operations.isEmpty()) return true;
+        try (QueryTrace trace = QueryTrace.start("dao.applyEdits", "UPDATE recipe / INSERT, DELETE ingredient, step, recipe_tag");
+             Connection conn = catalog.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (EditOperation op : operations) {
+                    applyEdit(conn, recipeId, op);
+                }
+                conn.commit();
+                trace.setRowCount(operations.size());
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                // Kein Fehler: der Aufrufer speichert dann vollständig; die Häufigkeit zeigt der Zähler
+                Metrics.counter("dao.applyEdits.fallbacks").increment();
+                System.err.println("Einzeländerungen nicht möglich, Rezept wird vollständig gespeichert: " + e.getMessage());
+                return false;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void applyEdit(Connection conn, int recipeId, EditOperation op) throws SQLException {
+        switch (op.getType()) {
+            case SET_NAME -> update(conn, "UPDATE recipe SET name = ? WHERE id = ?", op.getValue(), recipeId);
+            case SET_PORTIONS -> update(conn, "UPDATE recipe SET portions = ? WHERE id = ?", Integer.parseInt(op.getValue()), recipeId);
+            case SET_PHOTO -> update(conn, "UPDATE recipe SET photoPath = ? WHERE id = ?", op.getValue(), recipeId);
+            case ADD_INGREDIENT -> {
+                try (PreparedStatement count = conn.prepareStatement("SELECT COUNT(*) FROM ingredient WHERE recipe_id = ?")) {
+                    count.setInt(1, recipeId);
+                    ResultSet rs = count.executeQuery();
+                    if (!rs.next() || rs.getInt(1) != op.getIndex()) {
+                        throw new SQLException("Zutat an Position " + op.getIndex() + " kann nicht einzeln eingefügt werden");
+                    }
+                }
+                update(conn, "INSERT INTO ingredient (recipe_id, name_id, quantity, unit_id) VALUES (?, ?, ?, ?)",
+                        recipeId, catalog.ingredientNames.idOf(conn, op.getValue()), op.getQuantity(),
+                        catalog.units.idOf(conn, op.getUnit()));
+            }
+            case REMOVE_INGREDIENT -> expectOne(update(conn,
+                    "DELETE FROM ingredient WHERE id = (SELECT id FROM ingredient WHERE recipe_id = ? ORDER BY id LIMIT 1 OFFSET ?)",
+                    recipeId, op.getIndex()), op);
+            case ADD_STEP -> {
+                // Schrittnummern beginnen bei 1
+                update(conn, "UPDATE step SET number = number + 1 WHERE recipe_id = ? AND number > ?", recipeId, op.getIndex());
+                StepDictionary dictionary = stepDictionaries.getCurrentDictionary();
+                if (dictionary != null && op.getValue() != null) {
+                    update(conn, "INSERT INTO step (recipe_id, number, description_z, dictionary_id) VALUES (?, ?, ?, ?)",
+                            recipeId, op.getIndex() + 1, dictionary.compress(op.getValue()), dictionary.getId());
+                } else {
+                    update(conn, "INSERT INTO step (recipe_id, number, description) VALUES (?, ?, ?)",
+                            recipeId, op.getIndex() + 1, op.getValue());
+                }
+            }
+            case REMOVE_STEP -> {
+                expectOne(update(conn, "DELETE FROM step WHERE recipe_id = ? AND number = ?", recipeId, op.getIndex() + 1), op);
+                update(conn, "UPDATE step SET number = number - 1 WHERE recipe_id = ? AND number > ?", recipeId, op.getIndex() + 1);
+            }
+            case ADD_TAG -> {
+                // Schreibvarianten gelten wie im TagRegistry als dasselbe Tag
+                String name = op.getValue().trim();
+                update(conn, "INSERT INTO tag (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM tag WHERE name = ? COLLATE NOCASE)",
+                        name, name);
+                update(conn, "INSERT INTO recipe_tag (recipe_id, tag_id) SELECT ?, id FROM tag WHERE name = ? COLLATE NOCASE"
+                                + " AND NOT EXISTS (SELECT 1 FROM recipe_tag rt JOIN tag t ON t.id = rt.tag_id"
+                                + " WHERE rt.recipe_id = ? AND t.name = ? COLLATE NOCASE) ORDER BY id LIMIT 1",
+                        recipeId, name, recipeId, name);
+            }
+            case REMOVE_TAG -> expectOne(update(conn,
+                    "DELETE FROM recipe_tag WHERE recipe_id = ? AND tag_id IN (SELECT id FROM tag WHERE name = ? COLLATE NOCASE)",
+                    recipeId, op.getValue().trim()), op);
+        }
+    }
+
+    private static int update(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static void expectOne(int rows, EditOperation op) throws SQLException {
+        if (rows != 1) {
+            throw new SQLException("Änderung passt nicht zum gespeicherten Stand: " + op);
+        }
+    }
+
     /**
      * Löscht ein Rezept und alle zugehörigen Daten.
      *
@@ -115,29 +286,86 @@ public class RecipeDAO {
      */
     public void deleteRecipe(int recipeId) {
         String sql = "DELETE FROM recipe WHERE id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (QueryTrace trace = QueryTrace.start("dao.deleteRecipe", sql);
+             Connection conn = catalog.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, recipeId);
-            pstmt.executeUpdate();
+            trace.setRowCount(pstmt.executeUpdate());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Führt zwei doppelte Rezepte in einer Transaktion zusammen.
+     * Tags des Duplikats werden auf das verbleibende Rezept umgehängt, sein Foto wird übernommen,
+     * falls das verbleibende Rezept keines hat, danach wird das Duplikat gelöscht.
+     *
+     * @param keepId      ID des Rezepts, das erhalten bleibt
+     * @param duplicateId ID des Duplikats, das entfernt wird
+     * @return true, wenn die Transaktion erfolgreich war
+     */
+    public boolean mergeRecipes(int keepId, int duplicateId) {
+        try (QueryTrace trace = QueryTrace.start("dao.mergeRecipes", "INSERT INTO recipe_tag ...; UPDATE recipe ...; DELETE FROM recipe ...");
+             Connection conn = catalog.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement tags = conn.prepareStatement(
+                         "INSERT OR IGNORE INTO recipe_tag (recipe_id, tag_id) SELECT ?, tag_id FROM recipe_tag WHERE recipe_id = ?");
+                 PreparedStatement photo = conn.prepareStatement(
+                         "UPDATE recipe SET photoPath = (SELECT photoPath FROM recipe WHERE id = ?) WHERE id = ? AND photoPath IS NULL");
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM recipe WHERE id = ?")) {
+                tags.setInt(1, keepId);
+                tags.setInt(2, duplicateId);
+                tags.executeUpdate();
+
+                photo.setInt(1, duplicateId);
+                photo.setInt(2, keepId);
+                photo.executeUpdate();
+
+                delete.setInt(1, duplicateId);
+                delete.executeUpdate();
+
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     private void insertIngredients(Connection conn, Recipe recipe) throws SQLException {
-        String sql = "INSERT INTO ingredient (recipe_id, name, quantity, unit) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO ingredient (recipe_id, name_id, quantity, unit_id) VALUES (?, ?, ?, ?)";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             for (Ingredient ing : recipe.getIngredients()) {
+                // IDs zuerst ermitteln: ein neuer Begriff wird mit eigenem Statement angelegt
+                int nameId = catalog.ingredientNames.idOf(conn, ing.getName());
+                Integer unitId = catalog.units.idOf(conn, ing.getUnit());
                 pstmt.setInt(1, recipe.getId());
-                pstmt.setString(2, ing.getName());
+                pstmt.setInt(2, nameId);
                 pstmt.setDouble(3, ing.getQuantity());
-                pstmt.setString(4, ing.getUnit());
+                if (unitId != null) {
+                    pstmt.setInt(4, unitId);
+                } else {
+                    pstmt.setNull(4, Types.INTEGER);
+                }
                 pstmt.addBatch();
             }
             pstmt.executeBatch();
         }
     }
 
+    private Ingredient readIngredient(Connection conn, ResultSet rs) throws SQLException {
+        return new Ingredient(
+                catalog.ingredientNames.termOf(conn, rs.getInt("name_id")),
+                rs.getDouble("quantity"),
+                catalog.units.termOf(conn, rs.getInt("unit_id"))
+        );
+    }
+
     private void deleteIngredients(Connection conn, int recipeId) throws SQLException {
         try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM ingredient WHERE recipe_id = ?")) {
             pstmt.setInt(1, recipeId);
@@ -146,13 +374,27 @@ public class RecipeDAO {
     }
 
     private void insertSteps(Connection conn, Recipe recipe) throws SQLException {
-        String sql = "INSERT INTO step (recipe_id, number, description) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO step (recipe_id, number, description, description_z, dictionary_id) VALUES (?, ?, ?, ?, ?)";
+        StepDictionary dictionary = stepDictionaries.getCurrentDictionary();
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             int number = 1;
             for (Step step : recipe.getSteps()) {
                 pstmt.setInt(1, recipe.getId());
                 pstmt.setInt(2, number);
-                pstmt.setString(3, step.getDescription());
+                if (step.getCompressed() != null) {
+                    // Unveränderte Schritte werden nicht neu komprimiert
+                    pstmt.setNull(3, Types.VARCHAR);
+                    pstmt.setBytes(4, step.getCompressed());
+                    pstmt.setInt(5, step.getDictionary().getId());
+                } else if (dictionary != null && step.getDescription() != null) {
+                    pstmt.setNull(3, Types.VARCHAR);
+                    pstmt.setBytes(4, dictionary.compress(step.getDescription()));
+                    pstmt.setInt(5, dictionary.getId());
+                } else {
+                    pstmt.setString(3, step.getDescription());
+                    pstmt.setNull(4, Types.BLOB);
+                    pstmt.setNull(5, Types.INTEGER);
+                }
                 pstmt.addBatch();
                 number++;
             }
@@ -168,13 +410,23 @@ public class RecipeDAO {
     }
 
     private void insertTags(Connection conn, Recipe recipe) throws SQLException {
+        TagRegistry registry = catalog.getTagRegistry();
         String insertTag = "INSERT OR IGNORE INTO tag (name) VALUES (?)";
         String insertLink = "INSERT INTO recipe_tag (recipe_id, tag_id) VALUES (?, (SELECT id FROM tag WHERE name = ?))";
+        String insertLinkById = "INSERT OR IGNORE INTO recipe_tag (recipe_id, tag_id) VALUES (?, ?)";
 
         try (PreparedStatement tagStmt = conn.prepareStatement(insertTag);
-             PreparedStatement linkStmt = conn.prepareStatement(insertLink)) {
+             PreparedStatement linkStmt = conn.prepareStatement(insertLink);
+             PreparedStatement linkByIdStmt = conn.prepareStatement(insertLinkById)) {
 
             for (Tag tag : recipe.getTags()) {
+                if (registry.contains(tag)) {
+                    // Bekanntes Tag: direkt über die ID verknüpfen
+                    linkByIdStmt.setInt(1, recipe.getId());
+                    linkByIdStmt.setInt(2, tag.getId());
+                    linkByIdStmt.executeUpdate();
+                    continue;
+                }
                 String name = tag.getName().trim();
 
                 tagStmt.setString(1, name);
@@ -185,12 +437,45 @@ public class RecipeDAO {
                 try {
                     linkStmt.executeUpdate();
                 } catch (SQLException ex) {
+                    Metrics.counter("dao.tagLinkErrors").increment();
                     System.out.println("Fehler beim Verknüpfen mit Tag '" + name + "': " + ex.getMessage());
                 }
             }
         }
     }
 
+    /**
+     * Ersetzt neue Tags eines gespeicherten Rezepts durch die gemeinsamen Instanzen aus dem Tag-Verzeichnis,
+     * damit sie ihre ID kennen. Wird erst nach dem Festschreiben aufgerufen, damit keine IDs aus
+     * zurückgerollten Transaktionen im Verzeichnis landen.
+     *
+     * @param recipe gespeichertes Rezept
+     */
+    public void resolveTags(Recipe recipe) {
+        try (Connection conn = catalog.getConnection()) {
+            resolveTags(conn, recipe);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void resolveTags(Connection conn, Recipe recipe) throws SQLException {
+        TagRegistry registry = catalog.getTagRegistry();
+        List<Tag> tags = recipe.getTags();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, name FROM tag WHERE name = ?")) {
+            for (int i = 0; i < tags.size(); i++) {
+                Tag tag = tags.get(i);
+                if (registry.contains(tag)) continue;
+                pstmt.setString(1, tag.getName().trim());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        tags.set(i, registry.intern(rs.getInt("id"), rs.getString("name")));
+                    }
+                }
+            }
+        }
+    }
+
     private void deleteRecipeTags(Connection conn, int recipeId) throws SQLException {
         try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM recipe_tag WHERE recipe_id = ?")) {
             pstmt.setInt(1, recipeId);
@@ -206,24 +491,76 @@ public class RecipeDAO {
      */
     public List<Ingredient> getIngredientsForRecipe(int recipeId) {
         List<Ingredient> list = new ArrayList<>();
-        String sql = "SELECT * FROM ingredient WHERE recipe_id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        String sql = "SELECT name_id, quantity, unit_id FROM ingredient WHERE recipe_id = ? ORDER BY id";
+        try (QueryTrace trace = QueryTrace.start("dao.getIngredientsForRecipe", sql);
+             Connection conn = catalog.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, recipeId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                list.add(new Ingredient(
-                        rs.getString("name"),
-                        rs.getDouble("quantity"),
-                        rs.getString("unit")
-                ));
+                list.add(readIngredient(conn, rs));
             }
+            trace.setRowCount(list.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return list;
     }
 
+    /**
+     * Lädt mehrere Rezepte samt Zutaten mit einer einzigen Abfrage pro Block von IDs,
+     * statt für jedes Rezept eine eigene Abfrage zu stellen.
+     * Die Rezepte enthalten nur ID, Name, Portionen und Zutaten.
+     *
+     * @param recipeIds IDs der gewünschten Rezepte
+     * @return Rezepte nach ID, in Reihenfolge der Datenbank
+     */
+    public Map<Integer, Recipe> getRecipesWithIngredients(Collection<Integer> recipeIds) {
+        Map<Integer, Recipe> result = new LinkedHashMap<>();
+        List<Integer> ids = new ArrayList<>(recipeIds);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        try (QueryTrace trace = QueryTrace.start("dao.getRecipesWithIngredients", "SELECT ... FROM recipe r LEFT JOIN ingredient i ... WHERE r.id IN (...)");
+             Connection conn = catalog.getConnection()) {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+                String sql = "SELECT r.id, r.name, r.portions, i.name_id, i.quantity, i.unit_id "
+                        + "FROM recipe r LEFT JOIN ingredient i ON i.recipe_id = r.id "
+                        + "WHERE r.id IN (" + placeholders(chunk.size()) + ") ORDER BY r.id, i.id";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            int id = rs.getInt("id");
+                            Recipe recipe = result.get(id);
+                            if (recipe == null) {
+                                recipe = new Recipe(rs.getString("name"));
+                                recipe.setId(id);
+                                recipe.setPortions(rs.getInt("portions"));
+                                result.put(id, recipe);
+                            }
+                            // Rezepte ohne Zutaten liefern eine Zeile mit name_id NULL
+                            if (rs.getInt("name_id") != 0) {
+                                recipe.addIngredient(readIngredient(conn, rs));
+                            }
+                        }
+                    }
+                }
+            }
+            trace.setRowCount(result.size());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
     /**
      * Gibt die Kochschritte eines Rezepts in richtiger Reihenfolge zurück.
      *
@@ -233,20 +570,35 @@ public class RecipeDAO {
     public List<Step> getStepsForRecipe(int recipeId) {
         List<Step> list = new ArrayList<>();
         String sql = "SELECT * FROM step WHERE recipe_id = ? ORDER BY number ASC";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (QueryTrace trace = QueryTrace.start("dao.getStepsForRecipe", sql);
+             Connection conn = catalog.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, recipeId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                Step step = new Step(rs.getString("description"));
-                list.add(step);
+                list.add(readStep(rs));
             }
+            trace.setRowCount(list.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return list;
     }
 
+    /**
+     * Liest einen Schritt; komprimierte Texte bleiben komprimiert, bis sie angezeigt werden.
+     */
+    private Step readStep(ResultSet rs) throws SQLException {
+        byte[] compressed = rs.getBytes("description_z");
+        if (compressed != null) {
+            StepDictionary dictionary = stepDictionaries.getDictionary(rs.getInt("dictionary_id"));
+            if (dictionary != null) {
+                return new Step(compressed, dictionary);
+            }
+        }
+        return new Step(rs.getString("description"));
+    }
+
     /**
      * Gibt die Tags für ein bestimmtes Rezept zurück.
      *
@@ -255,14 +607,17 @@ public class RecipeDAO {
      */
     public List<Tag> getTagsForRecipe(int recipeId) {
         List<Tag> list = new ArrayList<>();
-        String sql = "SELECT t.name FROM tag t JOIN recipe_tag rt ON t.id = rt.tag_id WHERE rt.recipe_id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        String sql = "SELECT t.id, t.name FROM tag t JOIN recipe_tag rt ON t.id = rt.tag_id WHERE rt.recipe_id = ?";
+        try (QueryTrace trace = QueryTrace.start("dao.getTagsForRecipe", sql);
+             Connection conn = catalog.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, recipeId);
             ResultSet rs = pstmt.executeQuery();
+            TagRegistry registry = catalog.getTagRegistry();
             while (rs.next()) {
-                list.add(new Tag(rs.getString("name")));
+                list.add(registry.intern(rs.getInt("id"), rs.getString("name")));
             }
+            trace.setRowCount(list.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -270,22 +625,50 @@ public class RecipeDAO {
     }
 
     /**
-     * Gibt alle verfügbaren Tags aus der Datenbank zurück.
+     * Liest alle Tags aus der Datenbank in das Tag-Verzeichnis des Katalogs ein.
+     * Danach genügt {@link TagRegistry#getAll()}; neue Tags kommen beim Speichern hinzu.
      *
      * @return Alphabetisch sortierte Liste aller Tags
      */
     public List<Tag> getAllTags() {
-        List<Tag> tags = new ArrayList<>();
-        String sql = "SELECT name FROM tag ORDER BY name";
-        try (Connection conn = DatabaseHelper.getConnection();
+        TagRegistry registry = catalog.getTagRegistry();
+        String sql = "SELECT id, name FROM tag ORDER BY name";
+        try (QueryTrace trace = QueryTrace.start("dao.getAllTags", sql);
+             Connection conn = catalog.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
+            int count = 0;
             while (rs.next()) {
-                tags.add(new Tag(rs.getString("name")));
+                registry.intern(rs.getInt("id"), rs.getString("name"));
+                count++;
+            }
+            registry.setLoaded(true);
+            trace.setRowCount(count);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return registry.getAll();
+    }
+
+    /**
+     * Gibt die Generationsnummer des Katalogs zurück. Sie wird bei jeder Änderung an Rezepten,
+     * Zutaten, Schritten oder Tags per Trigger erhöht.
+     *
+     * @return aktuelle Generation oder -1 bei einem Fehler
+     */
+    public long getGeneration() {
+        String sql = "SELECT value FROM catalog_meta WHERE key = 'generation'";
+        try (QueryTrace trace = QueryTrace.start("dao.getGeneration", sql);
+             Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                trace.setRowCount(1);
+                return rs.getLong("value");
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return tags;
+        return -1;
     }
-}
\ No newline at end of file
+}
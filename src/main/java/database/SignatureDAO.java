@@ -0,0 +1,114 @@
+package database;
+
+import monitoring.QueryTrace;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Speichert die MinHash-Signaturen der Rezepte in der Tabelle recipe_signature,
+ * damit sie beim nächsten Start nicht neu berechnet werden müssen.
+ * Beim Löschen eines Rezepts wird die Signatur per ON DELETE CASCADE entfernt.
+ */
+public class SignatureDAO {
+
+    /**
+     * Gespeicherte Signatur eines Rezepts mit dem Hash der Merkmale, aus denen sie berechnet wurde.
+     */
+    public static class StoredSignature {
+        private final long featuresHash;
+        private final int[] signature;
+
+        public StoredSignature(long featuresHash, int[] signature) {
+            this.featuresHash = featuresHash;
+            this.signature = signature;
+        }
+
+        public long getFeaturesHash() {
+            return featuresHash;
+        }
+
+        public int[] getSignature() {
+            return signature;
+        }
+    }
+
+    private final Catalog catalog;
+
+    /**
+     * DAO für den Standardkatalog.
+     */
+    public SignatureDAO() {
+        this(Catalog.getDefault());
+    }
+
+    /**
+     * @param catalog Katalog, dessen Datenbank verwendet wird
+     */
+    public SignatureDAO(Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Gibt alle gespeicherten Signaturen zurück.
+     *
+     * @return Rezept-ID → Signatur
+     */
+    public Map<Integer, StoredSignature> getAllSignatures() {
+        Map<Integer, StoredSignature> result = new HashMap<>();
+        String sql = "SELECT recipe_id, features_hash, signature FROM recipe_signature";
+        try (QueryTrace trace = QueryTrace.start("dao.getAllSignatures", sql);
+             Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                result.put(rs.getInt("recipe_id"),
+                        new StoredSignature(rs.getLong("features_hash"), fromBytes(rs.getBytes("signature"))));
+            }
+            trace.setRowCount(result.size());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Speichert mehrere Signaturen in einer Transaktion (ersetzt vorhandene Einträge).
+     *
+     * @param signatures Rezept-ID → Signatur
+     */
+    public void saveSignatures(Map<Integer, StoredSignature> signatures) {
+        if (signatures.isEmpty()) return;
+        String sql = "INSERT OR REPLACE INTO recipe_signature (recipe_id, features_hash, signature) VALUES (?, ?, ?)";
+        try (QueryTrace trace = QueryTrace.start("dao.saveSignatures", sql);
+             Connection conn = catalog.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (Map.Entry<Integer, StoredSignature> e : signatures.entrySet()) {
+                pstmt.setInt(1, e.getKey());
+                pstmt.setLong(2, e.getValue().getFeaturesHash());
+                pstmt.setBytes(3, toBytes(e.getValue().getSignature()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+            trace.setRowCount(signatures.size());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    private static int[] fromBytes(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+}
@@ -0,0 +1,135 @@
+package database;
+
+import model.CatalogStatistics;
+import model.Tag;
+import model.TagRegistry;
+import monitoring.QueryTrace;
+
+import java.io.File;
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Liest die Kennzahlen eines Katalogs aus den Summentabellen stat_tag, stat_rating, stat_portions und stat_total.
+ * Die Tabellen werden von Triggern bei jedem Speichern und Löschen fortgeschrieben (siehe {@link DatabaseHelper}),
+ * sodass das Lesen unabhängig von der Zahl der Rezepte nur wenige Zeilen kostet.
+ */
+public class StatisticsDAO {
+
+    private final Catalog catalog;
+
+    /**
+     * DAO für den Standardkatalog.
+     */
+    public StatisticsDAO() {
+        this(Catalog.getDefault());
+    }
+
+    /**
+     * @param catalog Katalog, dessen Datenbank verwendet wird
+     */
+    public StatisticsDAO(Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Liest alle Kennzahlen.
+     *
+     * @return Statistik des Katalogs oder {@link CatalogStatistics#EMPTY} bei Fehlern
+     */
+    public CatalogStatistics load() {
+        String sql = "SELECT t.id, t.name, s.recipe_count FROM stat_tag s JOIN tag t ON t.id = s.tag_id"
+                + " WHERE s.recipe_count > 0 ORDER BY s.recipe_count DESC, t.name COLLATE NOCASE";
+        try (QueryTrace trace = QueryTrace.start("dao.loadStatistics", sql);
+             Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement()) {
+            TagRegistry registry = catalog.getTagRegistry();
+            Map<Tag, Integer> tagCounts = new LinkedHashMap<>();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    tagCounts.merge(registry.intern(rs.getInt("id"), rs.getString("name")), rs.getInt("recipe_count"), Integer::sum);
+                }
+            }
+            int[] ratings = new int[6];
+            try (ResultSet rs = stmt.executeQuery("SELECT rating, recipe_count FROM stat_rating WHERE recipe_count > 0")) {
+                while (rs.next()) {
+                    int rating = rs.getInt("rating");
+                    if (rating >= 0 && rating < ratings.length) {
+                        ratings[rating] = rs.getInt("recipe_count");
+                    }
+                }
+            }
+            SortedMap<Integer, Integer> portions = new TreeMap<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT portions, recipe_count FROM stat_portions WHERE recipe_count > 0")) {
+                while (rs.next()) {
+                    portions.put(rs.getInt("portions"), rs.getInt("recipe_count"));
+                }
+            }
+            int recipes = 0;
+            int ingredients = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT key, value FROM stat_total")) {
+                while (rs.next()) {
+                    if ("recipes".equals(rs.getString("key"))) recipes = rs.getInt("value");
+                    if ("ingredients".equals(rs.getString("key"))) ingredients = rs.getInt("value");
+                }
+            }
+            trace.setRowCount(tagCounts.size() + portions.size());
+            return new CatalogStatistics(recipes, ingredients, tagCounts, ratings, portions);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return CatalogStatistics.EMPTY;
+        }
+    }
+
+    /**
+     * Berechnet die Summentabellen aus den Rezepten neu, falls sie etwa durch Bearbeiten
+     * der Datenbank an den Triggern vorbei nicht mehr stimmen.
+     *
+     * @return true bei Erfolg
+     */
+    public boolean rebuild() {
+        try (Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                DatabaseHelper.rebuildStatistics(stmt);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Gibt die Kennzahlen eines Katalogs aus.
+     * Aufruf: {@code StatisticsDAO [katalog.db] [--rebuild]}
+     */
+    public static void main(String[] args) {
+        Catalog catalog = args.length > 0 && !args[0].startsWith("--")
+                ? new Catalog("Statistik", new File(args[0])) : Catalog.getDefault();
+        StatisticsDAO dao = new StatisticsDAO(catalog);
+        if (args.length > 0 && "--rebuild".equals(args[args.length - 1]) && !dao.rebuild()) {
+            System.out.println("Neuberechnung fehlgeschlagen");
+        }
+        CatalogStatistics stats = dao.load();
+        System.out.println(stats);
+        int[] ratings = stats.getRatingHistogram();
+        for (int i = ratings.length - 1; i >= 0; i--) {
+            System.out.printf("  %s %d%n", i == 0 ? "unbewertet" : "★".repeat(i) + " ".repeat(10 - i), ratings[i]);
+        }
+        stats.getPortionCounts().forEach((portions, count) ->
+                System.out.printf("  %s: %d%n", portions == 0 ? "ohne Portionsangabe" : portions + " Portionen", count));
+        stats.getTagCounts().forEach((tag, count) -> System.out.printf("  #%s: %d%n", tag.getName(), count));
+        catalog.close();
+    }
+}
@@ -0,0 +1,182 @@
+package database;
+
+import model.StepDictionary;
+import monitoring.QueryTrace;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verwaltet die Wörterbücher für komprimierte Schritttexte (Tabelle step_dictionary)
+ * und stellt den Bestand auf komprimierte Speicherung um.
+ * Wörterbücher werden nie geändert, nur neu angelegt; deshalb dürfen sie dauerhaft zwischengespeichert werden
+ * (je Katalog, da die IDs nur innerhalb einer Datei gelten).
+ */
+public class StepDictionaryDAO {
+
+    /** Anzahl Schritttexte, aus denen das Wörterbuch trainiert wird. */
+    private static final int TRAINING_SAMPLE = 20000;
+
+    private final Catalog catalog;
+
+    /**
+     * DAO für den Standardkatalog.
+     */
+    public StepDictionaryDAO() {
+        this(Catalog.getDefault());
+    }
+
+    /**
+     * @param catalog Katalog, dessen Datenbank verwendet wird
+     */
+    public StepDictionaryDAO(Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Gibt ein Wörterbuch anhand seiner ID zurück.
+     *
+     * @param id Wörterbuch-ID
+     * @return Wörterbuch oder null, falls es nicht existiert
+     */
+    public StepDictionary getDictionary(int id) {
+        StepDictionary cached = catalog.stepDictionaries.get(id);
+        if (cached != null) return cached;
+        String sql = "SELECT dictionary FROM step_dictionary WHERE id = ?";
+        try (QueryTrace trace = QueryTrace.start("dao.getStepDictionary", sql);
+             Connection conn = catalog.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                trace.setRowCount(1);
+                StepDictionary dictionary = new StepDictionary(id, rs.getBytes("dictionary"));
+                catalog.stepDictionaries.put(id, dictionary);
+                return dictionary;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Gibt das neueste Wörterbuch zurück, mit dem neue Schritte komprimiert werden.
+     *
+     * @return Wörterbuch oder null, wenn der Bestand unkomprimiert gespeichert wird
+     */
+    public StepDictionary getCurrentDictionary() {
+        if (catalog.currentStepDictionaryLoaded) return catalog.currentStepDictionary;
+        String sql = "SELECT MAX(id) AS id FROM step_dictionary";
+        try (QueryTrace trace = QueryTrace.start("dao.getCurrentStepDictionary", sql);
+             Connection conn = catalog.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            int id = rs.next() ? rs.getInt("id") : 0;
+            catalog.currentStepDictionary = id > 0 ? getDictionary(id) : null;
+            catalog.currentStepDictionaryLoaded = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return catalog.currentStepDictionary;
+    }
+
+    /**
+     * Stellt alle noch unkomprimierten Schritttexte auf komprimierte Speicherung um.
+     * Gibt es noch kein Wörterbuch, wird es zuerst aus den vorhandenen Texten trainiert.
+     * Danach wird die Datenbankdatei mit VACUUM verkleinert.
+     *
+     * @return Anzahl umgestellter Schritte
+     */
+    public int compressCatalog() {
+        StepDictionary dictionary = getCurrentDictionary();
+        if (dictionary == null) {
+            byte[] trained = StepDictionary.train(getPlainTexts(TRAINING_SAMPLE), StepDictionary.MAX_SIZE);
+            if (trained.length == 0) return 0;
+            dictionary = saveDictionary(trained);
+            if (dictionary == null) return 0;
+        }
+
+        int converted = 0;
+        String select = "SELECT id, description FROM step WHERE description_z IS NULL AND description IS NOT NULL";
+        String update = "UPDATE step SET description = NULL, description_z = ?, dictionary_id = ? WHERE id = ?";
+        try (QueryTrace trace = QueryTrace.start("dao.compressSteps", update);
+             Connection conn = catalog.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(select);
+                 PreparedStatement pstmt = conn.prepareStatement(update)) {
+                while (rs.next()) {
+                    pstmt.setBytes(1, dictionary.compress(rs.getString("description")));
+                    pstmt.setInt(2, dictionary.getId());
+                    pstmt.setInt(3, rs.getInt("id"));
+                    pstmt.addBatch();
+                    converted++;
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            trace.setRowCount(converted);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+
+        if (converted > 0) {
+            try (Connection conn = catalog.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("VACUUM");
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return converted;
+    }
+
+    private StepDictionary saveDictionary(byte[] bytes) {
+        String sql = "INSERT INTO step_dictionary (dictionary, createdDate) VALUES (?, ?)";
+        try (QueryTrace trace = QueryTrace.start("dao.saveStepDictionary", sql);
+             Connection conn = catalog.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             Statement stmt = conn.createStatement()) {
+            pstmt.setBytes(1, bytes);
+            pstmt.setString(2, LocalDate.now().toString());
+            pstmt.executeUpdate();
+            ResultSet keys = stmt.executeQuery("SELECT last_insert_rowid();");
+            if (keys.next()) {
+                trace.setRowCount(1);
+                StepDictionary dictionary = new StepDictionary(keys.getInt(1), bytes);
+                catalog.stepDictionaries.put(dictionary.getId(), dictionary);
+                catalog.currentStepDictionary = dictionary;
+                catalog.currentStepDictionaryLoaded = true;
+                return dictionary;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private List<String> getPlainTexts(int limit) {
+        List<String> texts = new ArrayList<>();
+        String sql = "SELECT description FROM step WHERE description IS NOT NULL LIMIT ?";
+        try (QueryTrace trace = QueryTrace.start("dao.getStepSample", sql);
+             Connection conn = catalog.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                texts.add(rs.getString("description"));
+            }
+            trace.setRowCount(texts.size());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return texts;
+    }
+}
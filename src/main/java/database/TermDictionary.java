@@ -0,0 +1,128 @@
+package database;
+
+import monitoring.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zwischenspeicher für eine Wörterbuchtabelle (id, name) wie ingredient_name oder unit.
+ * Zutatenzeilen speichern nur die ID; Namen werden hier aufgelöst, sodass jeder Begriff
+ * nur einmal im Speicher liegt. Einträge werden nie geändert, nur angelegt.
+ * Gehört zu genau einem {@link Catalog}, da die IDs nur innerhalb einer Datei gelten.
+ *
+ * <p>Begriffe, die in einer offenen Transaktion angelegt werden, sieht zunächst nur diese Verbindung.
+ * Erst {@link #committed(Connection)} nimmt sie in den gemeinsamen Zwischenspeicher auf; nach einem
+ * Rollback verwirft {@link #discarded(Connection)} sie, sodass andere Threads nie eine zurückgerollte ID erhalten.</p>
+ */
+final class TermDictionary {
+
+    private final String table;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> terms = new ConcurrentHashMap<>();
+    /** Je Verbindung die in ihrer offenen Transaktion ermittelten Begriffe. */
+    private final Map<Connection, Map<String, Integer>> uncommitted = new ConcurrentHashMap<>();
+
+    /**
+     * @param table Name der Wörterbuchtabelle mit den Spalten id und name
+     */
+    TermDictionary(String table) {
+        this.table = table;
+    }
+
+    /**
+     * Gibt die ID eines Begriffs zurück und legt ihn bei Bedarf in der Tabelle an.
+     * Läuft in der Transaktion des Aufrufers.
+     *
+     * @param conn Verbindung zum Katalog
+     * @param term Begriff in gespeicherter Schreibweise
+     * @return ID oder null für einen fehlenden Begriff
+     * @throws SQLException bei Datenbankfehlern
+     */
+    Integer idOf(Connection conn, String term) throws SQLException {
+        if (term == null) return null;
+        Integer id = ids.get(term);
+        if (id != null) return id;
+        boolean inTransaction = !conn.getAutoCommit();
+        Map<String, Integer> own = inTransaction ? uncommitted.get(conn) : null;
+        if (own != null && (id = own.get(term)) != null) return id;
+        Metrics.counter("dao.dictionaryMisses").increment();
+        try (PreparedStatement insert = conn.prepareStatement("INSERT OR IGNORE INTO " + table + " (name) VALUES (?)");
+             PreparedStatement select = conn.prepareStatement("SELECT id FROM " + table + " WHERE name = ?")) {
+            insert.setString(1, term);
+            insert.executeUpdate();
+            select.setString(1, term);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Begriff nicht in " + table + ": " + term);
+                id = rs.getInt(1);
+            }
+        }
+        if (inTransaction) {
+            uncommitted.computeIfAbsent(conn, k -> new HashMap<>()).put(term, id);
+        } else {
+            publish(term, id);
+        }
+        return id;
+    }
+
+    /**
+     * Gibt den Begriff zu einer ID zurück. Beim ersten unbekannten Eintrag wird die ganze Tabelle gelesen.
+     *
+     * @param conn Verbindung zum Katalog
+     * @param id   ID aus der Zutatenzeile (0 bzw. SQL NULL = kein Begriff)
+     * @return Begriff oder null
+     * @throws SQLException bei Datenbankfehlern
+     */
+    String termOf(Connection conn, int id) throws SQLException {
+        if (id == 0) return null;
+        String term = terms.get(id);
+        if (term != null) return term;
+        Metrics.counter("dao.dictionaryMisses").increment();
+        if (!conn.getAutoCommit()) {
+            // Die Tabelle kann Begriffe der offenen Transaktion enthalten, daher nur diesen einen lesen
+            try (PreparedStatement select = conn.prepareStatement("SELECT name FROM " + table + " WHERE id = ?")) {
+                select.setInt(1, id);
+                try (ResultSet rs = select.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM " + table)) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                int rowId = rs.getInt("id");
+                ids.putIfAbsent(name, rowId);
+                terms.putIfAbsent(rowId, name);
+            }
+        }
+        return terms.get(id);
+    }
+
+    /**
+     * Nimmt die in der Transaktion dieser Verbindung ermittelten Begriffe nach dem Commit
+     * in den gemeinsamen Zwischenspeicher auf.
+     */
+    void committed(Connection conn) {
+        Map<String, Integer> own = uncommitted.remove(conn);
+        if (own != null) own.forEach(this::publish);
+    }
+
+    /**
+     * Verwirft die in der Transaktion dieser Verbindung ermittelten Begriffe nach einem Rollback.
+     */
+    void discarded(Connection conn) {
+        uncommitted.remove(conn);
+    }
+
+    private void publish(String term, int id) {
+        ids.put(term, id);
+        terms.put(id, term);
+    }
+}
@@ -1,20 +1,31 @@
 package de.gfn.ikladde.ikladde;
 
+import database.Catalog;
+import database.CatalogMaintenance;
 import controller.IkladdeAppController;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import model.WindowManager;
 import model.RecipeManager;
+import monitoring.FlightRecording;
+import monitoring.FxStallWatchdog;
+import monitoring.MetricsReporter;
+import monitoring.StartupTimer;
 import view.IkladdeAppView;
 import view.RecipeView;
 
 /**
  * Startpunkt der Anwendung.
- * Initialisiert das Hauptfenster, lädt die Rezeptdaten und verbindet View und Controller.
+ * Zeigt zuerst das leere Hauptfenster an; ControlsFX-Steuerelemente, Controller und das Laden
+ * der Rezeptdaten folgen erst nach dem ersten gezeichneten Frame.
  */
 public class IkladdeApp extends Application {
 
+    private RecipeManager sharedManager;
+    private final CatalogMaintenance maintenance = new CatalogMaintenance(Catalog.getDefault());
+
     /**
      * Startet die JavaFX-Anwendung und zeigt das Hauptfenster.
      *
@@ -22,33 +33,74 @@ public class IkladdeApp extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
+        StartupTimer.mark("JavaFX gestartet");
+        MetricsReporter.start();
+        FxStallWatchdog.start();
+        maintenance.start();
         IkladdeAppView view = new IkladdeAppView();
-        RecipeManager sharedManager = new RecipeManager();
-        sharedManager.loadData();
+        sharedManager = new RecipeManager();
+
+        Scene scene = new Scene(view, 1000, 700);
+        scene.getStylesheets().add(getClass().getResource("/style.css").toExternalForm());
+        primaryStage.setTitle("iKladde – Hauptfenster");
+        primaryStage.setScene(scene);
+
+        // Nach dem ersten Layout-Durchlauf wird der Frame gezeichnet; erst danach geht es weiter
+        boolean[] firstPulse = {true};
+        scene.addPostLayoutPulseListener(() -> {
+            if (firstPulse[0]) {
+                firstPulse[0] = false;
+                Platform.runLater(() -> initAfterFirstFrame(view, sharedManager));
+            }
+        });
+
+        primaryStage.show();
+        StartupTimer.mark("Fenster angezeigt");
+    }
+
+    /**
+     * Erzeugt die aufgeschobenen Steuerelemente und den Controller, der die Daten im Hintergrund lädt.
+     * Der Rezepteditor ({@link RecipeView}) wird erst beim Öffnen der Rezeptverwaltung erzeugt.
+     */
+    private void initAfterFirstFrame(IkladdeAppView view, RecipeManager sharedManager) {
+        StartupTimer.mark("Erster Frame");
+        view.createDeferredControls();
 
         final IkladdeAppController[] controllerRef = new IkladdeAppController[1];
 
         controllerRef[0] = new IkladdeAppController(view, (manager) -> {
             RecipeView recipeView = new RecipeView();
-            WindowManager.openRecipeManagerWindow(manager, recipeView, () -> {
-                controllerRef[0].refreshRecipes();
-                controllerRef[0].refreshTags();
-            });
+            WindowManager.openRecipeManagerWindow(manager, recipeView, () -> controllerRef[0].refreshRecipes());
         }, sharedManager);
+        StartupTimer.mark("Controller bereit");
+    }
 
-        Scene scene = new Scene(view, 1000, 700);
-        scene.getStylesheets().add(getClass().getResource("/style.css").toExternalForm());
-        primaryStage.setTitle("iKladde – Hauptfenster");
-        primaryStage.setScene(scene);
-        primaryStage.show();
+    /**
+     * Schreibt den Katalog-Schnappschuss für den nächsten Start, beendet Wartung und Überwachung
+     * und schreibt einen letzten Stand der Messwerte.
+     */
+    @Override
+    public void stop() {
+        maintenance.stop();
+        if (sharedManager != null) {
+            sharedManager.saveSnapshot();
+        }
+        Catalog.getDefault().close();
+        FxStallWatchdog.stop();
+        MetricsReporter.stop();
     }
 
     /**
      * Einstiegspunkt der Anwendung.
+     * Mit {@code --jfr[=datei.jfr]} wird zusätzlich eine Flight-Recorder-Aufzeichnung gestartet,
+     * mit {@code -Dikladde.startup.exitAfterLoad=true} beendet sich das Programm nach dem Laden
+     * (Trainingslauf für das AppCDS-Archiv).
      *
      * @param args Programmargumente
      */
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        FlightRecording.startIfRequested(args);
         launch(args);
     }
 }
\ No newline at end of file
@@ -1,30 +1,53 @@
 package model;
 
 import java.io.File;
+import java.io.IOException;
 
 /**
- * Diese Klasse dient als Platzhalter für zukünftige KI-Integration.
- * Hier sollen später Bilder analysiert und automatisch Rezeptdaten extrahiert werden.
+ * Einstiegspunkt für den Rezeptimport aus Bildern.
+ * Die eigentliche Verarbeitung übernimmt die {@link RecipeImportPipeline};
+ * die Texterkennung ist über {@link TextExtractor} austauschbar (z. B. für eine spätere KI-Anbindung).
  */
 public class AIRecipeHelper {
 
+    private static TextExtractor textExtractor = new SidecarTextExtractor();
+
+    /**
+     * Legt fest, welche Texterkennung für den Import verwendet wird.
+     *
+     * @param extractor Texterkennung
+     */
+    public static void setTextExtractor(TextExtractor extractor) {
+        textExtractor = extractor;
+    }
+
     /**
-     * Diese Methode soll später ein Rezept aus einem Bild (z. B. Screenshot eines Rezepts)
-     * automatisch erkennen und in ein Recipe-Objekt umwandeln.
+     * Erkennt ein Rezept aus einem Bild (z. B. Screenshot eines Rezepts)
+     * und wandelt es in ein Recipe-Objekt um. Das Rezept wird nicht gespeichert.
      *
      * @param imageFile Bilddatei eines Rezepts
-     * @return ein neues Recipe-Objekt (oder null als Platzhalter)
+     * @return ein neues Recipe-Objekt; kann das Bild nicht gelesen werden, ein leeres Rezept mit dem Dateinamen
      */
     public static Recipe importFromImage(File imageFile) {
-        // Beispielhafte Platzhalter-Variablen
-        String erkannterName = "Platzhalter-Rezept";
-        int erkanntePortionen = 4;
-
-        // Neues leeres Rezept-Objekt als Platzhalter
-        Recipe recipe = new Recipe();
-        recipe.setName(erkannterName);
-        recipe.setPortions(erkanntePortionen);
+        try {
+            return new RecipeImportPipeline(textExtractor).recognize(imageFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            Recipe recipe = new Recipe(SidecarTextExtractor.baseName(imageFile));
+            recipe.setPortions(4);
+            return recipe;
+        }
+    }
 
-        return recipe;
+    /**
+     * Importiert alle Rezeptbilder eines Ordners parallel und speichert sie über den Verwalter,
+     * der seine Beobachter mit ADDED über jedes neue Rezept informiert.
+     *
+     * @param folder        Ordner mit Bildern
+     * @param recipeManager Verwalter des Katalogs, in den importiert wird
+     * @return Ergebnis mit importierten Rezepten, Fehlern und Zeiten je Schritt
+     */
+    public static ImportResult importFromFolder(File folder, RecipeManager recipeManager) {
+        return new RecipeImportPipeline(textExtractor, recipeManager).importFolder(folder);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package model;
+
+import database.Catalog;
+import monitoring.Metrics;
+import monitoring.Timer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mehrere gleichzeitig geöffnete Kataloge (z. B. privat, Familie, Restaurant).
+ * Jeder Katalog hat einen eigenen {@link RecipeManager} mit eigenen Indizes und eigenem Verbindungspool.
+ * Laden und Suchen laufen parallel je Katalog; die Suchergebnisse werden nach Bewertung zusammengeführt.
+ *
+ * <p>Die Kataloge werden über die Systemeigenschaft {@code ikladde.catalogs} angegeben,
+ * z. B. {@code -Dikladde.catalogs="Privat=database/ikladde.db;Familie=/daten/familie.db"}.
+ * Ohne Angabe wird nur der Standardkatalog geöffnet.</p>
+ */
+public class CatalogFederation {
+
+    private final List<RecipeManager> managers = new ArrayList<>();
+    private final ExecutorService executor;
+
+    /**
+     * @param catalogs zu öffnende Kataloge
+     */
+    public CatalogFederation(List<Catalog> catalogs) {
+        for (Catalog catalog : catalogs) {
+            managers.add(new RecipeManager(catalog));
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, catalogs.size()), r -> {
+            Thread t = new Thread(r, "catalog-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Liest die Kataloge aus der Systemeigenschaft {@code ikladde.catalogs}.
+     *
+     * @return Kataloge; mindestens der Standardkatalog
+     */
+    public static List<Catalog> configuredCatalogs() {
+        List<Catalog> catalogs = new ArrayList<>();
+        String config = System.getProperty("ikladde.catalogs", "").trim();
+        for (String entry : config.split(";")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            String name = eq > 0 ? entry.substring(0, eq).trim() : new File(entry.trim()).getName();
+            File file = new File(entry.substring(eq + 1).trim());
+            catalogs.add(new Catalog(name, file));
+        }
+        if (catalogs.isEmpty()) {
+            catalogs.add(Catalog.getDefault());
+        }
+        return catalogs;
+    }
+
+    public List<RecipeManager> getManagers() {
+        return Collections.unmodifiableList(managers);
+    }
+
+    /**
+     * @param catalogName Name des Katalogs
+     * @return Verwalter des Katalogs oder null
+     */
+    public RecipeManager getManager(String catalogName) {
+        for (RecipeManager manager : managers) {
+            if (manager.getCatalog().getName().equals(catalogName)) return manager;
+        }
+        return null;
+    }
+
+    /**
+     * Lädt alle Kataloge parallel.
+     */
+    public void loadAll() {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (RecipeManager manager : managers) {
+            tasks.add(() -> {
+                manager.loadData();
+                return null;
+            });
+        }
+        try (Timer.Sample sample = Metrics.time("federation.loadAll")) {
+            List<Future<Void>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                result(futures.get(i), managers.get(i), "Laden");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sucht in allen Katalogen gleichzeitig und führt die Ergebnisse nach Bewertung zusammen.
+     * Jeder Katalog liefert höchstens {@code limit} bereits sortierte Treffer; zusammengeführt wird
+     * schrittweise über die jeweils besten verbleibenden Treffer. Scheitert die Suche in einem Katalog,
+     * wird das gemeldet und mit den Treffern der übrigen weitergemacht.
+     *
+     * @param query Suchbegriffe
+     * @param limit maximale Anzahl Ergebnisse insgesamt
+     * @return Treffer aller Kataloge, bester zuerst
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<Callable<List<SearchHit>>> tasks = new ArrayList<>();
+        for (RecipeManager manager : managers) {
+            tasks.add(() -> manager.search(query, limit));
+        }
+        List<List<SearchHit>> perCatalog = new ArrayList<>();
+        try (Timer.Sample sample = Metrics.time("federation.search")) {
+            List<Future<List<SearchHit>>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                List<SearchHit> hits = result(futures.get(i), managers.get(i), "Suche");
+                if (hits != null) perCatalog.add(hits);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        }
+        return merge(perCatalog, limit);
+    }
+
+    /**
+     * Liefert das Ergebnis eines bereits abgeschlossenen Auftrags für einen Katalog.
+     * Ein Fehler wird mit dem Katalognamen gemeldet und gezählt; die übrigen Kataloge sind davon nicht betroffen.
+     *
+     * @return Ergebnis oder null, falls der Auftrag mit einer Ausnahme endete
+     */
+    private static <T> T result(Future<T> future, RecipeManager manager, String action) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Metrics.counter("federation.failures").increment();
+            System.err.println(action + " im Katalog " + manager.getCatalog().getName() + " fehlgeschlagen:");
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+
+    private static List<SearchHit> merge(List<List<SearchHit>> lists, int limit) {
+        // Je Liste der Index des nächsten Treffers; die Warteschlange enthält je Liste den besten verbleibenden
+        int[] next = new int[lists.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, lists.size()),
+                (a, b) -> SearchHit.BEST_FIRST.compare(lists.get(a).get(next[a]), lists.get(b).get(next[b])));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) heads.add(i);
+        }
+        List<SearchHit> merged = new ArrayList<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int i = heads.poll();
+            merged.add(lists.get(i).get(next[i]++));
+            if (next[i] < lists.get(i).size()) heads.add(i);
+        }
+        return merged;
+    }
+
+    /**
+     * Schreibt die Schnappschüsse aller Kataloge und schließt deren Verbindungspools.
+     */
+    public void close() {
+        for (RecipeManager manager : managers) {
+            manager.saveSnapshot();
+            manager.getCatalog().close();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Durchsucht alle konfigurierten Kataloge von der Kommandozeile.
+     * Aufruf: {@code -Dikladde.catalogs="Privat=a.db;Familie=b.db" CatalogFederation suchbegriffe...}
+     *
+     * @param args Suchbegriffe
+     */
+    public static void main(String[] args) {
+        CatalogFederation federation = new CatalogFederation(configuredCatalogs());
+        long start = System.nanoTime();
+        federation.loadAll();
+        System.out.printf("%d Kataloge geladen in %.0f ms%n", federation.managers.size(), (System.nanoTime() - start) / 1e6);
+        String query = String.join(" ", args);
+        start = System.nanoTime();
+        List<SearchHit> hits = federation.search(query, 20);
+        System.out.printf("%d Treffer für \"%s\" in %.2f ms%n", hits.size(), query, (System.nanoTime() - start) / 1e6);
+        for (SearchHit hit : hits) {
+            System.out.printf("  %4.1f  %-12s %s%n", hit.getScore(), hit.getCatalogName(), hit.getRecipe().getName());
+        }
+        federation.close();
+    }
+}
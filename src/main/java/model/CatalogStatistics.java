@@ -0,0 +1,149 @@
+package model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Kennzahlen eines Katalogs, wie sie in den Summentabellen der Datenbank geführt werden:
+ * Rezepte je Tag, je Bewertung und je Portionszahl sowie Gesamtzahlen. Unveränderlich;
+ * Änderungen einzelner Rezepte ergeben mit {@link #replace} einen neuen Stand.
+ */
+public class CatalogStatistics {
+
+    /** Statistik eines leeren oder nicht lesbaren Katalogs. */
+    public static final CatalogStatistics EMPTY =
+            new CatalogStatistics(0, 0, Map.of(), new int[6], Collections.emptySortedMap());
+
+    private final int recipeCount;
+    private final int ingredientCount;
+    private final Map<Tag, Integer> tagCounts;
+    private final int[] ratingHistogram;
+    private final SortedMap<Integer, Integer> portionCounts;
+
+    /**
+     * @param recipeCount     Anzahl Rezepte
+     * @param ingredientCount Anzahl Zutatenzeilen über alle Rezepte
+     * @param tagCounts       Tag → Anzahl Rezepte mit diesem Tag
+     * @param ratingHistogram Anzahl Rezepte je Bewertung 0 (unbewertet) bis 5
+     * @param portionCounts   Portionszahl → Anzahl Rezepte (0 = ohne Angabe)
+     */
+    public CatalogStatistics(int recipeCount, int ingredientCount, Map<Tag, Integer> tagCounts,
+                             int[] ratingHistogram, SortedMap<Integer, Integer> portionCounts) {
+        this.recipeCount = recipeCount;
+        this.ingredientCount = ingredientCount;
+        this.tagCounts = Collections.unmodifiableMap(tagCounts);
+        this.ratingHistogram = ratingHistogram.clone();
+        this.portionCounts = Collections.unmodifiableSortedMap(portionCounts);
+    }
+
+    public int getRecipeCount() {
+        return recipeCount;
+    }
+
+    public int getIngredientCount() {
+        return ingredientCount;
+    }
+
+    /**
+     * @return durchschnittliche Zahl der Zutaten je Rezept (0 bei leerem Katalog)
+     */
+    public double getAverageIngredients() {
+        return recipeCount == 0 ? 0 : (double) ingredientCount / recipeCount;
+    }
+
+    /**
+     * @return Tag → Anzahl Rezepte; Tags ohne Rezepte fehlen
+     */
+    public Map<Tag, Integer> getTagCounts() {
+        return tagCounts;
+    }
+
+    /**
+     * @param tag Tag
+     * @return Anzahl Rezepte mit diesem Tag
+     */
+    public int getTagCount(Tag tag) {
+        return tagCounts.getOrDefault(tag, 0);
+    }
+
+    /**
+     * @return Anzahl Rezepte je Bewertung, Index 0 (unbewertet) bis 5
+     */
+    public int[] getRatingHistogram() {
+        return ratingHistogram.clone();
+    }
+
+    /**
+     * @return Portionszahl → Anzahl Rezepte, aufsteigend nach Portionen
+     */
+    public SortedMap<Integer, Integer> getPortionCounts() {
+        return portionCounts;
+    }
+
+    /**
+     * Berechnet die Kennzahlen nach dem Speichern oder Löschen eines Rezepts so, wie die Trigger
+     * die Summentabellen fortschreiben, ohne die Datenbank erneut zu lesen.
+     *
+     * @param removed bisherige Fassung des Rezepts (null bei neuen Rezepten)
+     * @param added   neue Fassung (null beim Löschen)
+     * @return neuer Stand
+     */
+    public CatalogStatistics replace(Recipe removed, Recipe added) {
+        Map<Tag, Integer> tags = new LinkedHashMap<>(tagCounts);
+        int[] ratings = ratingHistogram.clone();
+        SortedMap<Integer, Integer> portions = new TreeMap<>(portionCounts);
+        int recipes = recipeCount;
+        int ingredients = ingredientCount;
+        if (removed != null) {
+            recipes--;
+            ingredients -= removed.getIngredients().size();
+            count(removed, tags, ratings, portions, -1);
+        }
+        if (added != null) {
+            recipes++;
+            ingredients += added.getIngredients().size();
+            count(added, tags, ratings, portions, 1);
+        }
+        return new CatalogStatistics(recipes, ingredients, tags, ratings, portions);
+    }
+
+    private static void count(Recipe recipe, Map<Tag, Integer> tags, int[] ratings,
+                              SortedMap<Integer, Integer> portions, int delta) {
+        for (Tag tag : recipe.getTags()) {
+            if (tags.merge(tag, delta, Integer::sum) <= 0) tags.remove(tag);
+        }
+        if (recipe.getRating() >= 0 && recipe.getRating() < ratings.length) {
+            ratings[recipe.getRating()] = Math.max(0, ratings[recipe.getRating()] + delta);
+        }
+        if (portions.merge(recipe.getPortions(), delta, Integer::sum) <= 0) portions.remove(recipe.getPortions());
+    }
+
+    /**
+     * @return mehrzeilige Zusammenfassung mit Bewertungen und Portionszahlen, z. B. für einen Tooltip
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder(toString()).append("\nBewertungen:");
+        for (int i = ratingHistogram.length - 1; i >= 0; i--) {
+            sb.append(i == ratingHistogram.length - 1 ? " " : ", ")
+                    .append(i == 0 ? "unbewertet" : "★".repeat(i)).append(' ').append(ratingHistogram[i]);
+        }
+        sb.append("\nPortionen:");
+        if (portionCounts.isEmpty()) sb.append(" –");
+        boolean first = true;
+        for (Map.Entry<Integer, Integer> e : portionCounts.entrySet()) {
+            sb.append(first ? " " : ", ").append(e.getKey() == 0 ? "ohne Angabe" : e.getKey() + " P.")
+                    .append(' ').append(e.getValue());
+            first = false;
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d Rezepte, %d Zutaten (Ø %.1f), %d Tags",
+                recipeCount, ingredientCount, getAverageIngredients(), tagCounts.size());
+    }
+}
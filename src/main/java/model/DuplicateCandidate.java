@@ -0,0 +1,38 @@
+package model;
+
+/**
+ * Ein mögliches Duplikat-Paar aus der Duplikatsuche.
+ * Beim Zusammenführen bleibt {@link #getKeep()} erhalten, {@link #getDuplicate()} wird entfernt.
+ */
+public class DuplicateCandidate {
+
+    private final Recipe keep;
+    private final Recipe duplicate;
+    private final double score;
+
+    public DuplicateCandidate(Recipe keep, Recipe duplicate, double score) {
+        this.keep = keep;
+        this.duplicate = duplicate;
+        this.score = score;
+    }
+
+    public Recipe getKeep() {
+        return keep;
+    }
+
+    public Recipe getDuplicate() {
+        return duplicate;
+    }
+
+    /**
+     * @return Ähnlichkeit zwischen 0 und 1
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return keep.getName() + " ⇐ " + duplicate.getName() + " (" + Math.round(score * 100) + " %)";
+    }
+}
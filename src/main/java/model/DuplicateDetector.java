@@ -0,0 +1,186 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sucht nahezu doppelte Rezepte, z. B. "Spaghetti Carbonara" und "Spaghetti carbonara (klassisch)".
+ * Kandidatenpaare werden zunächst über den normalisierten Namen und über die MinHash-Bänder
+ * der Zutaten gebildet (Blocking), damit nicht jedes Rezept mit jedem verglichen wird.
+ * Die Kandidaten werden anschließend parallel per Fork-Join bewertet.
+ */
+public class DuplicateDetector {
+
+    /** Ab dieser Ähnlichkeit gilt ein Paar als mögliches Duplikat. */
+    private static final double DEFAULT_THRESHOLD = 0.75;
+    /**
+     * Größere Blöcke (z. B. ein sehr häufiger Name) werden nicht jeder mit jedem verglichen, sondern
+     * nach Name sortiert; jedes Rezept wird dann nur mit seinen nächsten Nachbarn in diesem Fenster verglichen.
+     */
+    private static final int MAX_BLOCK_SIZE = 200;
+    /** Unterhalb dieser Anzahl Paare wird eine Teilaufgabe nicht weiter aufgeteilt. */
+    private static final int SEQUENTIAL_PAIRS = 256;
+
+    private final double threshold;
+
+    public DuplicateDetector() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public DuplicateDetector(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Ermittelt alle möglichen Duplikate. Im Paar wird jeweils das ältere Rezept (kleinere ID) behalten.
+     *
+     * @param recipes alle Rezepte mit Zutaten und Tags
+     * @return Duplikat-Kandidaten, ähnlichste zuerst
+     */
+    public List<DuplicateCandidate> findDuplicates(Collection<Recipe> recipes) {
+        List<Recipe[]> pairs = candidatePairs(recipes);
+        List<DuplicateCandidate> result = ForkJoinPool.commonPool().invoke(new ScoreTask(pairs, 0, pairs.size()));
+        result.sort(Comparator.comparingDouble(DuplicateCandidate::getScore).reversed());
+        return result;
+    }
+
+    /**
+     * Bildet Kandidatenpaare aus Rezepten mit gleichem normalisiertem Namen
+     * oder mit mindestens einem gemeinsamen MinHash-Band. Jedes Rezept wird dabei mit höchstens
+     * {@value #MAX_BLOCK_SIZE} - 1 weiteren Rezepten eines Blocks gepaart.
+     */
+    private List<Recipe[]> candidatePairs(Collection<Recipe> recipes) {
+        Map<String, List<Recipe>> blocks = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            if (recipe.getId() == 0) continue;
+            blocks.computeIfAbsent("n:" + normalizeName(recipe.getName()), k -> new ArrayList<>()).add(recipe);
+
+            Set<String> features = RecipeSimilarity.features(recipe);
+            if (features.isEmpty()) continue;
+            int[] signature = RecipeSimilarity.signature(features);
+            for (int b = 0; b < RecipeSimilarity.BANDS; b++) {
+                String key = "s:" + b + ":" + RecipeSimilarity.bandKey(signature, b);
+                blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(recipe);
+            }
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<Recipe[]> pairs = new ArrayList<>();
+        for (List<Recipe> block : blocks.values()) {
+            if (block.size() < 2) continue;
+            if (block.size() > MAX_BLOCK_SIZE) {
+                // Sortierte Nachbarschaft: Fenster über den nach Name sortierten Block statt aller Paare
+                block.sort(Comparator.comparing((Recipe r) -> normalizeName(r.getName())).thenComparingInt(Recipe::getId));
+            }
+            for (int i = 0; i < block.size(); i++) {
+                int end = Math.min(block.size(), i + MAX_BLOCK_SIZE);
+                for (int j = i + 1; j < end; j++) {
+                    Recipe a = block.get(i);
+                    Recipe b = block.get(j);
+                    Recipe keep = a.getId() < b.getId() ? a : b;
+                    Recipe duplicate = keep == a ? b : a;
+                    long pairKey = ((long) keep.getId() << 32) | duplicate.getId();
+                    if (seen.add(pairKey)) {
+                        pairs.add(new Recipe[]{keep, duplicate});
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Bewertet einen Abschnitt der Kandidatenliste und teilt ihn bei Bedarf weiter auf.
+     */
+    private class ScoreTask extends RecursiveTask<List<DuplicateCandidate>> {
+        private static final long serialVersionUID = 1L;
+        private final List<Recipe[]> pairs;
+        private final int from;
+        private final int to;
+
+        ScoreTask(List<Recipe[]> pairs, int from, int to) {
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<DuplicateCandidate> compute() {
+            if (to - from <= SEQUENTIAL_PAIRS) {
+                List<DuplicateCandidate> result = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    Recipe[] pair = pairs.get(i);
+                    double score = score(pair[0], pair[1]);
+                    if (score >= threshold) {
+                        result.add(new DuplicateCandidate(pair[0], pair[1], score));
+                    }
+                }
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(pairs, from, mid);
+            left.fork();
+            List<DuplicateCandidate> result = new ScoreTask(pairs, mid, to).compute();
+            result.addAll(left.join());
+            return result;
+        }
+    }
+
+    /**
+     * Ähnlichkeit zweier Rezepte: Mittel aus Namensähnlichkeit (Bigramme)
+     * und Übereinstimmung von Zutaten und Tags (Jaccard).
+     */
+    static double score(Recipe a, Recipe b) {
+        double nameScore = bigramDice(normalizeName(a.getName()), normalizeName(b.getName()));
+        Set<String> fa = RecipeSimilarity.features(a);
+        Set<String> fb = RecipeSimilarity.features(b);
+        double featureScore;
+        if (fa.isEmpty() && fb.isEmpty()) {
+            featureScore = 1;
+        } else {
+            Set<String> intersection = new HashSet<>(fa);
+            intersection.retainAll(fb);
+            featureScore = (double) intersection.size() / (fa.size() + fb.size() - intersection.size());
+        }
+        return (nameScore + featureScore) / 2;
+    }
+
+    /**
+     * Normalisiert einen Rezeptnamen: Kleinschreibung, Klammerzusätze entfernt, nur Buchstaben und Ziffern.
+     */
+    static String normalizeName(String name) {
+        if (name == null) return "";
+        return name.toLowerCase(Locale.ROOT)
+                .replaceAll("\\(.*?\\)", " ")
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private static double bigramDice(String a, String b) {
+        if (a.equals(b)) return 1;
+        if (a.length() < 2 || b.length() < 2) return 0;
+        Map<String, Integer> bigrams = new HashMap<>();
+        for (int i = 0; i < a.length() - 1; i++) {
+            bigrams.merge(a.substring(i, i + 2), 1, Integer::sum);
+        }
+        int common = 0;
+        for (int i = 0; i < b.length() - 1; i++) {
+            String bigram = b.substring(i, i + 2);
+            Integer count = bigrams.get(bigram);
+            if (count != null && count > 0) {
+                bigrams.put(bigram, count - 1);
+                common++;
+            }
+        }
+        return 2.0 * common / (a.length() - 1 + b.length() - 1);
+    }
+}
@@ -0,0 +1,273 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Änderungsprotokoll des Rezepteditors mit Rückgängig/Wiederholen.
+ * Jede Änderung wird als {@link EditOperation} sofort an eine Journaldatei angehängt und auf die Platte
+ * geschrieben; beim Speichern folgt eine COMMIT-Zeile. Nach einem Absturz werden beim nächsten Öffnen
+ * alle Operationen nach dem letzten COMMIT eines Rezepts wieder angewendet.
+ *
+ * <p>Jede Zeile trägt eine CRC32-Prüfsumme; eine beim Absturz nur halb geschriebene letzte Zeile
+ * wird dadurch erkannt und ignoriert. Nicht gespeicherte neue Rezepte (ID 0) werden nur im Speicher verfolgt.</p>
+ */
+public class EditJournal {
+
+    private static final String COMMIT = "COMMIT";
+    private static final String NULL = "\\N";
+
+    private final File file;
+    private final Map<Recipe, History> histories = new IdentityHashMap<>();
+
+    /** Änderungen eines Rezepts seit dem letzten Speichern sowie die Stapel für Rückgängig/Wiederholen. */
+    private static class History {
+        final Deque<EditOperation> undo = new ArrayDeque<>();
+        final Deque<EditOperation> redo = new ArrayDeque<>();
+        final List<EditOperation> pending = new ArrayList<>();
+    }
+
+    public EditJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Wendet eine Änderung an, protokolliert sie und verwirft die Wiederholen-Liste.
+     *
+     * @param recipe    geändertes Rezept
+     * @param operation Änderung
+     */
+    public void record(Recipe recipe, EditOperation operation) {
+        operation.applyTo(recipe);
+        History history = history(recipe);
+        history.undo.push(operation);
+        history.redo.clear();
+        history.pending.add(operation);
+        append(recipe, operation);
+    }
+
+    public boolean canUndo(Recipe recipe) {
+        History history = histories.get(recipe);
+        return history != null && !history.undo.isEmpty();
+    }
+
+    public boolean canRedo(Recipe recipe) {
+        History history = histories.get(recipe);
+        return history != null && !history.redo.isEmpty();
+    }
+
+    /**
+     * Macht die letzte Änderung am Rezept rückgängig.
+     *
+     * @param recipe Rezept
+     * @return true, wenn es etwas rückgängig zu machen gab
+     */
+    public boolean undo(Recipe recipe) {
+        if (!canUndo(recipe)) return false;
+        History history = histories.get(recipe);
+        EditOperation operation = history.undo.pop();
+        EditOperation inverse = operation.inverse();
+        inverse.applyTo(recipe);
+        history.redo.push(operation);
+        // Noch nicht gespeicherte Änderung: einfach weglassen statt Änderung + Gegenoperation zu speichern
+        if (!history.pending.isEmpty() && history.pending.get(history.pending.size() - 1) == operation) {
+            history.pending.remove(history.pending.size() - 1);
+        } else {
+            history.pending.add(inverse);
+        }
+        append(recipe, inverse);
+        return true;
+    }
+
+    /**
+     * Wiederholt die zuletzt rückgängig gemachte Änderung.
+     *
+     * @param recipe Rezept
+     * @return true, wenn es etwas zu wiederholen gab
+     */
+    public boolean redo(Recipe recipe) {
+        if (!canRedo(recipe)) return false;
+        History history = histories.get(recipe);
+        EditOperation operation = history.redo.pop();
+        operation.applyTo(recipe);
+        history.undo.push(operation);
+        history.pending.add(operation);
+        append(recipe, operation);
+        return true;
+    }
+
+    /**
+     * @param recipe Rezept
+     * @return Änderungen seit dem letzten Speichern in Reihenfolge
+     */
+    public List<EditOperation> getPending(Recipe recipe) {
+        History history = histories.get(recipe);
+        return history != null ? new ArrayList<>(history.pending) : new ArrayList<>();
+    }
+
+    /**
+     * Markiert alle Änderungen des Rezepts als gespeichert. Gibt es danach keine offenen Änderungen mehr,
+     * wird die Journaldatei geleert. Rückgängig bleibt weiterhin möglich.
+     *
+     * @param recipe gespeichertes Rezept
+     */
+    public void markSaved(Recipe recipe) {
+        History history = histories.get(recipe);
+        if (history != null) history.pending.clear();
+        commit(recipe);
+    }
+
+    /**
+     * Vergisst alle Änderungen eines Rezepts (z. B. nach dem Löschen).
+     *
+     * @param recipe Rezept
+     */
+    public void forget(Recipe recipe) {
+        histories.remove(recipe);
+        commit(recipe);
+    }
+
+    /**
+     * Stellt nicht gespeicherte Änderungen aus der Journaldatei wieder her.
+     * Die Änderungen werden auf die geladenen Rezepte angewendet und bleiben als offen markiert.
+     *
+     * @param recipes geladene Rezepte
+     * @return Anzahl Rezepte mit wiederhergestellten Änderungen
+     */
+    public int recover(List<Recipe> recipes) {
+        if (!file.isFile()) return 0;
+        Map<Integer, List<EditOperation>> open = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = parseLine(line);
+                // Beschädigte Zeile: alles danach stammt aus einem abgebrochenen Schreibvorgang
+                if (fields == null) break;
+                int recipeId = Integer.parseInt(fields[0]);
+                if (COMMIT.equals(fields[1])) {
+                    open.remove(recipeId);
+                } else {
+                    open.computeIfAbsent(recipeId, k -> new ArrayList<>()).add(new EditOperation(
+                            EditOperation.Type.valueOf(fields[1]), Integer.parseInt(fields[2]),
+                            fields[3], fields[4], Double.parseDouble(fields[5]), fields[6]));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+
+        Map<Integer, Recipe> byId = new HashMap<>();
+        for (Recipe r : recipes) {
+            byId.put(r.getId(), r);
+        }
+        int recovered = 0;
+        for (Map.Entry<Integer, List<EditOperation>> e : open.entrySet()) {
+            Recipe recipe = byId.get(e.getKey());
+            if (recipe == null || e.getValue().isEmpty()) continue;
+            History history = history(recipe);
+            try {
+                for (EditOperation operation : e.getValue()) {
+                    operation.applyTo(recipe);
+                    history.undo.push(operation);
+                    history.pending.add(operation);
+                }
+                recovered++;
+            } catch (RuntimeException ex) {
+                // Rezept wurde inzwischen anderweitig geändert; Operationen passen nicht mehr
+                System.out.println("Änderungen für Rezept " + e.getKey() + " nicht wiederherstellbar: " + ex.getMessage());
+            }
+        }
+        return recovered;
+    }
+
+    private History history(Recipe recipe) {
+        return histories.computeIfAbsent(recipe, r -> new History());
+    }
+
+    private void commit(Recipe recipe) {
+        if (recipe.getId() == 0) return;
+        boolean anyPending = histories.entrySet().stream()
+                .anyMatch(e -> e.getKey().getId() != 0 && !e.getValue().pending.isEmpty());
+        if (!anyPending) {
+            file.delete();
+            return;
+        }
+        write(recipe.getId() + "\t" + COMMIT);
+    }
+
+    private void append(Recipe recipe, EditOperation op) {
+        if (recipe.getId() == 0) return;
+        write(recipe.getId() + "\t" + op.getType() + "\t" + op.getIndex() + "\t" + escape(op.getValue()) + "\t"
+                + escape(op.getPrevious()) + "\t" + op.getQuantity() + "\t" + escape(op.getUnit()));
+    }
+
+    /**
+     * Hängt eine Zeile mit Prüfsumme an und wartet, bis sie auf der Platte ist.
+     */
+    private void write(String payload) {
+        CRC32 crc = new CRC32();
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes);
+        String line = Long.toHexString(crc.getValue()) + "\t" + payload + "\n";
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String[] parseLine(String line) {
+        int tab = line.indexOf('\t');
+        if (tab < 0) return null;
+        String payload = line.substring(tab + 1);
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(0, tab))) return null;
+        String[] fields = payload.split("\t", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = unescape(fields[i]);
+        }
+        return fields;
+    }
+
+    private static String escape(String s) {
+        if (s == null) return NULL;
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String s) {
+        if (NULL.equals(s)) return null;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package model;
+
+/**
+ * Einzelne Änderung an einem Rezept im Editor (z. B. "Zutat an Position 3 hinzugefügt").
+ * Jede Operation kennt genug Daten, um sich umzukehren, und kann einzeln gespeichert werden.
+ */
+public class EditOperation {
+
+    public enum Type {
+        SET_NAME, SET_PORTIONS, SET_PHOTO,
+        ADD_INGREDIENT, REMOVE_INGREDIENT,
+        ADD_STEP, REMOVE_STEP,
+        ADD_TAG, REMOVE_TAG
+    }
+
+    private final Type type;
+    private final int index;
+    private final String value;
+    private final String previous;
+    private final double quantity;
+    private final String unit;
+
+    EditOperation(Type type, int index, String value, String previous, double quantity, String unit) {
+        this.type = type;
+        this.index = index;
+        this.value = value;
+        this.previous = previous;
+        this.quantity = quantity;
+        this.unit = unit;
+    }
+
+    public static EditOperation setName(String previous, String name) {
+        return new EditOperation(Type.SET_NAME, -1, name, previous, 0, null);
+    }
+
+    public static EditOperation setPortions(int previous, int portions) {
+        return new EditOperation(Type.SET_PORTIONS, -1, String.valueOf(portions), String.valueOf(previous), 0, null);
+    }
+
+    public static EditOperation setPhoto(String previousPath, String path) {
+        return new EditOperation(Type.SET_PHOTO, -1, path, previousPath, 0, null);
+    }
+
+    public static EditOperation addIngredient(int index, Ingredient ing) {
+        return new EditOperation(Type.ADD_INGREDIENT, index, ing.getName(), null, ing.getQuantity(), ing.getUnit());
+    }
+
+    public static EditOperation removeIngredient(int index, Ingredient ing) {
+        return new EditOperation(Type.REMOVE_INGREDIENT, index, ing.getName(), null, ing.getQuantity(), ing.getUnit());
+    }
+
+    public static EditOperation addStep(int index, String description) {
+        return new EditOperation(Type.ADD_STEP, index, description, null, 0, null);
+    }
+
+    public static EditOperation removeStep(int index, String description) {
+        return new EditOperation(Type.REMOVE_STEP, index, description, null, 0, null);
+    }
+
+    public static EditOperation addTag(int index, String name) {
+        return new EditOperation(Type.ADD_TAG, index, name, null, 0, null);
+    }
+
+    public static EditOperation removeTag(int index, String name) {
+        return new EditOperation(Type.REMOVE_TAG, index, name, null, 0, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getPrevious() {
+        return previous;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return die Operation, die diese rückgängig macht
+     */
+    public EditOperation inverse() {
+        return switch (type) {
+            case SET_NAME, SET_PORTIONS, SET_PHOTO -> new EditOperation(type, index, previous, value, quantity, unit);
+            case ADD_INGREDIENT -> new EditOperation(Type.REMOVE_INGREDIENT, index, value, null, quantity, unit);
+            case REMOVE_INGREDIENT -> new EditOperation(Type.ADD_INGREDIENT, index, value, null, quantity, unit);
+            case ADD_STEP -> new EditOperation(Type.REMOVE_STEP, index, value, null, quantity, unit);
+            case REMOVE_STEP -> new EditOperation(Type.ADD_STEP, index, value, null, quantity, unit);
+            case ADD_TAG -> new EditOperation(Type.REMOVE_TAG, index, value, null, quantity, unit);
+            case REMOVE_TAG -> new EditOperation(Type.ADD_TAG, index, value, null, quantity, unit);
+        };
+    }
+
+    /**
+     * Wendet die Operation auf das Rezept im Speicher an.
+     *
+     * @param recipe zu änderndes Rezept
+     */
+    public void applyTo(Recipe recipe) {
+        switch (type) {
+            case SET_NAME -> recipe.setName(value);
+            case SET_PORTIONS -> recipe.setPortions(Integer.parseInt(value));
+            case SET_PHOTO -> recipe.setPhoto(value != null ? new Photo(value) : null);
+            case ADD_INGREDIENT -> recipe.getIngredients().add(clamp(recipe.getIngredients().size()), new Ingredient(value, quantity, unit));
+            case REMOVE_INGREDIENT -> recipe.getIngredients().remove(index);
+            case ADD_STEP -> recipe.getSteps().add(clamp(recipe.getSteps().size()), new Step(value));
+            case REMOVE_STEP -> recipe.getSteps().remove(index);
+            case ADD_TAG -> recipe.getTags().add(clamp(recipe.getTags().size()), new Tag(value));
+            case REMOVE_TAG -> recipe.getTags().remove(index);
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(0, Math.min(index, size));
+    }
+
+    @Override
+    public String toString() {
+        return type + (index >= 0 ? "@" + index : "") + " " + value;
+    }
+}
@@ -0,0 +1,61 @@
+package model;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ergebnis eines Bildimports: importierte Rezepte, fehlgeschlagene Dateien
+ * und die aufsummierte Zeit je Verarbeitungsschritt.
+ */
+public class ImportResult {
+
+    /**
+     * Verarbeitungsschritte der Import-Pipeline.
+     */
+    public enum Stage { DECODE, PREPROCESS, EXTRACT, PARSE, INSERT }
+
+    private final List<Recipe> imported;
+    private final Map<File, String> failed;
+    private final Map<Stage, Long> stageNanos;
+    private final long totalNanos;
+
+    public ImportResult(List<Recipe> imported, Map<File, String> failed, Map<Stage, Long> stageNanos, long totalNanos) {
+        this.imported = imported;
+        this.failed = failed;
+        this.stageNanos = new EnumMap<>(stageNanos);
+        this.totalNanos = totalNanos;
+    }
+
+    public List<Recipe> getImported() {
+        return imported;
+    }
+
+    public Map<File, String> getFailed() {
+        return failed;
+    }
+
+    /**
+     * @param stage Verarbeitungsschritt
+     * @return Summe der Zeit aller Worker in diesem Schritt in Millisekunden
+     */
+    public long getStageMillis(Stage stage) {
+        return stageNanos.getOrDefault(stage, 0L) / 1_000_000;
+    }
+
+    public long getTotalMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(imported.size()).append(" importiert, ").append(failed.size()).append(" fehlgeschlagen in ")
+                .append(getTotalMillis()).append(" ms");
+        for (Stage stage : Stage.values()) {
+            sb.append(", ").append(stage.name().toLowerCase()).append('=').append(getStageMillis(stage)).append(" ms");
+        }
+        return sb.toString();
+    }
+}
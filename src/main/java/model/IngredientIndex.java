@@ -0,0 +1,167 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Invertierter Index von Zutatennamen auf Rezepte.
+ * Jeder normalisierte Zutatenname verweist auf die IDs aller Rezepte, die ihn enthalten.
+ * Damit lässt sich für vorhandene Zutaten schnell ermitteln, welche Rezepte gekocht werden können,
+ * ohne alle Zutatenlisten durchlaufen zu müssen.
+ */
+public class IngredientIndex {
+
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private final Map<Integer, IndexedRecipe> indexed = new HashMap<>();
+
+    /**
+     * Indexeintrag eines Rezepts: normalisierter Name → angezeigter Name.
+     */
+    private static class IndexedRecipe {
+        final Recipe recipe;
+        final Map<String, String> ingredients;
+
+        IndexedRecipe(Recipe recipe, Map<String, String> ingredients) {
+            this.recipe = recipe;
+            this.ingredients = ingredients;
+        }
+    }
+
+    /**
+     * Baut den Index für alle übergebenen Rezepte neu auf.
+     *
+     * @param recipes alle geladenen Rezepte
+     */
+    public void rebuild(Collection<Recipe> recipes) {
+        postings.clear();
+        indexed.clear();
+        for (Recipe recipe : recipes) {
+            update(recipe);
+        }
+    }
+
+    /**
+     * Nimmt ein Rezept auf bzw. ersetzt seinen bisherigen Eintrag.
+     *
+     * @param recipe gespeichertes Rezept (ID muss gesetzt sein)
+     */
+    public void update(Recipe recipe) {
+        if (recipe.getId() == 0) return;
+        remove(recipe.getId());
+
+        Map<String, String> ingredients = new LinkedHashMap<>();
+        for (Ingredient ing : recipe.getIngredients()) {
+            String key = normalize(ing.getName());
+            if (!key.isEmpty()) {
+                ingredients.putIfAbsent(key, ing.getName().trim());
+            }
+        }
+        for (String key : ingredients.keySet()) {
+            postings.computeIfAbsent(key, k -> new HashSet<>()).add(recipe.getId());
+        }
+        indexed.put(recipe.getId(), new IndexedRecipe(recipe, ingredients));
+    }
+
+    /**
+     * Entfernt ein Rezept aus dem Index.
+     *
+     * @param recipeId ID des gelöschten Rezepts
+     */
+    public void remove(int recipeId) {
+        IndexedRecipe old = indexed.remove(recipeId);
+        if (old == null) return;
+        for (String key : old.ingredients.keySet()) {
+            Set<Integer> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(recipeId);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sucht die Rezepte, für die die meisten Zutaten vorhanden sind.
+     * Sortiert wird nach Abdeckung, danach nach Anzahl fehlender Zutaten.
+     *
+     * @param pantry vorhandene Zutaten (beliebige Schreibweise)
+     * @param limit  maximale Anzahl Ergebnisse
+     * @return die besten Treffer, bester zuerst
+     */
+    public List<PantryMatch> findCookable(Collection<String> pantry, int limit) {
+        Set<String> keys = new HashSet<>();
+        for (String name : pantry) {
+            String key = normalize(name);
+            if (!key.isEmpty()) keys.add(key);
+        }
+
+        Map<Integer, int[]> hits = new HashMap<>();
+        for (String key : keys) {
+            Set<Integer> ids = postings.get(key);
+            if (ids == null) continue;
+            for (Integer id : ids) {
+                hits.computeIfAbsent(id, k -> new int[1])[0]++;
+            }
+        }
+
+        Comparator<PantryMatch> best = Comparator.comparingDouble(PantryMatch::getCoverage).reversed()
+                .thenComparingInt(PantryMatch::getMissingCount)
+                .thenComparing(m -> m.getRecipe().getName(), String.CASE_INSENSITIVE_ORDER);
+
+        // Min-Heap der Größe limit: der schlechteste Treffer liegt oben und wird verdrängt
+        PriorityQueue<PantryMatch> heap = new PriorityQueue<>(best.reversed());
+        for (Map.Entry<Integer, int[]> e : hits.entrySet()) {
+            IndexedRecipe entry = indexed.get(e.getKey());
+            heap.add(new PantryMatch(entry.recipe, e.getValue()[0], entry.ingredients.size(), null));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<PantryMatch> result = new ArrayList<>(heap.size());
+        for (PantryMatch m : heap) {
+            IndexedRecipe entry = indexed.get(m.getRecipe().getId());
+            List<String> missing = new ArrayList<>();
+            for (Map.Entry<String, String> ing : entry.ingredients.entrySet()) {
+                if (!keys.contains(ing.getKey())) {
+                    missing.add(ing.getValue());
+                }
+            }
+            result.add(new PantryMatch(m.getRecipe(), m.getMatchedCount(), m.getTotalCount(), missing));
+        }
+        result.sort(best);
+        return result;
+    }
+
+    /**
+     * Normalisiert einen Zutatennamen, damit z. B. "Zwiebeln" und "zwiebel"
+     * oder "Tomaten" und "Tomate" denselben Schlüssel erhalten.
+     *
+     * @param name Zutatenname
+     * @return normalisierter Schlüssel (leer, wenn kein Name vorhanden)
+     */
+    public static String normalize(String name) {
+        if (name == null) return "";
+        String key = name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        if (key.length() > 4) {
+            if (key.endsWith("en")) {
+                key = key.substring(0, key.length() - 2);
+            } else if (key.endsWith("ln") || key.endsWith("rn")) {
+                key = key.substring(0, key.length() - 1);
+            } else if (key.endsWith("e")) {
+                key = key.substring(0, key.length() - 1);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,54 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Ergebnis der "Was kann ich kochen?"-Suche: ein Rezept mit dem Anteil der
+ * vorhandenen Zutaten und den noch fehlenden Zutaten.
+ */
+public class PantryMatch {
+
+    private final Recipe recipe;
+    private final int matchedCount;
+    private final int totalCount;
+    private final List<String> missingIngredients;
+
+    public PantryMatch(Recipe recipe, int matchedCount, int totalCount, List<String> missingIngredients) {
+        this.recipe = recipe;
+        this.matchedCount = matchedCount;
+        this.totalCount = totalCount;
+        this.missingIngredients = missingIngredients;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    public int getMatchedCount() {
+        return matchedCount;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getMissingCount() {
+        return totalCount - matchedCount;
+    }
+
+    public List<String> getMissingIngredients() {
+        return missingIngredients;
+    }
+
+    /**
+     * @return Anteil der vorhandenen Zutaten zwischen 0 und 1
+     */
+    public double getCoverage() {
+        return totalCount == 0 ? 0 : (double) matchedCount / totalCount;
+    }
+
+    @Override
+    public String toString() {
+        return recipe.getName() + " (" + matchedCount + "/" + totalCount + ")";
+    }
+}
@@ -0,0 +1,232 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Präfixbaum für Vorschläge beim Tippen, gewichtet nach Häufigkeit.
+ *
+ * <p>Begriffe werden ohne Beachtung von Groß-/Kleinschreibung und mehrfachen Leerzeichen abgelegt;
+ * angezeigt wird die zuerst gesehene Schreibweise. Jeder Knoten merkt sich die häufigsten Begriffe
+ * seines Teilbaums, sodass eine Anfrage nur den Präfix ablaufen muss – unabhängig davon, wie viele
+ * Begriffe darunter liegen. Änderungen aktualisieren nur die Knoten auf dem Pfad des Begriffs.</p>
+ *
+ * <p>Alle Methoden sind synchronisiert, damit Vorschläge aus einem Hintergrund-Thread abgefragt werden können.</p>
+ */
+public class PrefixTrie {
+
+    /** So viele Vorschläge hält jeder Knoten vorrätig. */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Node[] NO_NODES = new Node[0];
+    private static final char[] NO_CHARS = new char[0];
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    private static class Node {
+        char[] keys = NO_CHARS;
+        Node[] children = NO_NODES;
+        /** Häufigkeit des Begriffs, der hier endet (0 = kein Begriff). */
+        int count;
+        String display;
+        /** Häufigste Begriffe dieses Teilbaums, häufigster zuerst. */
+        Node[] top = NO_NODES;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = c;
+            newChildren[at] = node;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+
+    /**
+     * Vereinheitlicht einen Begriff als Schlüssel: Kleinbuchstaben, einfache Leerzeichen.
+     *
+     * @param term Begriff in beliebiger Schreibweise
+     * @return Schlüssel (leer, wenn der Begriff leer ist)
+     */
+    public static String key(String term) {
+        return collapse(term).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Entfernt Leerraum am Rand und fasst Leerraum im Begriff zu einem Leerzeichen zusammen.
+     * Läuft beim Aufbau für jedes Vorkommen, daher ohne regulären Ausdruck.
+     */
+    private static String collapse(String term) {
+        if (term == null) return "";
+        String trimmed = term.trim();
+        StringBuilder sb = null;
+        boolean space = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            boolean ws = Character.isWhitespace(c);
+            if (sb == null && (ws && (c != ' ' || space))) {
+                sb = new StringBuilder(trimmed.length()).append(trimmed, 0, i);
+            }
+            if (sb != null && !(ws && space)) {
+                sb.append(ws ? ' ' : c);
+            }
+            space = ws;
+        }
+        return sb != null ? sb.toString() : trimmed;
+    }
+
+    /**
+     * Ändert die Häufigkeit eines Begriffs.
+     *
+     * @param term  Begriff
+     * @param delta Änderung (positiv beim Hinzufügen, negativ beim Entfernen)
+     */
+    public synchronized void add(String term, int delta) {
+        String key = key(term);
+        if (key.isEmpty() || delta == 0) return;
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node next = delta > 0 ? node.addChild(key.charAt(i)) : node.child(key.charAt(i));
+            if (next == null) return;
+            node = next;
+            path[i + 1] = node;
+        }
+        int before = node.count;
+        node.count = Math.max(0, node.count + delta);
+        if (node.count > 0 && node.display == null) {
+            node.display = collapse(term);
+        } else if (node.count == 0) {
+            node.display = null;
+        }
+        if (before == 0 && node.count > 0) size++;
+        if (before > 0 && node.count == 0) size--;
+        for (int i = path.length - 1; i >= 0; i--) {
+            updateTop(path[i]);
+        }
+    }
+
+    /**
+     * Baut den Baum aus einer Liste von Begriffen neu auf. Jedes Vorkommen zählt einmal.
+     * Die Vorschlagslisten werden erst am Ende in einem Durchlauf berechnet.
+     *
+     * @param terms alle Vorkommen
+     */
+    public synchronized void rebuild(Iterable<String> terms) {
+        root.keys = NO_CHARS;
+        root.children = NO_NODES;
+        root.count = 0;
+        root.display = null;
+        root.top = NO_NODES;
+        size = 0;
+        for (String term : terms) {
+            String key = key(term);
+            if (key.isEmpty()) continue;
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.addChild(key.charAt(i));
+            }
+            if (node.count++ == 0) {
+                node.display = collapse(term);
+                size++;
+            }
+        }
+        computeTops(root);
+    }
+
+    /**
+     * Liefert die häufigsten Begriffe, die mit dem Präfix beginnen.
+     *
+     * @param prefix eingegebener Anfang (beliebige Schreibweise)
+     * @param limit  maximale Anzahl (höchstens {@link #MAX_SUGGESTIONS})
+     * @return Begriffe in der gespeicherten Schreibweise, häufigster zuerst
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        String key = key(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) return List.of();
+        int n = Math.min(limit, node.top.length);
+        List<String> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(node.top[i].display);
+        }
+        return result;
+    }
+
+    /**
+     * @param term Begriff in beliebiger Schreibweise
+     * @return Häufigkeit des Begriffs (0 = unbekannt)
+     */
+    public synchronized int count(String term) {
+        String key = key(term);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node != null ? node.count : 0;
+    }
+
+    /**
+     * @return Anzahl verschiedener Begriffe
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private static void computeTops(Node node) {
+        for (Node child : node.children) {
+            computeTops(child);
+        }
+        updateTop(node);
+    }
+
+    /**
+     * Berechnet die Vorschlagsliste eines Knotens aus seinem eigenen Begriff und den Listen der Kinder.
+     */
+    private static void updateTop(Node node) {
+        Node[] best = new Node[MAX_SUGGESTIONS];
+        int n = 0;
+        if (node.count > 0) {
+            best[n++] = node;
+        }
+        for (Node child : node.children) {
+            for (Node candidate : child.top) {
+                // Listen der Kinder sind absteigend sortiert: sobald einer nicht mehr passt, passt keiner mehr
+                if (n == MAX_SUGGESTIONS && !better(candidate, best[n - 1])) break;
+                int at = n == MAX_SUGGESTIONS ? n - 1 : n++;
+                while (at > 0 && better(candidate, best[at - 1])) {
+                    best[at] = best[at - 1];
+                    at--;
+                }
+                best[at] = candidate;
+            }
+        }
+        node.top = n == 0 ? NO_NODES : Arrays.copyOf(best, n);
+    }
+
+    private static boolean better(Node a, Node b) {
+        if (a.count != b.count) return a.count > b.count;
+        return a.display.compareToIgnoreCase(b.display) < 0;
+    }
+}
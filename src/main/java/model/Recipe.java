@@ -5,6 +5,10 @@ import java.util.List;
 
 /**
  * Repräsentiert ein vollständiges Rezept mit Name, Zutaten, Schritten, Tags, Bild und Metadaten.
+ *
+ * <p>Rezepte im Bestand eines {@link RecipeManager} sind eingefroren ({@link #freeze()}) und werden von
+ * mehreren Threads gelesen. Wer ein solches Rezept ändern will, arbeitet auf einer {@link #copy()} und
+ * speichert diese; der Verwalter ersetzt das Rezept im Bestand dann durch eine neue eingefrorene Kopie.</p>
  */
 public class Recipe {
 
@@ -18,6 +22,7 @@ public class Recipe {
     private List<Tag> tags;
     private Photo photo;
     private String modifiedDate;
+    private boolean frozen;
 
     public Recipe() {
         this.name = "";
@@ -41,6 +46,7 @@ public class Recipe {
     }
 
     public void setId(int id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -49,6 +55,7 @@ public class Recipe {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -57,6 +64,7 @@ public class Recipe {
     }
 
     public void setRating(int rating) {
+        checkNotFrozen();
         this.rating = rating;
     }
 
@@ -65,6 +73,7 @@ public class Recipe {
     }
 
     public void setPortions(int portions) {
+        checkNotFrozen();
         this.portions = portions;
     }
 
@@ -73,6 +82,7 @@ public class Recipe {
     }
 
     public void setCreatedDate(String createdDate) {
+        checkNotFrozen();
         this.createdDate = createdDate;
     }
 
@@ -81,6 +91,7 @@ public class Recipe {
     }
 
     public void setIngredients(List<Ingredient> ingredients) {
+        checkNotFrozen();
         this.ingredients = ingredients;
     }
 
@@ -89,6 +100,7 @@ public class Recipe {
     }
 
     public void setSteps(List<Step> steps) {
+        checkNotFrozen();
         this.steps = steps;
     }
 
@@ -97,6 +109,7 @@ public class Recipe {
     }
 
     public void setTags(List<Tag> tags) {
+        checkNotFrozen();
         this.tags = tags;
     }
 
@@ -105,6 +118,7 @@ public class Recipe {
     }
 
     public void setPhoto(Photo photo) {
+        checkNotFrozen();
         this.photo = photo;
     }
 
@@ -113,6 +127,7 @@ public class Recipe {
     }
 
     public void setModifiedDate(String modifiedDate) {
+        checkNotFrozen();
         this.modifiedDate = modifiedDate;
     }
 
@@ -140,6 +155,52 @@ public class Recipe {
         this.tags.remove(tag);
     }
 
+    /**
+     * Erstellt eine veränderbare Kopie mit eigenen Listen. Zutaten, Schritte und Tags selbst werden
+     * nirgends an Ort und Stelle geändert und daher gemeinsam verwendet.
+     *
+     * @return nicht eingefrorene Kopie mit derselben ID
+     */
+    public Recipe copy() {
+        Recipe copy = new Recipe(name);
+        copy.id = id;
+        copy.rating = rating;
+        copy.portions = portions;
+        copy.createdDate = createdDate;
+        copy.ingredients = new ArrayList<>(ingredients);
+        copy.steps = new ArrayList<>(steps);
+        copy.tags = new ArrayList<>(tags);
+        copy.photo = photo;
+        copy.modifiedDate = modifiedDate;
+        return copy;
+    }
+
+    /**
+     * Friert das Rezept ein: die Listen werden unveränderlich, Setter werfen eine {@link IllegalStateException}.
+     * Danach darf das Rezept ohne Sperre von mehreren Threads gelesen werden.
+     *
+     * @return dieses Rezept
+     */
+    public Recipe freeze() {
+        if (!frozen) {
+            ingredients = List.copyOf(ingredients);
+            steps = List.copyOf(steps);
+            tags = List.copyOf(tags);
+            frozen = true;
+        }
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Rezept " + id + " ist eingefroren; Änderungen nur über copy()");
+        }
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * Eine Änderung am Bestand eines {@link RecipeManager}, wie sie an Beobachter gemeldet wird.
+ */
+public class RecipeChange {
+
+    public enum Type {
+        /** Rezept neu im Bestand. */
+        ADDED,
+        /** Rezept gespeichert; das Objekt im Bestand ist dasselbe geblieben. */
+        UPDATED,
+        /** Rezept gelöscht oder zusammengeführt. */
+        REMOVED,
+        /** Bestand komplett neu geladen; {@link #getRecipe()} ist null. */
+        RELOADED
+    }
+
+    private final Type type;
+    private final Recipe recipe;
+
+    public RecipeChange(Type type, Recipe recipe) {
+        this.type = type;
+        this.recipe = recipe;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    @Override
+    public String toString() {
+        return type + (recipe != null ? " " + recipe.getId() : "");
+    }
+}
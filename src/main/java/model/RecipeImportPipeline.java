@@ -0,0 +1,266 @@
+package model;
+
+import model.ImportResult.Stage;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Importiert ganze Ordner mit Rezeptbildern (Scans, Screenshots).
+ * Jedes Bild durchläuft die Schritte Dekodieren, Vorverarbeiten (Verkleinern, Graustufen),
+ * Texterkennung über einen austauschbaren {@link TextExtractor} und Umwandeln in ein {@link Recipe}.
+ * Die Bilder werden auf einem begrenzten Thread-Pool verarbeitet; ein einzelner Schreib-Thread
+ * speichert die Rezepte blockweise über den {@link RecipeManager}, sodass sie sofort in Bestand, Indizes
+ * und Oberfläche erscheinen. Volle Warteschlangen bremsen die vorgelagerten Schritte (Backpressure).
+ */
+public class RecipeImportPipeline {
+
+    private static final int MAX_IMAGE_SIZE = 1600;
+    private static final String[] IMAGE_EXTENSIONS = {".png", ".jpg", ".jpeg", ".gif", ".bmp"};
+    private static final Parsed END_OF_INPUT = new Parsed(null, null);
+    private static final long HANDOFF_POLL_MILLIS = 100;
+
+    private final TextExtractor extractor;
+    private final int workers;
+    private final int batchSize;
+    private final RecipeManager recipeManager;
+    private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+
+    /**
+     * Pipeline nur zum Erkennen einzelner Bilder ({@link #recognize}); zum Importieren ganzer Ordner
+     * wird ein {@link RecipeManager} gebraucht.
+     *
+     * @param extractor Texterkennung
+     */
+    public RecipeImportPipeline(TextExtractor extractor) {
+        this(extractor, 1, 1, null);
+    }
+
+    /**
+     * @param extractor     Texterkennung
+     * @param recipeManager Verwalter des Katalogs, in den importiert wird
+     */
+    public RecipeImportPipeline(TextExtractor extractor, RecipeManager recipeManager) {
+        this(extractor, Runtime.getRuntime().availableProcessors(), 50, recipeManager);
+    }
+
+    /**
+     * @param extractor     Texterkennung
+     * @param workers       Anzahl paralleler Worker
+     * @param batchSize     Anzahl Rezepte pro Schreib-Transaktion
+     * @param recipeManager Verwalter des Katalogs, in den importiert wird
+     */
+    public RecipeImportPipeline(TextExtractor extractor, int workers, int batchSize, RecipeManager recipeManager) {
+        this.extractor = extractor;
+        this.recipeManager = recipeManager;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        for (Stage stage : Stage.values()) {
+            stageNanos.put(stage, new LongAdder());
+        }
+    }
+
+    /**
+     * Erkennt ein einzelnes Bild, ohne es zu speichern.
+     *
+     * @param imageFile Bilddatei
+     * @return erkanntes Rezept (nicht gespeichert)
+     * @throws IOException falls das Bild nicht gelesen werden kann
+     */
+    public Recipe recognize(File imageFile) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage image = ImageIO.read(imageFile);
+        if (image == null) {
+            throw new IOException("Unbekanntes Bildformat");
+        }
+        start = record(Stage.DECODE, start);
+
+        BufferedImage prepared = preprocess(image);
+        start = record(Stage.PREPROCESS, start);
+
+        String text = extractor.extractText(prepared, imageFile);
+        start = record(Stage.EXTRACT, start);
+
+        Recipe recipe = RecipeTextParser.parse(text, SidecarTextExtractor.baseName(imageFile));
+        recipe.setCreatedDate(LocalDate.now().toString());
+        record(Stage.PARSE, start);
+        return recipe;
+    }
+
+    /**
+     * Importiert alle Bilder eines Ordners und speichert die erkannten Rezepte.
+     *
+     * @param folder Ordner mit Rezeptbildern
+     * @return Ergebnis mit importierten Rezepten, Fehlern und Zeiten je Schritt
+     * @throws IllegalStateException falls die Pipeline ohne {@link RecipeManager} erzeugt wurde
+     */
+    public ImportResult importFolder(File folder) {
+        if (recipeManager == null) {
+            throw new IllegalStateException("Kein RecipeManager zum Speichern angegeben");
+        }
+        long start = System.nanoTime();
+        File[] files = folder.listFiles((dir, name) -> isImage(name));
+        if (files == null) files = new File[0];
+        Arrays.sort(files);
+
+        Map<File, String> failed = new ConcurrentHashMap<>();
+        List<Recipe> imported = Collections.synchronizedList(new ArrayList<>());
+        BlockingQueue<Parsed> parsed = new ArrayBlockingQueue<>(batchSize * 2);
+
+        Thread writer = new Thread(() -> writeBatches(parsed, imported, failed), "recipe-import-writer");
+        writer.start();
+
+        // Begrenzte Warteschlange + CallerRunsPolicy: ist der Pool ausgelastet, arbeitet der Aufrufer mit
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (File file : files) {
+                pool.execute(() -> {
+                    try {
+                        handOff(parsed, new Parsed(file, recognize(file)), writer);
+                    } catch (IOException | RuntimeException e) {
+                        failed.put(file, String.valueOf(e.getMessage()));
+                    } catch (InterruptedException e) {
+                        failed.put(file, "Import abgebrochen");
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            handOff(parsed, END_OF_INPUT, writer);
+            writer.join();
+        } catch (IllegalStateException e) {
+            // Schreib-Thread beendet; was noch in der Warteschlange liegt, wird unten als fehlgeschlagen gemeldet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+        }
+        for (Parsed left; (left = parsed.poll()) != null; ) {
+            if (left != END_OF_INPUT) failed.put(left.file, "Nicht gespeichert");
+        }
+
+        Map<Stage, Long> totals = new EnumMap<>(Stage.class);
+        stageNanos.forEach((stage, adder) -> totals.put(stage, adder.sumThenReset()));
+        return new ImportResult(new ArrayList<>(imported), failed, totals, System.nanoTime() - start);
+    }
+
+    /**
+     * Übergibt ein Ergebnis an den Schreib-Thread. Wartet, solange die Warteschlange voll ist,
+     * gibt aber auf, sobald der Schreib-Thread nicht mehr läuft.
+     *
+     * @throws IllegalStateException falls der Schreib-Thread beendet ist
+     */
+    private static void handOff(BlockingQueue<Parsed> parsed, Parsed item, Thread writer) throws InterruptedException {
+        while (!parsed.offer(item, HANDOFF_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("Schreib-Thread beendet");
+            }
+        }
+    }
+
+    /**
+     * Schreib-Thread: sammelt erkannte Rezepte und speichert sie blockweise in einer Transaktion.
+     * Schlägt ein Block fehl, werden alle seine Dateien als fehlgeschlagen gemeldet.
+     */
+    private void writeBatches(BlockingQueue<Parsed> parsed, List<Recipe> imported, Map<File, String> failed) {
+        List<Parsed> batch = new ArrayList<>(batchSize);
+        boolean done = false;
+        try {
+            while (!done) {
+                batch.add(parsed.take());
+                parsed.drainTo(batch, batchSize - batch.size());
+                done = batch.remove(END_OF_INPUT);
+                if (!batch.isEmpty()) {
+                    long start = System.nanoTime();
+                    List<Recipe> recipes = new ArrayList<>(batch.size());
+                    batch.forEach(p -> recipes.add(p.recipe));
+                    String error = null;
+                    try {
+                        if (recipeManager.importRecipes(recipes)) {
+                            imported.addAll(recipes);
+                        } else {
+                            error = "Speichern fehlgeschlagen";
+                        }
+                    } catch (RuntimeException e) {
+                        error = String.valueOf(e.getMessage());
+                    }
+                    if (error != null) {
+                        for (Parsed p : batch) {
+                            failed.put(p.file, error);
+                        }
+                    }
+                    record(Stage.INSERT, start);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            batch.forEach(p -> failed.put(p.file, "Import abgebrochen"));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Verkleinert das Bild auf höchstens {@value #MAX_IMAGE_SIZE} Pixel Kantenlänge und wandelt es in Graustufen um.
+     */
+    static BufferedImage preprocess(BufferedImage image) {
+        double scale = Math.min(1.0, (double) MAX_IMAGE_SIZE / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return gray;
+    }
+
+    private long record(Stage stage, long start) {
+        long now = System.nanoTime();
+        stageNanos.get(stage).add(now - start);
+        return now;
+    }
+
+    /**
+     * Erkanntes, noch nicht gespeichertes Rezept mit der Bilddatei, aus der es stammt.
+     */
+    private static final class Parsed {
+        final File file;
+        final Recipe recipe;
+
+        Parsed(File file, Recipe recipe) {
+            this.file = file;
+            this.recipe = recipe;
+        }
+    }
+
+    private static boolean isImage(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String ext : IMAGE_EXTENSIONS) {
+            if (lower.endsWith(ext)) return true;
+        }
+        return false;
+    }
+}
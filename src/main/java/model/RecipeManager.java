@@ -1,56 +1,511 @@
 package model;
 
+import java.io.File;
 import java.time.LocalDate;
+import database.Catalog;
+import database.CatalogSnapshot;
 import database.RecipeDAO;
+import database.SignatureDAO;
+import database.StatisticsDAO;
+import monitoring.LoadDataEvent;
+import monitoring.Metrics;
+import monitoring.Timer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * Verwalter für eine Sammlung von Rezepten.
  * Ermöglicht das Laden, Speichern und Löschen über das zugrundeliegende DAO.
+ * Jeder Verwalter gehört zu genau einem {@link Catalog} und hält dessen Indizes im Speicher.
+ *
+ * <p>Der Verwalter darf von mehreren Threads gleichzeitig benutzt werden. Die Rezeptliste ist ein
+ * unveränderlicher Schnappschuss, der bei jeder Änderung ersetzt wird ("copy on write"); auch die Rezepte
+ * darin sind eingefroren ({@link Recipe#freeze()}). Gespeichert werden Kopien, an ihrer Stelle landet eine
+ * neue eingefrorene Kopie im Bestand. Leser brauchen daher keine Sperre. Schreibende Methoden laufen
+ * nacheinander, die Indizes werden unter einer Lese-/Schreibsperre geändert bzw. abgefragt. Beobachter
+ * erhalten Änderungen gesammelt über ihren eigenen Executor, in der Oberfläche {@code Platform::runLater}.</p>
  */
 public class RecipeManager {
 
-    private List<Recipe> recipes;
-    private final RecipeDAO recipeDAO = new RecipeDAO();
+    private final Catalog catalog;
+    private final File snapshotFile;
+    private volatile List<Recipe> recipes = List.of();
+    /** Reiht schreibende Methoden (inklusive Datenbankzugriff) hintereinander. */
+    private final Object writeLock = new Object();
+    /** Schützt die Indizes im Speicher. */
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final RecipeDAO recipeDAO;
+    private final IngredientIndex ingredientIndex = new IngredientIndex();
+    private final SuggestionIndex suggestions = new SuggestionIndex();
+    private final RecipeSimilarity similarity;
+    private final StatisticsDAO statisticsDAO;
+    /** Kennzahlen aus den Summentabellen, nach jeder Änderung neu gelesen. */
+    private volatile CatalogStatistics statistics = CatalogStatistics.EMPTY;
+    /** Generation der Datenbank, der der Bestand im Speicher entspricht (-1 = unbekannt). */
+    private volatile long knownGeneration = -1;
+
+    /**
+     * Ein Beobachter mit seinen noch nicht zugestellten Änderungen.
+     * Solange eine Zustellung aussteht, werden neue Änderungen nur angehängt.
+     */
+    private static class Subscription {
+        final Consumer<List<RecipeChange>> listener;
+        final Executor executor;
+        final Queue<RecipeChange> pending = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Subscription(Consumer<List<RecipeChange>> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void offer(RecipeChange change) {
+            pending.add(change);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            scheduled.set(false);
+            List<RecipeChange> batch = new ArrayList<>();
+            for (RecipeChange change; (change = pending.poll()) != null; ) {
+                batch.add(change);
+            }
+            if (!batch.isEmpty()) {
+                listener.accept(batch);
+            }
+        }
+    }
 
     public RecipeManager() {
-        this.recipes = new ArrayList<>();
+        this(Catalog.getDefault());
+    }
+
+    /**
+     * @param catalog Katalog, dessen Rezepte verwaltet werden
+     */
+    public RecipeManager(Catalog catalog) {
+        this.catalog = catalog;
+        this.snapshotFile = catalog.getSnapshotFile();
+        this.recipeDAO = new RecipeDAO(catalog);
+        this.similarity = new RecipeSimilarity(new SignatureDAO(catalog));
+        this.statisticsDAO = new StatisticsDAO(catalog);
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
     }
 
+    /**
+     * @return unveränderlicher Schnappschuss des aktuellen Bestands
+     */
     public List<Recipe> getRecipes() {
         return recipes;
     }
 
-    public void addRecipe(Recipe recipe) {
-        recipes.add(recipe);
+    /**
+     * Meldet künftige Änderungen am Bestand. Änderungen, die eintreffen, während eine Zustellung
+     * noch aussteht, werden zusammengefasst und mit dieser zugestellt.
+     *
+     * @param listener erhält die Änderungen in der Reihenfolge, in der sie geschehen sind
+     * @param executor führt die Zustellung aus (z. B. {@code Platform::runLater})
+     */
+    public void addChangeListener(Consumer<List<RecipeChange>> listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
     }
 
     public void removeRecipe(Recipe recipe) {
-        recipeDAO.deleteRecipe(recipe.getId());
-        recipes.remove(recipe);
+        synchronized (writeLock) {
+            recipeDAO.deleteRecipe(recipe.getId());
+            Recipe previous = published(recipe);
+            indexLock.writeLock().lock();
+            try {
+                ingredientIndex.remove(recipe.getId());
+                suggestions.remove(recipe.getId());
+                similarity.remove(recipe.getId());
+                recipes = without(recipes, recipe);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            knownGeneration = recipeDAO.getGeneration();
+            if (previous != null) {
+                statistics = statistics.replace(previous, null);
+            }
+            publish(RecipeChange.Type.REMOVED, recipe);
+        }
     }
 
+    /**
+     * Lädt alle Rezepte. Passt der Schnappschuss vom letzten Beenden noch zur Datenbank,
+     * wird er verwendet; sonst wird aus der Datenbank geladen.
+     */
     public void loadData() {
-        recipes = recipeDAO.getAllRecipes();
-        for (Recipe r : recipes) {
-            r.setIngredients(recipeDAO.getIngredientsForRecipe(r.getId()));
-            r.setSteps(recipeDAO.getStepsForRecipe(r.getId()));
-            r.setTags(recipeDAO.getTagsForRecipe(r.getId()));
+        synchronized (writeLock) {
+            LoadDataEvent event = new LoadDataEvent();
+            event.begin();
+            List<Recipe> loaded;
+            try (Timer.Sample sample = Metrics.time("manager.loadData")) {
+                long generation = recipeDAO.getGeneration();
+                CatalogSnapshot.Contents snapshot = CatalogSnapshot.read(snapshotFile, generation, catalog);
+                if (snapshot != null) {
+                    Metrics.counter("manager.snapshotHits").increment();
+                    loaded = snapshot.getRecipes();
+                } else {
+                    loaded = recipeDAO.getAllRecipes();
+                    for (Recipe r : loaded) {
+                        r.setIngredients(recipeDAO.getIngredientsForRecipe(r.getId()));
+                        r.setSteps(recipeDAO.getStepsForRecipe(r.getId()));
+                        r.setTags(recipeDAO.getTagsForRecipe(r.getId()));
+                    }
+                }
+                loaded.forEach(Recipe::freeze);
+                loaded = List.copyOf(loaded);
+                // Erst jetzt sperren: Leser warten nur auf den Neuaufbau der Indizes, nicht auf die Datenbank
+                indexLock.writeLock().lock();
+                try {
+                    ingredientIndex.rebuild(loaded);
+                    suggestions.rebuild(loaded);
+                    if (snapshot != null) {
+                        similarity.rebuild(loaded, snapshot.getSignatures());
+                    } else {
+                        similarity.rebuild(loaded);
+                    }
+                    recipes = loaded;
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+                knownGeneration = generation;
+                statistics = statisticsDAO.load();
+            }
+            event.recipeCount = loaded.size();
+            event.commit();
+            publish(RecipeChange.Type.RELOADED, null);
         }
     }
 
+    /**
+     * Gibt alle Tags des Katalogs aus dem Tag-Verzeichnis zurück; die Datenbank wird nur beim ersten Aufruf gelesen.
+     *
+     * @return alphabetisch sortierte Tags
+     */
+    public List<Tag> getAllTags() {
+        if (!catalog.getTagRegistry().isLoaded()) {
+            return recipeDAO.getAllTags();
+        }
+        return catalog.getTagRegistry().getAll();
+    }
+
+    /**
+     * @return Vorschläge für Zutaten, Einheiten und Tags im Editor
+     */
+    public SuggestionIndex getSuggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Kennzahlen des Katalogs (Rezepte je Tag, Bewertung und Portionen). Sie werden beim Laden aus den
+     * Summentabellen gelesen, die die Datenbank bei jeder Änderung fortschreibt; Änderungen über diesen
+     * Verwalter werden danach im Speicher nachgeführt, ohne die Tabellen erneut zu lesen.
+     *
+     * @return Kennzahlen zum Stand der letzten Änderung
+     */
+    public CatalogStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Schreibt den aktuellen Bestand als Schnappschuss für den nächsten Start.
+     * Wurde die Datenbank seit dem Laden von außen geändert, wird kein Schnappschuss geschrieben.
+     */
+    public void saveSnapshot() {
+        synchronized (writeLock) {
+            if (knownGeneration < 0 || recipeDAO.getGeneration() != knownGeneration) {
+                return;
+            }
+            try (Timer.Sample sample = Metrics.time("manager.saveSnapshot")) {
+                CatalogSnapshot.write(snapshotFile, knownGeneration, recipes, similarity.exportSignatures());
+            }
+        }
+    }
+
+    /**
+     * Speichert ein Rezept vollständig und ersetzt es im Bestand durch eine eingefrorene Kopie.
+     *
+     * @param recipe neues Rezept oder bearbeitete Kopie eines Rezepts aus dem Bestand (nicht eingefroren);
+     *               neue Rezepte erhalten dabei ihre ID
+     */
     public void saveRecipe(Recipe recipe) {
-        recipe.setModifiedDate(LocalDate.now().toString());
-        if (recipe.getId() == 0) {
-            recipeDAO.insertRecipe(recipe);
-            recipes.add(recipe);
-        } else {
-            recipeDAO.updateRecipe(recipe);
-            int index = recipes.indexOf(recipe);
+        synchronized (writeLock) {
+            recipe.setModifiedDate(LocalDate.now().toString());
+            if (recipe.getId() == 0) {
+                recipeDAO.insertRecipe(recipe);
+            } else {
+                recipeDAO.updateRecipe(recipe);
+            }
+            RecipeChange.Type type = recipes.contains(recipe) ? RecipeChange.Type.UPDATED : RecipeChange.Type.ADDED;
+            knownGeneration = recipeDAO.getGeneration();
+            Recipe previous = published(recipe);
+            Recipe published = replace(recipe);
+            statistics = statistics.replace(previous, published);
+            publish(type, published);
+        }
+    }
+
+    /**
+     * Speichert neue Rezepte in einer gemeinsamen Transaktion (z. B. beim Ordnerimport) und nimmt
+     * eingefrorene Kopien davon in Bestand und Indizes auf. Schlägt der Block fehl, bleibt der Bestand unverändert.
+     *
+     * @param imported neue Rezepte; ihre IDs werden beim Speichern gesetzt
+     * @return true, wenn alle Rezepte gespeichert wurden
+     */
+    public boolean importRecipes(List<Recipe> imported) {
+        synchronized (writeLock) {
+            if (!recipeDAO.insertRecipes(imported)) {
+                return false;
+            }
+            knownGeneration = recipeDAO.getGeneration();
+            List<Recipe> published = new ArrayList<>(imported.size());
+            indexLock.writeLock().lock();
+            try {
+                for (Recipe recipe : imported) {
+                    Recipe copy = recipe.copy().freeze();
+                    ingredientIndex.update(copy);
+                    suggestions.update(copy);
+                    similarity.update(copy);
+                    published.add(copy);
+                }
+                List<Recipe> next = new ArrayList<>(recipes);
+                next.addAll(published);
+                recipes = List.copyOf(next);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            for (Recipe recipe : published) {
+                statistics = statistics.replace(null, recipe);
+                publish(RecipeChange.Type.ADDED, recipe);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Speichert nur die Änderungen aus dem Editor. Neue Rezepte und Änderungen, die sich nicht
+     * einzeln speichern lassen, werden wie bisher vollständig geschrieben.
+     *
+     * @param recipe     bearbeitete Kopie (Änderungen sind bereits angewendet)
+     * @param operations Änderungen seit dem letzten Speichern
+     */
+    public void saveEdits(Recipe recipe, List<EditOperation> operations) {
+        synchronized (writeLock) {
+            if (recipe.getId() == 0 || !recipeDAO.applyEdits(recipe.getId(), operations)) {
+                saveRecipe(recipe);
+                return;
+            }
+            recipe.setModifiedDate(LocalDate.now().toString());
+            recipeDAO.resolveTags(recipe);
+            knownGeneration = recipeDAO.getGeneration();
+            Recipe previous = published(recipe);
+            Recipe published = replace(recipe);
+            statistics = statistics.replace(previous, published);
+            publish(RecipeChange.Type.UPDATED, published);
+        }
+    }
+
+    /**
+     * Nimmt eine eingefrorene Kopie des gespeicherten Rezepts anstelle des bisherigen (gleiche ID)
+     * in Bestand und Indizes auf. Muss unter {@code writeLock} aufgerufen werden.
+     *
+     * @return die Kopie im Bestand
+     */
+    private Recipe replace(Recipe recipe) {
+        Recipe published = recipe.copy().freeze();
+        indexLock.writeLock().lock();
+        try {
+            ingredientIndex.update(published);
+            suggestions.update(published);
+            similarity.update(published);
+            List<Recipe> next = new ArrayList<>(recipes);
+            int index = next.indexOf(published);
             if (index >= 0) {
-                recipes.set(index, recipe);
+                next.set(index, published);
+            } else {
+                next.add(published);
+            }
+            recipes = List.copyOf(next);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+        return published;
+    }
+
+    /**
+     * Sucht Rezepte, die sich mit den vorhandenen Zutaten kochen lassen.
+     *
+     * @param pantry vorhandene Zutaten
+     * @param limit  maximale Anzahl Ergebnisse
+     * @return Treffer, sortiert nach Abdeckung und fehlenden Zutaten
+     */
+    public List<PantryMatch> findCookable(Collection<String> pantry, int limit) {
+        indexLock.readLock().lock();
+        try {
+            return ingredientIndex.findCookable(pantry, limit);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sucht Rezepte, deren Name, Tags oder Zutaten alle Suchbegriffe enthalten, und bewertet die Treffer:
+     * Treffer im Namen zählen mehr als Tags, Tags mehr als Zutaten; ein Wortanfang im Namen zählt am meisten.
+     *
+     * @param query Suchbegriffe, durch Leerzeichen getrennt
+     * @param limit maximale Anzahl Ergebnisse
+     * @return Treffer, bester zuerst (bei gleicher Bewertung nach Sternen und Name)
+     */
+    public List<SearchHit> search(String query, int limit) {
+        String[] terms = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        List<SearchHit> hits = new ArrayList<>();
+        if (terms[0].isEmpty()) return hits;
+        for (Recipe r : recipes) {
+            double score = score(r, terms);
+            if (score > 0) {
+                hits.add(new SearchHit(catalog.getName(), r, score));
+            }
+        }
+        hits.sort(SearchHit.BEST_FIRST);
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private static double score(Recipe r, String[] terms) {
+        String name = r.getName() != null ? r.getName().toLowerCase(Locale.ROOT) : "";
+        double score = 0;
+        for (String term : terms) {
+            double best = 0;
+            int pos = name.indexOf(term);
+            if (pos == 0 || (pos > 0 && !Character.isLetterOrDigit(name.charAt(pos - 1)))) {
+                best = 4;
+            } else if (pos > 0) {
+                best = 3;
+            }
+            for (Tag tag : r.getTags()) {
+                if (best >= 2) break;
+                if (tag.getName().toLowerCase(Locale.ROOT).contains(term)) best = 2;
+            }
+            for (Ingredient ing : r.getIngredients()) {
+                if (best >= 1) break;
+                if (ing.getName() != null && ing.getName().toLowerCase(Locale.ROOT).contains(term)) best = 1;
             }
+            if (best == 0) return 0;
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Sucht Rezepte mit ähnlichen Zutaten und Tags.
+     *
+     * @param recipe Ausgangsrezept
+     * @param limit  maximale Anzahl Ergebnisse
+     * @return ähnliche Rezepte, ähnlichstes zuerst
+     */
+    public List<Recipe> findSimilar(Recipe recipe, int limit) {
+        indexLock.readLock().lock();
+        try {
+            return similarity.findSimilar(recipe, limit);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sucht mögliche Duplikate im gesamten Bestand.
+     *
+     * @return Liste zum Prüfen, ähnlichste Paare zuerst
+     */
+    public List<DuplicateCandidate> findDuplicates() {
+        return new DuplicateDetector().findDuplicates(recipes);
+    }
+
+    /**
+     * Führt ein Duplikat-Paar zusammen: Tags und ggf. Foto wandern zum verbleibenden Rezept,
+     * das Duplikat wird gelöscht.
+     *
+     * @param candidate geprüftes Duplikat-Paar
+     * @return true, wenn das Zusammenführen erfolgreich war
+     */
+    public boolean mergeRecipes(DuplicateCandidate candidate) {
+        Recipe duplicate = candidate.getDuplicate();
+        synchronized (writeLock) {
+            if (!recipeDAO.mergeRecipes(candidate.getKeep().getId(), duplicate.getId())) {
+                return false;
+            }
+            Recipe merged = candidate.getKeep().copy();
+            for (Tag tag : duplicate.getTags()) {
+                if (!merged.getTags().contains(tag)) {
+                    merged.addTag(tag);
+                }
+            }
+            if (merged.getPhoto() == null) {
+                merged.setPhoto(duplicate.getPhoto());
+            }
+            knownGeneration = recipeDAO.getGeneration();
+            Recipe previousDuplicate = published(duplicate);
+            Recipe previousKeep = published(merged);
+            indexLock.writeLock().lock();
+            try {
+                recipes = without(recipes, duplicate);
+                ingredientIndex.remove(duplicate.getId());
+                suggestions.remove(duplicate.getId());
+                similarity.remove(duplicate.getId());
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            Recipe published = replace(merged);
+            if (previousDuplicate != null) {
+                statistics = statistics.replace(previousDuplicate, null);
+            }
+            statistics = statistics.replace(previousKeep, published);
+            publish(RecipeChange.Type.REMOVED, duplicate);
+            publish(RecipeChange.Type.UPDATED, published);
+        }
+        return true;
+    }
+
+    /**
+     * @return die Fassung des Rezepts (gleiche ID) im Bestand oder null, falls es dort nicht vorkommt
+     */
+    private Recipe published(Recipe recipe) {
+        List<Recipe> current = recipes;
+        int index = current.indexOf(recipe);
+        return index >= 0 ? current.get(index) : null;
+    }
+
+    private static List<Recipe> without(List<Recipe> list, Recipe recipe) {
+        List<Recipe> next = new ArrayList<>(list);
+        next.remove(recipe);
+        return List.copyOf(next);
+    }
+
+    /**
+     * Muss unter {@code writeLock} aufgerufen werden, damit Beobachter die Änderungen in der richtigen Reihenfolge sehen.
+     */
+    private void publish(RecipeChange.Type type, Recipe recipe) {
+        if (subscriptions.isEmpty()) return;
+        RecipeChange change = new RecipeChange(type, recipe);
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
         }
     }
-}
\ No newline at end of file
+}
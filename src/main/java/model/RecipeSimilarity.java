@@ -0,0 +1,308 @@
+package model;
+
+import database.SignatureDAO;
+import database.SignatureDAO.StoredSignature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Lokale Ähnlichkeitssuche für Rezepte ("Mehr davon").
+ * Für jedes Rezept wird aus seinen Zutaten und Tags eine MinHash-Signatur berechnet.
+ * Die Signaturen werden in Bänder zerlegt und per Locality-Sensitive Hashing in Buckets abgelegt,
+ * sodass für ein Rezept nur Kandidaten aus denselben Buckets verglichen werden müssen.
+ *
+ * <p>Mit 16 Bändern zu je 4 Zeilen landen zwei Rezepte erst ab etwa 50 % gemeinsamer Merkmale
+ * ((1/16)^(1/4)) wahrscheinlich im selben Bucket. Häufige Merkmale wie Salz oder Zwiebel allein
+ * machen ein Rezept daher nicht zum Kandidaten, und die Kandidatenmenge wächst nicht mit dem Katalog.</p>
+ */
+public class RecipeSimilarity {
+
+    static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int NUM_HASHES = BANDS * ROWS;
+    private static final long PRIME = 2147483647L;
+
+    /** Feste Koeffizienten, damit gespeicherte Signaturen über Programmstarts gültig bleiben. */
+    private static final long[] A = new long[NUM_HASHES];
+    private static final long[] B = new long[NUM_HASHES];
+
+    static {
+        Random random = new Random(0x1C1ADDEL);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            A[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            B[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    private final SignatureDAO signatureDAO;
+    private final Map<Integer, Recipe> recipes = new HashMap<>();
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+    private final Map<Integer, Long> featureHashes = new HashMap<>();
+    private final List<Map<Long, Set<Integer>>> buckets = new ArrayList<>();
+
+    public RecipeSimilarity() {
+        this(new SignatureDAO());
+    }
+
+    /**
+     * @param signatureDAO Ablage der Signaturen (je Katalog)
+     */
+    public RecipeSimilarity(SignatureDAO signatureDAO) {
+        this.signatureDAO = signatureDAO;
+        for (int b = 0; b < BANDS; b++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Baut den Index für alle Rezepte neu auf. Gespeicherte Signaturen werden übernommen,
+     * sofern sich Zutaten und Tags seitdem nicht geändert haben; alle anderen werden neu
+     * berechnet und gespeichert.
+     *
+     * @param all alle geladenen Rezepte
+     */
+    public void rebuild(Collection<Recipe> all) {
+        rebuild(all, signatureDAO.getAllSignatures());
+    }
+
+    /**
+     * Baut den Index mit bereits geladenen Signaturen neu auf (z. B. aus dem Katalog-Schnappschuss).
+     *
+     * @param all    alle geladenen Rezepte
+     * @param stored Rezept-ID → gespeicherte Signatur
+     */
+    public void rebuild(Collection<Recipe> all, Map<Integer, StoredSignature> stored) {
+        recipes.clear();
+        signatures.clear();
+        featureHashes.clear();
+        buckets.forEach(Map::clear);
+
+        Map<Integer, StoredSignature> changed = new HashMap<>();
+        for (Recipe recipe : all) {
+            if (recipe.getId() == 0) continue;
+            Set<String> features = features(recipe);
+            long featuresHash = featuresHash(features);
+            StoredSignature existing = stored.get(recipe.getId());
+            int[] signature;
+            if (existing != null && existing.getFeaturesHash() == featuresHash
+                    && existing.getSignature().length == NUM_HASHES) {
+                signature = existing.getSignature();
+            } else {
+                signature = signature(features);
+                changed.put(recipe.getId(), new StoredSignature(featuresHash, signature));
+            }
+            index(recipe, featuresHash, signature, !features.isEmpty());
+        }
+        signatureDAO.saveSignatures(changed);
+    }
+
+    /**
+     * Berechnet die Signatur eines gespeicherten Rezepts neu, falls sich Zutaten oder Tags geändert haben.
+     *
+     * @param recipe gespeichertes Rezept
+     */
+    public void update(Recipe recipe) {
+        if (recipe.getId() == 0) return;
+        Set<String> features = features(recipe);
+        long featuresHash = featuresHash(features);
+        Long previous = featureHashes.get(recipe.getId());
+        if (previous != null && previous == featuresHash) {
+            recipes.put(recipe.getId(), recipe);
+            return;
+        }
+        remove(recipe.getId());
+        int[] signature = signature(features);
+        index(recipe, featuresHash, signature, !features.isEmpty());
+        signatureDAO.saveSignatures(Map.of(recipe.getId(), new StoredSignature(featuresHash, signature)));
+    }
+
+    /**
+     * Entfernt ein Rezept aus dem Index.
+     *
+     * @param recipeId ID des gelöschten Rezepts
+     */
+    public void remove(int recipeId) {
+        int[] signature = signatures.remove(recipeId);
+        recipes.remove(recipeId);
+        featureHashes.remove(recipeId);
+        if (signature == null) return;
+        for (int b = 0; b < BANDS; b++) {
+            Set<Integer> ids = buckets.get(b).get(bandKey(signature, b));
+            if (ids != null) {
+                ids.remove(recipeId);
+                if (ids.isEmpty()) {
+                    buckets.get(b).remove(bandKey(signature, b));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sucht ähnliche Rezepte. Verglichen werden nur Rezepte, die mindestens ein Band
+     * mit dem gesuchten Rezept teilen.
+     *
+     * @param recipe Ausgangsrezept
+     * @param limit  maximale Anzahl Ergebnisse
+     * @return ähnliche Rezepte, ähnlichstes zuerst
+     */
+    public List<Recipe> findSimilar(Recipe recipe, int limit) {
+        int[] signature = signatures.get(recipe.getId());
+        if (signature == null) {
+            Set<String> features = features(recipe);
+            if (features.isEmpty()) return new ArrayList<>();
+            signature = signature(features);
+        }
+
+        Set<Integer> candidates = new HashSet<>();
+        for (int b = 0; b < BANDS; b++) {
+            Set<Integer> ids = buckets.get(b).get(bandKey(signature, b));
+            if (ids != null) candidates.addAll(ids);
+        }
+        candidates.remove(recipe.getId());
+        if (limit <= 0) return new ArrayList<>();
+
+        // Nur die besten limit Kandidaten behalten: der schlechteste steht oben im Heap und wird verdrängt
+        Comparator<Candidate> worstFirst = Comparator.comparingDouble((Candidate c) -> c.score)
+                .thenComparingInt(c -> -c.id);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, worstFirst);
+        for (Integer id : candidates) {
+            Candidate candidate = new Candidate(id, estimateJaccard(signature, signatures.get(id)));
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (worstFirst.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        Candidate[] ranked = best.toArray(new Candidate[0]);
+        Arrays.sort(ranked, worstFirst.reversed());
+        List<Recipe> result = new ArrayList<>(ranked.length);
+        for (Candidate candidate : ranked) {
+            result.add(recipes.get(candidate.id));
+        }
+        return result;
+    }
+
+    /** Ein Rezept aus denselben Buckets mit seiner geschätzten Ähnlichkeit. */
+    private static final class Candidate {
+        final int id;
+        final double score;
+
+        Candidate(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Gibt die aktuellen Signaturen aller eingeordneten Rezepte zurück, damit sie mit dem
+     * Katalog-Schnappschuss gespeichert werden können. Rezepte ohne Merkmale erhalten die leere Signatur.
+     *
+     * @return Rezept-ID → Signatur
+     */
+    public Map<Integer, StoredSignature> exportSignatures() {
+        Map<Integer, StoredSignature> result = new HashMap<>();
+        int[] empty = null;
+        for (Map.Entry<Integer, Long> e : featureHashes.entrySet()) {
+            int[] signature = signatures.get(e.getKey());
+            if (signature == null) {
+                if (empty == null) empty = signature(Set.of());
+                signature = empty;
+            }
+            result.put(e.getKey(), new StoredSignature(e.getValue(), signature));
+        }
+        return result;
+    }
+
+    private void index(Recipe recipe, long featuresHash, int[] signature, boolean hasFeatures) {
+        recipes.put(recipe.getId(), recipe);
+        featureHashes.put(recipe.getId(), featuresHash);
+        // Rezepte ohne Zutaten und Tags hätten alle dieselbe Signatur und werden nicht eingeordnet
+        if (!hasFeatures) return;
+        signatures.put(recipe.getId(), signature);
+        for (int b = 0; b < BANDS; b++) {
+            buckets.get(b).computeIfAbsent(bandKey(signature, b), k -> new HashSet<>()).add(recipe.getId());
+        }
+    }
+
+    /**
+     * Merkmale eines Rezepts: normalisierte Zutatennamen und Tags.
+     */
+    static Set<String> features(Recipe recipe) {
+        Set<String> features = new TreeSet<>();
+        for (Ingredient ing : recipe.getIngredients()) {
+            String key = IngredientIndex.normalize(ing.getName());
+            if (!key.isEmpty()) features.add("i:" + key);
+        }
+        for (Tag tag : recipe.getTags()) {
+            features.add("t:" + tag.getKey());
+        }
+        return features;
+    }
+
+    /**
+     * 64-Bit-FNV-1a über die sortierten Merkmale, um geänderte Rezepte zu erkennen.
+     */
+    static long featuresHash(Set<String> features) {
+        long hash = 0xcbf29ce484222325L;
+        for (String feature : features) {
+            for (int i = 0; i < feature.length(); i++) {
+                hash ^= feature.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= '\n';
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static int[] signature(Set<String> features) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String feature : features) {
+            long x = mix(feature.hashCode());
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int h = (int) ((A[i] * x + B[i]) % PRIME);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double estimateJaccard(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int r = 0; r < ROWS; r++) {
+            key = key * 31 + signature[band * ROWS + r];
+        }
+        return key;
+    }
+
+    private static long mix(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h & 0x7fffffffL;
+    }
+}
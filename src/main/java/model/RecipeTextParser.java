@@ -0,0 +1,80 @@
+package model;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wandelt erkannten Rezepttext in ein {@link Recipe} um.
+ * Erwartet wird ein einfaches Format: erste Zeile Name, danach optional
+ * "Portionen: 4", "Tags: a, b", ein Abschnitt "Zutaten" (z. B. "200 g Mehl")
+ * und ein Abschnitt "Zubereitung" bzw. "Schritte" mit einem Schritt pro Zeile.
+ */
+public class RecipeTextParser {
+
+    private static final Pattern PORTIONS = Pattern.compile("(?i)^portionen\\s*:?\\s*(\\d+)");
+    private static final Pattern TAGS = Pattern.compile("(?i)^tags\\s*:\\s*(.*)$");
+    private static final Pattern INGREDIENT = Pattern.compile("^(\\d+(?:[.,]\\d+)?)\\s+(\\S+)\\s+(.+)$");
+    private static final Pattern STEP_NUMBER = Pattern.compile("^\\d+[.)]\\s*");
+
+    private enum Section { NONE, INGREDIENTS, STEPS }
+
+    /**
+     * @param text         erkannter Text
+     * @param fallbackName Name, falls der Text keinen enthält
+     * @return neues, noch nicht gespeichertes Rezept
+     */
+    public static Recipe parse(String text, String fallbackName) {
+        Recipe recipe = new Recipe();
+        Section section = Section.NONE;
+        for (String raw : text.split("\\R")) {
+            String line = raw.trim();
+            if (line.isEmpty()) continue;
+            String lower = line.toLowerCase(Locale.ROOT);
+
+            if (recipe.getName().isEmpty()) {
+                recipe.setName(line);
+                continue;
+            }
+            Matcher portions = PORTIONS.matcher(line);
+            if (portions.find()) {
+                recipe.setPortions(Integer.parseInt(portions.group(1)));
+                continue;
+            }
+            Matcher tags = TAGS.matcher(line);
+            if (tags.find()) {
+                for (String tag : tags.group(1).split(",")) {
+                    if (!tag.isBlank()) recipe.addTag(new Tag(tag.trim()));
+                }
+                continue;
+            }
+            if (lower.startsWith("zutaten")) {
+                section = Section.INGREDIENTS;
+                continue;
+            }
+            if (lower.startsWith("zubereitung") || lower.startsWith("schritte")) {
+                section = Section.STEPS;
+                continue;
+            }
+
+            if (section == Section.INGREDIENTS) {
+                recipe.addIngredient(parseIngredient(line));
+            } else if (section == Section.STEPS) {
+                recipe.addStep(new Step(STEP_NUMBER.matcher(line).replaceFirst("")));
+            }
+        }
+        if (recipe.getName().isEmpty()) {
+            recipe.setName(fallbackName);
+        }
+        return recipe;
+    }
+
+    private static Ingredient parseIngredient(String line) {
+        String cleaned = line.replaceFirst("^[-•*]\\s*", "");
+        Matcher m = INGREDIENT.matcher(cleaned);
+        if (m.find()) {
+            return new Ingredient(m.group(3), Double.parseDouble(m.group(1).replace(',', '.')), m.group(2));
+        }
+        return new Ingredient(cleaned, 1.0, "");
+    }
+}
@@ -0,0 +1,214 @@
+package model;
+
+import monitoring.FilterEvent;
+import monitoring.Metrics;
+import monitoring.Timer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtert die Rezeptliste nach Text und Tags in einem Hintergrund-Thread.
+ *
+ * <p>Eingaben werden entprellt: erst wenn für die angegebene Zeit keine neue Eingabe kam, beginnt die Suche.
+ * Jede neue Anfrage macht alle älteren ungültig; eine laufende veraltete Suche bricht ab, und ihre noch
+ * ausstehenden Ergebnisse werden verworfen. Die ersten Treffer werden sofort gemeldet, der Rest folgt blockweise.</p>
+ *
+ * <p>Die Ergebnisse werden über den übergebenen Executor zugestellt (in der Oberfläche {@code Platform::runLater}),
+ * sodass der {@link Listener} immer im selben Thread läuft.</p>
+ *
+ * <p>Nebenbei zählt jede Suche, wie viele Rezepte mit passendem Text jedes Tag tragen (Facetten). Die Tag-Auswahl
+ * bleibt dabei unberücksichtigt, da sie Rezepte mit einem der Tags zulässt: die Zahl gibt an, wie viele Rezepte
+ * das Anhaken des Tags höchstens hinzufügt. Ohne Suchtext sind das die Zahlen aus der {@link CatalogStatistics};
+ * gezählt wird dann nicht.</p>
+ */
+public class SearchExecutor {
+
+    /**
+     * Empfängt die Treffer einer Suche.
+     */
+    public interface Listener {
+        /**
+         * @param recipes weitere Treffer in Listenreihenfolge
+         * @param first   true beim ersten Block einer Suche (bisherige Ergebnisse ersetzen)
+         */
+        void onResults(List<Recipe> recipes, boolean first);
+
+        /**
+         * Wird nach dem letzten Block einer Suche aufgerufen.
+         *
+         * @param counts Tag → Anzahl Rezepte, deren Name zum Suchtext passt; Tags ohne Treffer fehlen
+         */
+        default void onFacets(Map<Tag, Integer> counts) {
+        }
+    }
+
+    /** So viele Treffer werden sofort gemeldet, etwa eine sichtbare Liste. */
+    private static final int FIRST_CHUNK = 30;
+    /** Danach werden Treffer höchstens so lange gesammelt, bevor sie gemeldet werden. */
+    private static final long CHUNK_NANOS = 50_000_000L;
+    /** Alle so viele Rezepte wird geprüft, ob die Suche noch aktuell ist. */
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final Executor callbackExecutor;
+    private final ScheduledExecutorService worker;
+    private final AtomicLong latestQuery = new AtomicLong();
+    private ScheduledFuture<?> pending;
+    private volatile Stock stock = new Stock(List.of(), Map.of());
+
+    /**
+     * Unveränderlicher Bestand mit den vorab kleingeschriebenen Namen, gleich lang und gleich sortiert,
+     * und den Rezepten je Tag. Wird als Ganzes ersetzt, damit eine Suche nie verschiedene Stände mischt.
+     */
+    private static final class Stock {
+        final List<Recipe> recipes;
+        final String[] lowerNames;
+        final Map<Tag, Integer> tagCounts;
+
+        Stock(List<Recipe> recipes, Map<Tag, Integer> tagCounts) {
+            this.recipes = List.copyOf(recipes);
+            this.tagCounts = tagCounts;
+            this.lowerNames = new String[this.recipes.size()];
+            for (int i = 0; i < lowerNames.length; i++) {
+                String name = this.recipes.get(i).getName();
+                lowerNames[i] = name != null ? name.toLowerCase(Locale.ROOT) : "";
+            }
+        }
+    }
+
+    /**
+     * @param callbackExecutor Executor, in dem die Ergebnisse gemeldet werden
+     */
+    public SearchExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "recipe-search");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Setzt den zu durchsuchenden Bestand. Die Namen werden dabei einmal in Kleinbuchstaben umgewandelt.
+     *
+     * @param all        alle Rezepte in Anzeigereihenfolge
+     * @param statistics Kennzahlen zu diesen Rezepten; liefern die Facetten, wenn ohne Suchtext gesucht wird
+     */
+    public void setRecipes(List<Recipe> all, CatalogStatistics statistics) {
+        stock = new Stock(all, statistics.getTagCounts());
+    }
+
+    /**
+     * Startet eine neue Suche und verwirft alle vorherigen.
+     *
+     * @param text     Suchtext (leer = alle)
+     * @param tags     ausgewählte Tags (leer = alle); ein Rezept passt, wenn es eines davon hat
+     * @param delayMs  Entprellzeit in Millisekunden (0 = sofort)
+     * @param listener Empfänger der Treffer
+     */
+    public synchronized void submit(String text, Collection<Tag> tags, long delayMs, Listener listener) {
+        long queryId = latestQuery.incrementAndGet();
+        if (pending != null && pending.cancel(false)) {
+            Metrics.counter("search.debounced").increment();
+        }
+        String needle = text == null ? "" : text.toLowerCase(Locale.ROOT);
+        Set<Tag> tagSet = new HashSet<>(tags);
+        pending = worker.schedule(() -> run(queryId, needle, tagSet, listener), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Beendet den Such-Thread.
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(long queryId, String needle, Set<Tag> tags, Listener listener) {
+        if (latestQuery.get() != queryId) return;
+        FilterEvent event = new FilterEvent();
+        event.begin();
+        Stock current = stock;
+        String[] names = current.lowerNames;
+        List<Recipe> all = current.recipes;
+        int count = names.length;
+
+        int total = 0;
+        boolean first = true;
+        List<Recipe> chunk = new ArrayList<>(FIRST_CHUNK);
+        long chunkStart = System.nanoTime();
+        Map<Tag, int[]> facets = new HashMap<>();
+        try (Timer.Sample sample = Metrics.time("search.run")) {
+            for (int i = 0; i < count; i++) {
+                if (i % CANCEL_CHECK_INTERVAL == 0 && latestQuery.get() != queryId) {
+                    Metrics.counter("search.cancelled").increment();
+                    return;
+                }
+                if (!needle.isEmpty() && !names[i].contains(needle)) continue;
+                Recipe r = all.get(i);
+                if (!needle.isEmpty()) {
+                    for (Tag tag : r.getTags()) {
+                        facets.computeIfAbsent(tag, k -> new int[1])[0]++;
+                    }
+                }
+                if (tags.isEmpty() || hasAnyTag(r, tags)) {
+                    chunk.add(r);
+                    total++;
+                    boolean full = first ? chunk.size() >= FIRST_CHUNK : System.nanoTime() - chunkStart >= CHUNK_NANOS;
+                    if (full) {
+                        deliver(queryId, listener, chunk, first);
+                        first = false;
+                        chunk = new ArrayList<>();
+                        chunkStart = System.nanoTime();
+                    }
+                }
+            }
+            if (first || !chunk.isEmpty()) {
+                deliver(queryId, listener, chunk, first);
+            }
+            Map<Tag, Integer> counts;
+            if (needle.isEmpty()) {
+                counts = current.tagCounts;
+            } else {
+                counts = new HashMap<>(facets.size() * 2);
+                facets.forEach((tag, n) -> counts.put(tag, n[0]));
+            }
+            callbackExecutor.execute(() -> {
+                if (latestQuery.get() == queryId) {
+                    listener.onFacets(counts);
+                }
+            });
+        }
+        event.filterText = needle;
+        event.tagCount = tags.size();
+        event.resultCount = total;
+        event.commit();
+    }
+
+    private static boolean hasAnyTag(Recipe r, Set<Tag> tags) {
+        for (Tag tag : r.getTags()) {
+            if (tags.contains(tag)) return true;
+        }
+        return false;
+    }
+
+    private void deliver(long queryId, Listener listener, List<Recipe> chunk, boolean first) {
+        callbackExecutor.execute(() -> {
+            // Zwischen Berechnung und Zustellung kann eine neuere Suche begonnen haben
+            if (latestQuery.get() == queryId) {
+                listener.onResults(chunk, first);
+            }
+        });
+    }
+}
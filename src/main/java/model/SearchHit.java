@@ -0,0 +1,41 @@
+package model;
+
+import java.util.Comparator;
+
+/**
+ * Treffer der Rezeptsuche mit Bewertung und dem Katalog, aus dem das Rezept stammt.
+ */
+public class SearchHit {
+
+    /** Beste Bewertung zuerst, dann mehr Sterne, dann alphabetisch. */
+    public static final Comparator<SearchHit> BEST_FIRST = Comparator.comparingDouble(SearchHit::getScore).reversed()
+            .thenComparing(Comparator.comparingInt((SearchHit h) -> h.getRecipe().getRating()).reversed())
+            .thenComparing(h -> h.getRecipe().getName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    private final String catalogName;
+    private final Recipe recipe;
+    private final double score;
+
+    public SearchHit(String catalogName, Recipe recipe, double score) {
+        this.catalogName = catalogName;
+        this.recipe = recipe;
+        this.score = score;
+    }
+
+    public String getCatalogName() {
+        return catalogName;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return recipe.getName() + " (" + catalogName + ")";
+    }
+}
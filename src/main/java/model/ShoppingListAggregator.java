@@ -0,0 +1,86 @@
+package model;
+
+import database.RecipeDAO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Erstellt aus mehreren Rezepten eine gemeinsame Einkaufsliste.
+ * Die Zutaten jedes Rezepts werden auf die gewünschte Portionsanzahl skaliert,
+ * in Basiseinheiten umgerechnet und gleiche Zutaten zusammengefasst.
+ */
+public class ShoppingListAggregator {
+
+    /** Ab dieser Anzahl Rezepte wird parallel zusammengefasst. */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final RecipeDAO recipeDAO = new RecipeDAO();
+
+    /**
+     * Erstellt die Einkaufsliste für die angegebenen Rezepte.
+     *
+     * @param targetPortions Rezept-ID → gewünschte Portionsanzahl
+     * @return zusammengefasste Zutaten, alphabetisch sortiert
+     */
+    public List<Ingredient> aggregate(Map<Integer, Integer> targetPortions) {
+        Map<Integer, Recipe> recipes = recipeDAO.getRecipesWithIngredients(targetPortions.keySet());
+        return aggregate(recipes.values(), targetPortions);
+    }
+
+    /**
+     * Erstellt die Einkaufsliste aus bereits geladenen Rezepten.
+     *
+     * @param recipes        Rezepte mit Zutaten
+     * @param targetPortions Rezept-ID → gewünschte Portionsanzahl (fehlt ein Eintrag, gilt die Originalportion)
+     * @return zusammengefasste Zutaten, alphabetisch sortiert
+     */
+    public List<Ingredient> aggregate(Iterable<Recipe> recipes, Map<Integer, Integer> targetPortions) {
+        List<Recipe> list = new ArrayList<>();
+        recipes.forEach(list::add);
+
+        Stream<Recipe> stream = list.size() >= PARALLEL_THRESHOLD ? list.parallelStream() : list.stream();
+        Map<String, Ingredient> merged = stream
+                .flatMap(r -> scaled(r, targetPortions.getOrDefault(r.getId(), r.getPortions())))
+                .collect(Collectors.toMap(
+                        ShoppingListAggregator::key,
+                        Function.identity(),
+                        ShoppingListAggregator::merge,
+                        HashMap::new));
+
+        List<Ingredient> result = new ArrayList<>();
+        for (Ingredient ing : merged.values()) {
+            result.add(UnitConverter.toDisplay(ing));
+        }
+        result.sort(Comparator.comparing(Ingredient::getName, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    /**
+     * Skaliert die Zutaten eines Rezepts und rechnet sie in Basiseinheiten um.
+     */
+    private static Stream<Ingredient> scaled(Recipe recipe, int portions) {
+        int originalPortions = recipe.getPortions() <= 0 ? 1 : recipe.getPortions();
+        double factor = (double) portions / originalPortions;
+        return recipe.getIngredients().stream().map(ing -> new Ingredient(
+                ing.getName().trim(),
+                UnitConverter.toBase(ing.getQuantity(), ing.getUnit()) * factor,
+                UnitConverter.baseUnit(ing.getUnit())
+        ));
+    }
+
+    private static String key(Ingredient ing) {
+        return ing.getName().toLowerCase(Locale.ROOT) + '|' + ing.getUnit();
+    }
+
+    private static Ingredient merge(Ingredient a, Ingredient b) {
+        return new Ingredient(a.getName(), a.getQuantity() + b.getQuantity(), a.getUnit());
+    }
+}
@@ -0,0 +1,31 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Deterministischer Ersatz für eine echte Texterkennung.
+ * Liest den Text aus einer gleichnamigen .txt-Datei neben dem Bild
+ * (z. B. "gulasch.jpg" → "gulasch.txt"). Fehlt sie, wird nur der Dateiname als Rezeptname geliefert.
+ */
+public class SidecarTextExtractor implements TextExtractor {
+
+    @Override
+    public String extractText(BufferedImage image, File source) throws IOException {
+        String baseName = baseName(source);
+        File sidecar = new File(source.getParentFile(), baseName + ".txt");
+        if (sidecar.isFile()) {
+            return Files.readString(sidecar.toPath(), StandardCharsets.UTF_8);
+        }
+        return baseName.replace('_', ' ');
+    }
+
+    static String baseName(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
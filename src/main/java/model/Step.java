@@ -4,10 +4,14 @@ import java.io.Serializable;
 
 /**
  * Repräsentiert einen einzelnen Schritt in der Zubereitung eines Rezepts.
+ * Der Text liegt entweder als String oder komprimiert mit einem {@link StepDictionary} vor;
+ * komprimierte Texte werden erst beim Anzeigen entpackt und nicht zwischengespeichert.
  */
 public class Step {
 
     private String description;
+    private byte[] compressed;
+    private StepDictionary dictionary;
 
     public Step() {
     }
@@ -16,16 +20,37 @@ public class Step {
         this.description = description;
     }
 
+    public Step(byte[] compressed, StepDictionary dictionary) {
+        this.compressed = compressed;
+        this.dictionary = dictionary;
+    }
+
     public String getDescription() {
+        if (compressed != null) {
+            return dictionary.decompress(compressed);
+        }
         return description;
     }
 
     public void setDescription(String description) {
         this.description = description;
+        this.compressed = null;
+        this.dictionary = null;
+    }
+
+    /**
+     * @return komprimierter Text oder null, wenn der Schritt unkomprimiert vorliegt
+     */
+    public byte[] getCompressed() {
+        return compressed;
+    }
+
+    public StepDictionary getDictionary() {
+        return dictionary;
     }
 
     @Override
     public String toString() {
-        return description;
+        return getDescription();
     }
-}
\ No newline at end of file
+}
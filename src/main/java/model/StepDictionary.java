@@ -0,0 +1,143 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Vorgegebenes Wörterbuch für die Komprimierung von Schritttexten.
+ * Kochschritte sind kurz und wiederholen sich stark ("in einer Pfanne", "bei mittlerer Hitze"),
+ * deshalb bringt Deflate erst mit einem aus dem Bestand trainierten Wörterbuch nennenswerte Einsparungen.
+ */
+public class StepDictionary {
+
+    /** Deflate kann höchstens 32 KB zurückschauen; ein kleineres Wörterbuch hält das Komprimieren schnell. */
+    public static final int MAX_SIZE = 16 * 1024;
+    private static final int MAX_WORDS_PER_PHRASE = 4;
+
+    private final int id;
+    private final byte[] dictionary;
+
+    public StepDictionary(int id, byte[] dictionary) {
+        this.id = id;
+        this.dictionary = dictionary;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public byte[] getBytes() {
+        return dictionary;
+    }
+
+    /**
+     * Komprimiert einen Schritttext mit diesem Wörterbuch.
+     *
+     * @param text Schritttext
+     * @return komprimierte Bytes (Rohformat ohne zlib-Kopf)
+     */
+    public byte[] compress(String text) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setDictionary(dictionary);
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[256];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Entpackt einen mit diesem Wörterbuch komprimierten Schritttext.
+     *
+     * @param data komprimierte Bytes
+     * @return Schritttext
+     */
+    public String decompress(byte[] data) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(dictionary);
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Schritttext ist unvollständig");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Schritttext ist beschädigt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Erstellt ein Wörterbuch aus häufigen Wortfolgen der Beispieltexte.
+     * Bewertet wird nach eingesparten Bytes (Häufigkeit × Länge). Die wertvollsten Folgen stehen am Ende,
+     * weil Deflate nahe Verweise günstiger kodiert.
+     *
+     * @param samples Schritttexte des Bestands
+     * @param maxSize maximale Größe in Bytes
+     * @return Wörterbuch-Bytes (UTF-8)
+     */
+    public static byte[] train(Collection<String> samples, int maxSize) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String text : samples) {
+            if (text == null) continue;
+            String[] words = text.trim().split("\\s+");
+            for (int i = 0; i < words.length; i++) {
+                StringBuilder phrase = new StringBuilder();
+                for (int n = 0; n < MAX_WORDS_PER_PHRASE && i + n < words.length; n++) {
+                    phrase.append(words[i + n]).append(' ');
+                    counts.merge(phrase.toString(), 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            if (e.getValue() > 1 && e.getKey().length() > 3) ranked.add(e);
+        }
+        ranked.sort((a, b) -> Long.compare(
+                (long) (b.getValue() - 1) * b.getKey().length(),
+                (long) (a.getValue() - 1) * a.getKey().length()));
+
+        List<String> chosen = new ArrayList<>();
+        StringBuilder all = new StringBuilder();
+        int size = 0;
+        for (Map.Entry<String, Integer> e : ranked) {
+            if (maxSize - size < 8) break;
+            String phrase = e.getKey();
+            // Teilfolgen bereits gewählter Phrasen bringen nichts mehr
+            if (all.indexOf(phrase) >= 0) continue;
+            int length = phrase.getBytes(StandardCharsets.UTF_8).length;
+            if (size + length > maxSize) continue;
+            chosen.add(phrase);
+            all.append(phrase).append('\n');
+            size += length;
+        }
+
+        Collections.reverse(chosen);
+        return String.join("", chosen).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vorschläge für Zutatennamen, Einheiten und Tags im Rezepteditor.
+ * Jede Art hat einen eigenen {@link PrefixTrie}; gewichtet wird nach der Anzahl Vorkommen im Katalog.
+ * Beim Speichern wird nur der Beitrag des geänderten Rezepts ausgetauscht.
+ */
+public class SuggestionIndex {
+
+    private final PrefixTrie ingredients = new PrefixTrie();
+    private final PrefixTrie units = new PrefixTrie();
+    private final PrefixTrie tags = new PrefixTrie();
+    /** Zuletzt gezählte Begriffe je Rezept, damit sie beim nächsten Speichern abgezogen werden können. */
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+
+    private static class Contribution {
+        final List<String> ingredients = new ArrayList<>();
+        final List<String> units = new ArrayList<>();
+        final List<String> tags = new ArrayList<>();
+
+        Contribution(Recipe recipe) {
+            for (Ingredient ing : recipe.getIngredients()) {
+                ingredients.add(ing.getName());
+                units.add(ing.getUnit());
+            }
+            for (Tag tag : recipe.getTags()) {
+                tags.add(tag.getName());
+            }
+        }
+    }
+
+    /**
+     * Baut alle Vorschlagsbäume für die übergebenen Rezepte neu auf.
+     *
+     * @param recipes alle geladenen Rezepte
+     */
+    public synchronized void rebuild(Collection<Recipe> recipes) {
+        contributions.clear();
+        List<String> allIngredients = new ArrayList<>();
+        List<String> allUnits = new ArrayList<>();
+        List<String> allTags = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            Contribution c = new Contribution(recipe);
+            if (recipe.getId() != 0) {
+                contributions.put(recipe.getId(), c);
+            }
+            allIngredients.addAll(c.ingredients);
+            allUnits.addAll(c.units);
+            allTags.addAll(c.tags);
+        }
+        ingredients.rebuild(allIngredients);
+        units.rebuild(allUnits);
+        tags.rebuild(allTags);
+    }
+
+    /**
+     * Übernimmt den gespeicherten Stand eines Rezepts und ersetzt seinen bisherigen Beitrag.
+     *
+     * @param recipe gespeichertes Rezept (ID muss gesetzt sein)
+     */
+    public synchronized void update(Recipe recipe) {
+        if (recipe.getId() == 0) return;
+        remove(recipe.getId());
+        Contribution c = new Contribution(recipe);
+        apply(c, 1);
+        contributions.put(recipe.getId(), c);
+    }
+
+    /**
+     * Entfernt den Beitrag eines gelöschten Rezepts.
+     *
+     * @param recipeId ID des Rezepts
+     */
+    public synchronized void remove(int recipeId) {
+        Contribution old = contributions.remove(recipeId);
+        if (old != null) {
+            apply(old, -1);
+        }
+    }
+
+    public List<String> suggestIngredients(String prefix, int limit) {
+        return ingredients.suggest(prefix, limit);
+    }
+
+    public List<String> suggestUnits(String prefix, int limit) {
+        return units.suggest(prefix, limit);
+    }
+
+    public List<String> suggestTags(String prefix, int limit) {
+        return tags.suggest(prefix, limit);
+    }
+
+    private void apply(Contribution c, int delta) {
+        for (String name : c.ingredients) ingredients.add(name, delta);
+        for (String unit : c.units) units.add(unit, delta);
+        for (String tag : c.tags) tags.add(tag, delta);
+    }
+}
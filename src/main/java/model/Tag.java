@@ -1,26 +1,54 @@
 package model;
 
+import java.util.Locale;
 
 /**
  * Repräsentiert ein Schlagwort (Tag), das einem Rezept zugeordnet werden kann.
+ * Tags aus der Datenbank werden über die {@link TagRegistry} nur einmal angelegt und von allen
+ * Rezepten gemeinsam verwendet; ihre ID entspricht der Spalte tag.id. Neue, noch nicht gespeicherte
+ * Tags haben die ID 0. Groß-/Kleinschreibung spielt beim Vergleich keine Rolle.
+ * Tags sind unveränderlich und können daher ohne Sperre zwischen Threads geteilt werden.
  */
-public class Tag {
+public final class Tag {
 
-    private String name;
+    private final int id;
+    private final String name;
+    /** Name in Kleinbuchstaben, einmal berechnet für equals/hashCode. */
+    private final String key;
 
-    public Tag() {
+    public Tag(String name) {
+        this(0, name);
     }
 
-    public Tag(String name) {
+    public Tag(int id, String name) {
+        this.id = id;
         this.name = name;
+        this.key = key(name);
+    }
+
+    /**
+     * @return ID in der Datenbank oder 0, falls das Tag noch nicht gespeichert ist
+     */
+    public int getId() {
+        return id;
     }
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
+    /**
+     * @return Vergleichsschlüssel (Name in Kleinbuchstaben)
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return Vergleichsschlüssel zu einem Tag-Namen
+     */
+    public static String key(String name) {
+        return name != null ? name.trim().toLowerCase(Locale.ROOT) : null;
     }
 
     @Override
@@ -33,11 +61,11 @@ public class Tag {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Tag tag = (Tag) o;
-        return name.equalsIgnoreCase(tag.name);
+        return key != null && key.equals(tag.key);
     }
 
     @Override
     public int hashCode() {
-        return name.toLowerCase().hashCode();
+        return key != null ? key.hashCode() : 0;
     }
-}
\ No newline at end of file
+}
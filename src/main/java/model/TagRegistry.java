@@ -0,0 +1,93 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verzeichnis aller gespeicherten Tags eines Katalogs (Fliegengewicht): jedes Tag existiert nur einmal
+ * im Speicher, alle Rezepte verweisen auf dieselbe Instanz. Gesucht wird über die ID aus der Tabelle tag
+ * oder über den Namen ohne Berücksichtigung der Groß-/Kleinschreibung.
+ * Tags, die sich nur in der Schreibweise unterscheiden, werden zu einem Tag zusammengefasst.
+ */
+public class TagRegistry {
+
+    private final Map<String, Tag> byKey = new ConcurrentHashMap<>();
+    private final Map<Integer, Tag> byId = new ConcurrentHashMap<>();
+    private volatile List<Tag> sorted = Collections.emptyList();
+    private volatile boolean loaded = false;
+
+    /**
+     * Gibt die gemeinsame Instanz eines gespeicherten Tags zurück und legt sie bei Bedarf an.
+     *
+     * @param id   tag.id
+     * @param name Name aus der Datenbank
+     * @return gemeinsame Instanz
+     */
+    public Tag intern(int id, String name) {
+        Tag tag = byId.get(id);
+        if (tag != null) return tag;
+        synchronized (this) {
+            String key = Tag.key(name);
+            tag = byKey.get(key);
+            if (tag == null) {
+                tag = new Tag(id, name.trim());
+                byKey.put(key, tag);
+                sorted = null;
+            }
+            byId.put(id, tag);
+            return tag;
+        }
+    }
+
+    /**
+     * @return gespeichertes Tag mit dieser ID oder null
+     */
+    public Tag get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return gespeichertes Tag mit diesem Namen (Groß-/Kleinschreibung egal) oder null
+     */
+    public Tag find(String name) {
+        return name != null ? byKey.get(Tag.key(name)) : null;
+    }
+
+    /**
+     * Prüft, ob ein Tag die gemeinsame Instanz dieses Verzeichnisses ist (und seine ID damit hier gilt).
+     */
+    public boolean contains(Tag tag) {
+        return tag.getId() > 0 && byId.get(tag.getId()) == tag;
+    }
+
+    /**
+     * @return alle Tags, alphabetisch sortiert
+     */
+    public List<Tag> getAll() {
+        List<Tag> result = sorted;
+        if (result == null) {
+            synchronized (this) {
+                List<Tag> all = new ArrayList<>(byKey.values());
+                all.sort(Comparator.comparing(Tag::getName));
+                result = Collections.unmodifiableList(all);
+                sorted = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true, sobald alle Tags der Datenbank einmal eingelesen wurden
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+}
@@ -0,0 +1,22 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Schnittstelle für die Texterkennung beim Bildimport.
+ * Eine Implementierung kann z. B. eine lokale OCR-Bibliothek anbinden.
+ */
+public interface TextExtractor {
+
+    /**
+     * Erkennt den Text auf einem vorverarbeiteten Rezeptbild.
+     *
+     * @param image  vorverarbeitetes Bild (verkleinert, Graustufen)
+     * @param source Originaldatei des Bildes
+     * @return erkannter Text (leer, wenn nichts erkannt wurde)
+     * @throws IOException falls die Erkennung fehlschlägt
+     */
+    String extractText(BufferedImage image, File source) throws IOException;
+}
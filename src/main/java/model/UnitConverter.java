@@ -0,0 +1,83 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Vereinheitlicht Mengeneinheiten, damit gleiche Zutaten aus verschiedenen Rezepten
+ * zusammengerechnet werden können (z. B. "kg" wird zu "g", "Stück" zu "Stk").
+ */
+public final class UnitConverter {
+
+    private static final Map<String, String> BASE_UNITS = new HashMap<>();
+    private static final Map<String, Double> FACTORS = new HashMap<>();
+
+    static {
+        register("g", "g", 1);
+        register("gramm", "g", 1);
+        register("kg", "g", 1000);
+        register("ml", "ml", 1);
+        register("cl", "ml", 10);
+        register("dl", "ml", 100);
+        register("l", "ml", 1000);
+        register("liter", "ml", 1000);
+        register("stk", "Stk", 1);
+        register("stk.", "Stk", 1);
+        register("stück", "Stk", 1);
+        register("el", "EL", 1);
+        register("tl", "TL", 1);
+    }
+
+    private UnitConverter() {
+    }
+
+    private static void register(String unit, String baseUnit, double factor) {
+        BASE_UNITS.put(unit, baseUnit);
+        FACTORS.put(unit, factor);
+    }
+
+    /**
+     * Gibt die Basiseinheit zu einer Einheit zurück. Unbekannte Einheiten bleiben unverändert.
+     *
+     * @param unit Einheit aus der Datenbank (darf null sein)
+     * @return Basiseinheit, niemals null
+     */
+    public static String baseUnit(String unit) {
+        String key = key(unit);
+        return BASE_UNITS.getOrDefault(key, unit == null ? "" : unit.trim());
+    }
+
+    /**
+     * Rechnet eine Menge in die Basiseinheit um.
+     *
+     * @param quantity Menge in der angegebenen Einheit
+     * @param unit     Einheit der Menge
+     * @return Menge in der Basiseinheit
+     */
+    public static double toBase(double quantity, String unit) {
+        return quantity * FACTORS.getOrDefault(key(unit), 1.0);
+    }
+
+    /**
+     * Wandelt eine Zutat in Basiseinheit wieder in eine gut lesbare Einheit um
+     * (z. B. 1500 g werden zu 1.5 kg).
+     *
+     * @param ingredient Zutat in Basiseinheit
+     * @return lesbare Zutat (neues Objekt)
+     */
+    public static Ingredient toDisplay(Ingredient ingredient) {
+        String unit = ingredient.getUnit();
+        double quantity = ingredient.getQuantity();
+        if ("g".equals(unit) && quantity >= 1000) {
+            return new Ingredient(ingredient.getName(), quantity / 1000, "kg");
+        }
+        if ("ml".equals(unit) && quantity >= 1000) {
+            return new Ingredient(ingredient.getName(), quantity / 1000, "l");
+        }
+        return new Ingredient(ingredient.getName(), quantity, unit);
+    }
+
+    private static String key(String unit) {
+        return unit == null ? "" : unit.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,43 @@
+package monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merkt sich je Thread die gerade gemessene Operation (innerster laufender {@link Timer}).
+ * Der {@link FxStallWatchdog} kann so melden, womit der JavaFX-Thread beschäftigt war.
+ */
+public final class ActiveOperation {
+
+    private static final Map<Thread, String> CURRENT = new ConcurrentHashMap<>();
+
+    private ActiveOperation() {
+    }
+
+    /**
+     * @param name Name der beginnenden Operation
+     * @return bisherige Operation des Threads (für {@link #exit(String)})
+     */
+    static String enter(String name) {
+        return CURRENT.put(Thread.currentThread(), name);
+    }
+
+    /**
+     * @param previous Rückgabewert des zugehörigen {@link #enter(String)}
+     */
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove(Thread.currentThread());
+        } else {
+            CURRENT.put(Thread.currentThread(), previous);
+        }
+    }
+
+    /**
+     * @param thread beliebiger Thread
+     * @return aktuell laufende Operation oder null
+     */
+    public static String of(Thread thread) {
+        return CURRENT.get(thread);
+    }
+}
@@ -0,0 +1,33 @@
+package monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Threadsicherer Zähler, z. B. für Fehler oder Cache-Treffer.
+ */
+public class Counter implements CounterMXBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long n) {
+        count.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
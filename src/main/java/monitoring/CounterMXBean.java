@@ -0,0 +1,9 @@
+package monitoring;
+
+/**
+ * JMX-Sicht auf einen {@link Counter}.
+ */
+public interface CounterMXBean {
+
+    long getCount();
+}
@@ -0,0 +1,24 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für das Anwenden von Suchtext und Tag-Filter auf die Rezeptliste.
+ */
+@Name("de.gfn.ikladde.Filter")
+@Label("Filter anwenden")
+@Category({"iKladde", "Oberfläche"})
+public class FilterEvent extends Event {
+
+    @Label("Suchtext")
+    public String filterText;
+
+    @Label("Gewählte Tags")
+    public int tagCount;
+
+    @Label("Treffer")
+    public int resultCount;
+}
@@ -0,0 +1,64 @@
+package monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Startet auf Wunsch beim Programmstart eine JDK-Flight-Recorder-Aufzeichnung.
+ * Aktiviert wird sie mit dem Programmargument {@code --jfr} bzw. {@code --jfr=datei.jfr}
+ * oder der Systemeigenschaft {@code ikladde.jfr}. Die Aufzeichnung enthält neben den
+ * JDK-Ereignissen die iKladde-Ereignisse (Abfragen, Laden, Filter, Fotos, FX-Blockaden) und wird beim
+ * Beenden in die angegebene Datei geschrieben (Standard: {@code logs/ikladde-<Zeit>.jfr}).
+ */
+public final class FlightRecording {
+
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    /**
+     * @param args Programmargumente aus {@code main}
+     */
+    public static synchronized void startIfRequested(String[] args) {
+        String target = System.getProperty("ikladde.jfr");
+        for (String arg : args) {
+            if (arg.equals("--jfr")) {
+                target = "";
+            } else if (arg.startsWith("--jfr=")) {
+                target = arg.substring("--jfr=".length());
+            }
+        }
+        if (target == null || recording != null) return;
+
+        Path destination = target.isBlank()
+                ? Path.of("logs", "ikladde-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr")
+                : Path.of(target);
+        try {
+            if (destination.getParent() != null) {
+                Files.createDirectories(destination.getParent());
+            }
+            recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("iKladde");
+            recording.enable(QueryEvent.class);
+            recording.enable(LoadDataEvent.class);
+            recording.enable(RecipeDisplayEvent.class);
+            recording.enable(FilterEvent.class);
+            recording.enable(PhotoLoadEvent.class);
+            recording.enable(FxStallEvent.class);
+            recording.setDestination(destination);
+            recording.setDumpOnExit(true);
+            recording.start();
+            System.out.println("JFR-Aufzeichnung läuft: " + destination.toAbsolutePath());
+        } catch (IOException | ParseException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Ereignis für einen blockierten JavaFX-Thread, gemeldet nach Ende der Blockade.
+ */
+@Name("de.gfn.ikladde.FxStall")
+@Label("JavaFX-Thread blockiert")
+@Category({"iKladde", "Oberfläche"})
+public class FxStallEvent extends Event {
+
+    @Label("Wartezeit")
+    @Timespan
+    public long latency;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Stack des JavaFX-Threads")
+    public String fxStack;
+}
@@ -0,0 +1,114 @@
+package monitoring;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Überwacht, wie schnell der JavaFX Application Thread auf neue Aufgaben reagiert.
+ * Ein Hintergrund-Thread stellt regelmäßig einen Herzschlag per {@link Platform#runLater} ein
+ * und misst die Zeit, bis er ausgeführt wird. Überschreitet die Wartezeit die Schwelle,
+ * wird einmalig ein Stack des JavaFX-Threads samt laufender Operation aufgenommen und
+ * nach Ende der Blockade ausgegeben, als Messwert gezählt und als JFR-Ereignis gemeldet.
+ * Die Schwelle in Millisekunden lässt sich über {@code ikladde.stall.threshold} setzen (0 = aus).
+ */
+public final class FxStallWatchdog {
+
+    private static final long CHECK_INTERVAL_MILLIS = 50;
+    private static final int MAX_STACK_DEPTH = 40;
+
+    private static FxStallWatchdog instance;
+
+    private final long thresholdNanos;
+    private final ScheduledExecutorService scheduler;
+    private volatile Thread fxThread;
+    private volatile long pendingSince;
+    private volatile String capturedOperation;
+    private volatile String capturedStack;
+
+    private FxStallWatchdog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-stall-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Startet die Überwachung (Standardschwelle 200 ms).
+     */
+    public static synchronized void start() {
+        long threshold = Long.getLong("ikladde.stall.threshold", 200);
+        if (instance != null || threshold <= 0) return;
+        instance = new FxStallWatchdog(threshold);
+        instance.scheduler.scheduleWithFixedDelay(instance::check,
+                CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Beendet die Überwachung.
+     */
+    public static synchronized void stop() {
+        if (instance == null) return;
+        instance.scheduler.shutdownNow();
+        instance = null;
+    }
+
+    /**
+     * Läuft im Watchdog-Thread: stellt einen Herzschlag ein oder prüft den ausstehenden.
+     */
+    private void check() {
+        long now = System.nanoTime();
+        long posted = pendingSince;
+        if (posted == 0) {
+            pendingSince = now;
+            capturedStack = null;
+            capturedOperation = null;
+            Platform.runLater(() -> heartbeat(now));
+        } else if (now - posted > thresholdNanos && capturedStack == null && fxThread != null) {
+            capturedOperation = ActiveOperation.of(fxThread);
+            capturedStack = format(fxThread.getStackTrace());
+        }
+    }
+
+    /**
+     * Läuft im JavaFX-Thread: misst die Wartezeit des Herzschlags.
+     */
+    private void heartbeat(long posted) {
+        fxThread = Thread.currentThread();
+        long latency = System.nanoTime() - posted;
+        Metrics.timer("fx.heartbeatLatency").record(latency);
+
+        if (latency > thresholdNanos) {
+            String stack = capturedStack;
+            String operation = capturedOperation;
+            Metrics.counter("fx.stalls").increment();
+
+            FxStallEvent event = new FxStallEvent();
+            if (event.shouldCommit()) {
+                event.latency = latency;
+                event.operation = operation;
+                event.fxStack = stack;
+                event.commit();
+            }
+
+            System.out.println("JavaFX-Thread " + TimeUnit.NANOSECONDS.toMillis(latency) + " ms blockiert"
+                    + (operation != null ? " (Operation: " + operation + ")" : ""));
+            if (stack != null) {
+                System.out.print(stack);
+            }
+        }
+        pendingSince = 0;
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stack.length && i < MAX_STACK_DEPTH; i++) {
+            sb.append("\tat ").append(stack[i]).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latenz-Histogramm mit Zweierpotenz-Buckets in Mikrosekunden.
+ * Das Erfassen ist sperrfrei; Perzentile werden als Obergrenze des jeweiligen Buckets geschätzt.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * @param nanos gemessene Dauer in Nanosekunden
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+    }
+
+    /**
+     * @param percentile Perzentil zwischen 0 und 100
+     * @return geschätzter Wert in Millisekunden (0, wenn noch nichts erfasst wurde)
+     */
+    public double percentileMillis(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return (1L << i) / 1000.0;
+            }
+        }
+        return (1L << (BUCKETS - 1)) / 1000.0;
+    }
+}
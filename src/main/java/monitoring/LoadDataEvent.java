@@ -0,0 +1,18 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für das vollständige Laden aller Rezepte in {@code RecipeManager.loadData}.
+ */
+@Name("de.gfn.ikladde.LoadData")
+@Label("Rezepte laden")
+@Category({"iKladde", "Daten"})
+public class LoadDataEvent extends Event {
+
+    @Label("Rezepte")
+    public int recipeCount;
+}
@@ -0,0 +1,79 @@
+package monitoring;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zentrale, prozessweite Ablage aller Messwerte (Zähler und Timer).
+ * Jeder Messwert wird beim ersten Zugriff angelegt und unter
+ * {@code de.gfn.ikladde:type=Timer|Counter,name=...} per JMX veröffentlicht,
+ * sodass er z. B. in JConsole oder VisualVM sichtbar ist.
+ */
+public final class Metrics {
+
+    private static final String JMX_DOMAIN = "de.gfn.ikladde";
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * @param name Name des Timers, z. B. "dao.getAllRecipes"
+     * @return vorhandener oder neu angelegter Timer
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> register("Timer", n, new Timer(n)));
+    }
+
+    /**
+     * @param name Name des Zählers
+     * @return vorhandener oder neu angelegter Zähler
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> register("Counter", n, new Counter(n)));
+    }
+
+    /**
+     * Kurzform für {@code timer(name).time()}.
+     *
+     * @param name Name des Timers
+     * @return laufende Messung für try-with-resources
+     */
+    public static Timer.Sample time(String name) {
+        return timer(name).time();
+    }
+
+    /**
+     * @return alle Timer, nach Namen sortiert
+     */
+    public static Map<String, Timer> getTimers() {
+        return new TreeMap<>(TIMERS);
+    }
+
+    /**
+     * @return alle Zähler, nach Namen sortiert
+     */
+    public static Map<String, Counter> getCounters() {
+        return new TreeMap<>(COUNTERS);
+    }
+
+    private static <T> T register(String type, String name, T metric) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metric, objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        return metric;
+    }
+}
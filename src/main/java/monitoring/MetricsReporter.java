@@ -0,0 +1,79 @@
+package monitoring;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schreibt die Messwerte regelmäßig als CSV in {@code logs/metrics.csv}.
+ * Jede Zeile enthält Zeitpunkt, Name, Typ, Anzahl und Latenzen in Millisekunden.
+ * Das Intervall lässt sich über die Systemeigenschaft {@code ikladde.metrics.interval} (Sekunden) ändern;
+ * 0 schaltet die Ausgabe ab.
+ */
+public final class MetricsReporter {
+
+    private static final File CSV_FILE = new File("logs/metrics.csv");
+    private static final String HEADER = "timestamp,name,type,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms";
+
+    private static ScheduledExecutorService scheduler;
+
+    private MetricsReporter() {
+    }
+
+    /**
+     * Startet die regelmäßige Ausgabe (Standard: alle 60 Sekunden).
+     */
+    public static synchronized void start() {
+        long interval = Long.getLong("ikladde.metrics.interval", 60);
+        if (scheduler != null || interval <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(MetricsReporter::writeCsv, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Beendet die regelmäßige Ausgabe und schreibt einen letzten Stand.
+     */
+    public static synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+        writeCsv();
+    }
+
+    /**
+     * Hängt den aktuellen Stand aller Messwerte an die CSV-Datei an.
+     */
+    public static void writeCsv() {
+        File dir = CSV_FILE.getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+        boolean newFile = !CSV_FILE.exists();
+        String now = LocalDateTime.now().toString();
+        try (PrintWriter out = new PrintWriter(new FileWriter(CSV_FILE, true))) {
+            if (newFile) {
+                out.println(HEADER);
+            }
+            for (Map.Entry<String, Timer> e : Metrics.getTimers().entrySet()) {
+                Timer t = e.getValue();
+                out.println(String.format(Locale.ROOT, "%s,%s,timer,%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                        now, e.getKey(), t.getCount(), t.getMeanMillis(),
+                        t.getP50Millis(), t.getP95Millis(), t.getP99Millis(), t.getMaxMillis()));
+            }
+            for (Map.Entry<String, Counter> e : Metrics.getCounters().entrySet()) {
+                out.println(String.format(Locale.ROOT, "%s,%s,counter,%d,,,,,", now, e.getKey(), e.getValue().getCount()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
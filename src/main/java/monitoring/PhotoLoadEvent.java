@@ -0,0 +1,24 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für das Laden und Dekodieren eines Rezeptfotos.
+ */
+@Name("de.gfn.ikladde.PhotoLoad")
+@Label("Foto laden")
+@Category({"iKladde", "Bilder"})
+public class PhotoLoadEvent extends Event {
+
+    @Label("Pfad")
+    public String path;
+
+    @Label("Breite")
+    public int width;
+
+    @Label("Höhe")
+    public int height;
+}
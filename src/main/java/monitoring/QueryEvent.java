@@ -0,0 +1,26 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für eine Datenbankabfrage mit SQL und Anzahl gelesener bzw. geänderter Zeilen.
+ */
+@Name("de.gfn.ikladde.Query")
+@Label("Datenbankabfrage")
+@Category({"iKladde", "Datenbank"})
+@Description("Ein Aufruf des RecipeDAO bzw. SignatureDAO")
+public class QueryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Zeilen")
+    int rowCount;
+}
@@ -0,0 +1,68 @@
+package monitoring;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Misst einen DAO-Aufruf gleichzeitig als {@link Timer} und als JFR-{@link QueryEvent}.
+ * Verwendung mit try-with-resources:
+ * <pre>
+ * try (QueryTrace trace = QueryTrace.start("dao.getAllRecipes", sql); Connection conn = ...) {
+ *     ...
+ *     trace.setRowCount(recipes.size());
+ * }
+ * </pre>
+ * Nebenbei wird mitgezählt, ob gerade Abfragen laufen und wann die letzte endete, damit Hintergrundarbeiten
+ * wie die Datenbankwartung nur im Leerlauf stattfinden ({@link #isIdle(long)}).
+ */
+public final class QueryTrace implements AutoCloseable {
+
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+    private static volatile long lastActivity = System.nanoTime();
+
+    private final Timer.Sample sample;
+    private final QueryEvent event;
+
+    private QueryTrace(String operation, String sql) {
+        ACTIVE.incrementAndGet();
+        lastActivity = System.nanoTime();
+        this.sample = Metrics.time(operation);
+        this.event = new QueryEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.sql = sql;
+        }
+        event.begin();
+    }
+
+    /**
+     * @param operation Name der Operation (zugleich Name des Timers)
+     * @param sql       ausgeführtes SQL bzw. kurze Beschreibung
+     * @return laufende Messung
+     */
+    public static QueryTrace start(String operation, String sql) {
+        return new QueryTrace(operation, sql);
+    }
+
+    /**
+     * @param rowCount Anzahl gelesener bzw. geänderter Zeilen
+     */
+    public void setRowCount(int rowCount) {
+        event.rowCount = rowCount;
+    }
+
+    /**
+     * @param nanos geforderte Ruhezeit in Nanosekunden
+     * @return true, wenn keine Abfrage läuft und die letzte mindestens so lange zurückliegt
+     */
+    public static boolean isIdle(long nanos) {
+        return ACTIVE.get() == 0 && System.nanoTime() - lastActivity >= nanos;
+    }
+
+    @Override
+    public void close() {
+        sample.close();
+        event.commit();
+        lastActivity = System.nanoTime();
+        ACTIVE.decrementAndGet();
+    }
+}
@@ -0,0 +1,21 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für das Anzeigen eines Rezepts im Hauptfenster ({@code showRecipeDetails}).
+ */
+@Name("de.gfn.ikladde.RecipeDisplay")
+@Label("Rezept anzeigen")
+@Category({"iKladde", "Oberfläche"})
+public class RecipeDisplayEvent extends Event {
+
+    @Label("Rezept-ID")
+    public int recipeId;
+
+    @Label("Rezept")
+    public String recipeName;
+}
@@ -0,0 +1,48 @@
+package monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Erfasst Zeitpunkte beim Programmstart (in Millisekunden seit JVM-Start)
+ * und gibt sie nach dem Laden der Daten als kurzen Bericht aus.
+ */
+public final class StartupTimer {
+
+    private static final Map<String, Long> MARKS = new LinkedHashMap<>();
+    private static boolean reported;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * @param phase Name des erreichten Startabschnitts
+     */
+    public static synchronized void mark(String phase) {
+        MARKS.putIfAbsent(phase, ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Gibt den Startbericht einmalig auf der Konsole aus.
+     */
+    public static synchronized void report() {
+        if (reported) return;
+        reported = true;
+        StringBuilder sb = new StringBuilder("Startzeiten (ms seit JVM-Start):");
+        long previous = 0;
+        for (Map.Entry<String, Long> e : MARKS.entrySet()) {
+            sb.append(System.lineSeparator())
+                    .append(String.format("  %-22s %6d  (+%d)", e.getKey(), e.getValue(), e.getValue() - previous));
+            previous = e.getValue();
+        }
+        System.out.println(sb);
+    }
+
+    /**
+     * @return erfasste Zeitpunkte in Reihenfolge des Auftretens
+     */
+    public static synchronized Map<String, Long> getMarks() {
+        return new LinkedHashMap<>(MARKS);
+    }
+}
@@ -0,0 +1,97 @@
+package monitoring;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Misst Aufrufanzahl, Gesamtdauer, Maximum und Latenzverteilung einer Operation.
+ * Verwendung mit try-with-resources:
+ * <pre>
+ * try (Timer.Sample s = Metrics.time("dao.getAllRecipes")) { ... }
+ * </pre>
+ */
+public class Timer implements TimerMXBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final Histogram histogram = new Histogram();
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Laufende Messung; beim Schließen wird die Dauer erfasst.
+     */
+    public final class Sample implements AutoCloseable {
+        private final long start = System.nanoTime();
+        private final String previousOperation = ActiveOperation.enter(name);
+
+        private Sample() {
+        }
+
+        @Override
+        public void close() {
+            record(System.nanoTime() - start);
+            ActiveOperation.exit(previousOperation);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return neue Messung, die beim Schließen erfasst wird
+     */
+    public Sample time() {
+        return new Sample();
+    }
+
+    /**
+     * @param nanos gemessene Dauer in Nanosekunden
+     */
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram.record(nanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return histogram.percentileMillis(50);
+    }
+
+    @Override
+    public double getP95Millis() {
+        return histogram.percentileMillis(95);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return histogram.percentileMillis(99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,19 @@
+package monitoring;
+
+/**
+ * JMX-Sicht auf einen {@link Timer}.
+ */
+public interface TimerMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,149 @@
+package print;
+
+import model.Recipe;
+import model.RecipeManager;
+import monitoring.Metrics;
+import monitoring.Timer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Erzeugt druckfertige PDF-Dateien für einzelne Rezepte oder ganze Kochbücher.
+ *
+ * <p>Im Kochbuch-Modus setzen mehrere Worker-Threads die Rezepte parallel, während der aufrufende
+ * Thread die fertigen Seiten in Rezeptreihenfolge in die Datei schreibt. Es sind nur wenige Rezepte
+ * gleichzeitig in Arbeit, sodass auch Kochbücher mit Tausenden Rezepten wenig Speicher brauchen.
+ * Gesetzte Rezepte werden zwischengespeichert und beim nächsten Druck wiederverwendet,
+ * solange sie sich nicht geändert haben.</p>
+ */
+public class CookbookRenderer {
+
+    private final LayoutCache cache = new LayoutCache(64L * 1024 * 1024);
+    private final int threads;
+
+    public CookbookRenderer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads Anzahl Worker-Threads für den Kochbuch-Modus
+     */
+    public CookbookRenderer(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Druckt ein einzelnes Rezept als PDF.
+     *
+     * @param recipe   Rezept
+     * @param portions gewünschte Portionen (0 = wie im Rezept)
+     * @param target   Zieldatei
+     * @return Anzahl Seiten
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     */
+    public int renderRecipe(Recipe recipe, int portions, File target) throws IOException {
+        return renderCookbook(List.of(recipe), portions, target);
+    }
+
+    /**
+     * Druckt mehrere Rezepte nacheinander in eine PDF-Datei. Jedes Rezept beginnt auf einer neuen Seite.
+     * Die Datei wird zuerst unter einem temporären Namen geschrieben und erst am Ende ersetzt.
+     *
+     * @param recipes  Rezepte in Druckreihenfolge
+     * @param portions gewünschte Portionen je Rezept (0 = wie im jeweiligen Rezept)
+     * @param target   Zieldatei
+     * @return Anzahl Seiten
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     */
+    public int renderCookbook(List<Recipe> recipes, int portions, File target) throws IOException {
+        File tmp = new File(target.getPath() + ".tmp");
+        int pageCount;
+        try (Timer.Sample sample = Metrics.time("print.renderCookbook")) {
+            if (recipes.size() == 1 || threads == 1) {
+                try (PdfWriter pdf = new PdfWriter(new FileOutputStream(tmp))) {
+                    for (Recipe recipe : recipes) {
+                        for (PageLayout page : cache.get(recipe, portions)) {
+                            pdf.addPage(page);
+                        }
+                    }
+                    pageCount = Math.max(1, pdf.getPageCount());
+                }
+            } else {
+                pageCount = renderParallel(recipes, portions, tmp);
+            }
+        } catch (IOException | RuntimeException e) {
+            tmp.delete();
+            throw e;
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Metrics.counter("print.pages").add(pageCount);
+        return pageCount;
+    }
+
+    private int renderParallel(List<Recipe> recipes, int portions, File file) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "print-worker-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Höchstens so viele Rezepte gleichzeitig in Arbeit; der Schreiber wartet jeweils auf das älteste
+        int window = threads * 4;
+        Deque<Future<List<PageLayout>>> inFlight = new ArrayDeque<>(window);
+        try (PdfWriter pdf = new PdfWriter(new FileOutputStream(file))) {
+            int next = 0;
+            while (next < recipes.size() || !inFlight.isEmpty()) {
+                while (next < recipes.size() && inFlight.size() < window) {
+                    Recipe recipe = recipes.get(next++);
+                    inFlight.add(workers.submit(() -> cache.get(recipe, portions)));
+                }
+                for (PageLayout page : inFlight.poll().get()) {
+                    pdf.addPage(page);
+                }
+            }
+            return Math.max(1, pdf.getPageCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Druck abgebrochen", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Rezept konnte nicht gesetzt werden", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Druckt alle Rezepte des Standardkatalogs als Kochbuch.
+     * Aufruf: {@code CookbookRenderer kochbuch.pdf [portionen] [durchläufe]}; ab dem zweiten Durchlauf
+     * kommen unveränderte Rezepte aus dem Zwischenspeicher.
+     *
+     * @param args Zieldatei, optional Portionen und Anzahl Durchläufe
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     */
+    public static void main(String[] args) throws IOException {
+        File target = new File(args.length > 0 ? args[0] : "kochbuch.pdf");
+        int portions = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        RecipeManager manager = new RecipeManager();
+        manager.loadData();
+        CookbookRenderer renderer = new CookbookRenderer();
+        for (int run = 1; run <= runs; run++) {
+            long start = System.nanoTime();
+            int pages = renderer.renderCookbook(manager.getRecipes(), portions, target);
+            System.out.printf("Durchlauf %d: %d Rezepte, %d Seiten in %.0f ms → %s (%d KB)%n", run, manager.getRecipes().size(),
+                    pages, (System.nanoTime() - start) / 1e6, target, target.length() / 1024);
+        }
+    }
+}
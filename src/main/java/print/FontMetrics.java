@@ -0,0 +1,83 @@
+package print;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Zeichenbreiten der PDF-Standardschriften Helvetica und Helvetica-Bold (aus den Adobe-AFM-Dateien,
+ * in 1/1000 der Schriftgröße), damit Texte ohne eingebettete Schrift umbrochen werden können.
+ * Zeichen werden in WinAnsi (Windows-1252) kodiert; nicht darstellbare Zeichen werden zu '?'.
+ */
+final class FontMetrics {
+
+    static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    private static final int[] REGULAR = new int[256];
+    private static final int[] BOLD = new int[256];
+
+    static {
+        int[] regularAscii = {
+                278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+                556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+                1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+                667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+                333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+                556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584};
+        int[] boldAscii = {
+                278, 333, 474, 556, 556, 889, 722, 238, 333, 333, 389, 584, 278, 333, 278, 278,
+                556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 333, 333, 584, 584, 584, 611,
+                975, 722, 722, 722, 722, 667, 611, 778, 722, 278, 556, 722, 611, 833, 722, 778,
+                667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 333, 278, 333, 584, 556,
+                333, 556, 611, 556, 611, 556, 333, 611, 611, 278, 278, 556, 278, 889, 611, 611,
+                611, 611, 389, 556, 333, 611, 556, 778, 556, 556, 500, 389, 280, 389, 584};
+        Arrays.fill(REGULAR, 556);
+        Arrays.fill(BOLD, 611);
+        System.arraycopy(regularAscii, 0, REGULAR, 32, regularAscii.length);
+        System.arraycopy(boldAscii, 0, BOLD, 32, boldAscii.length);
+        // Umlaute und häufige Sonderzeichen in Rezepten
+        set(0xC4, 667, 722); // Ä
+        set(0xD6, 778, 778); // Ö
+        set(0xDC, 722, 722); // Ü
+        set(0xDF, 611, 611); // ß
+        set(0xE4, 556, 556); // ä
+        set(0xF6, 556, 611); // ö
+        set(0xFC, 556, 611); // ü
+        set(0xE9, 556, 556); // é
+        set(0xE8, 556, 556); // è
+        set(0xB0, 400, 400); // °
+        set(0xBD, 834, 834); // ½
+        set(0xBC, 834, 834); // ¼
+        set(0xB7, 278, 278); // ·
+        set(0x96, 556, 556); // –
+        set(0x84, 333, 500); // „
+        set(0x93, 333, 500); // “
+        set(0x80, 556, 556); // €
+    }
+
+    private FontMetrics() {
+    }
+
+    private static void set(int code, int regular, int bold) {
+        REGULAR[code] = regular;
+        BOLD[code] = bold;
+    }
+
+    /**
+     * @return Text in WinAnsi-Kodierung
+     */
+    static byte[] encode(String text) {
+        return text.getBytes(WIN_ANSI);
+    }
+
+    /**
+     * Breite eines Texts in Punkt.
+     */
+    static float width(String text, boolean bold, float size) {
+        int[] widths = bold ? BOLD : REGULAR;
+        int total = 0;
+        for (byte b : encode(text)) {
+            total += widths[b & 0xFF];
+        }
+        return total * size / 1000f;
+    }
+}
@@ -0,0 +1,116 @@
+package print;
+
+import model.Ingredient;
+import model.Recipe;
+import model.Step;
+import model.Tag;
+import monitoring.Metrics;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bereits gesetzte Rezepte, begrenzt auf eine Gesamtgröße in Bytes (LRU).
+ * Ein Eintrag gilt nur, solange sich Inhalt und Foto des Rezepts nicht geändert haben;
+ * dazu wird ein Fingerabdruck über alle gedruckten Angaben gespeichert.
+ */
+class LayoutCache {
+
+    private static class Entry {
+        final long fingerprint;
+        final List<PageLayout> pages;
+        final long size;
+
+        Entry(long fingerprint, List<PageLayout> pages) {
+            this.fingerprint = fingerprint;
+            this.pages = pages;
+            long total = 0;
+            for (PageLayout page : pages) {
+                total += page.getSize();
+            }
+            this.size = total;
+        }
+    }
+
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes = 0;
+
+    LayoutCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gibt die Seiten eines Rezepts zurück und setzt es bei Bedarf neu.
+     * Ungespeicherte Rezepte (ID 0) werden nicht zwischengespeichert.
+     *
+     * @param recipe   Rezept
+     * @param portions gewünschte Portionen (0 = wie im Rezept)
+     * @return Seiten
+     */
+    List<PageLayout> get(Recipe recipe, int portions) {
+        if (recipe.getId() == 0) {
+            return RecipeLayout.layout(recipe, portions);
+        }
+        String key = recipe.getId() + ":" + portions;
+        long fingerprint = fingerprint(recipe);
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.fingerprint == fingerprint) {
+                Metrics.counter("print.layoutCacheHits").increment();
+                return cached.pages;
+            }
+        }
+        Metrics.counter("print.layoutCacheMisses").increment();
+        // Setzen außerhalb der Sperre, damit die Worker-Threads parallel arbeiten
+        Entry entry = new Entry(fingerprint, RecipeLayout.layout(recipe, portions));
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) totalBytes -= previous.size;
+            totalBytes += entry.size;
+            Iterator<Entry> it = entries.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                totalBytes -= it.next().size;
+                it.remove();
+            }
+        }
+        return entry.pages;
+    }
+
+    /**
+     * Fingerabdruck aller gedruckten Angaben. Komprimierte Schritte werden über ihre Bytes
+     * erfasst, damit sie dafür nicht entpackt werden müssen.
+     */
+    static long fingerprint(Recipe r) {
+        long h = 1125899906842597L;
+        h = mix(h, String.valueOf(r.getName()).hashCode());
+        h = mix(h, r.getRating());
+        h = mix(h, r.getPortions());
+        for (Tag tag : r.getTags()) {
+            h = mix(h, tag.getName().hashCode());
+        }
+        for (Ingredient ing : r.getIngredients()) {
+            h = mix(h, String.valueOf(ing.getName()).hashCode());
+            h = mix(h, Double.hashCode(ing.getQuantity()));
+            h = mix(h, String.valueOf(ing.getUnit()).hashCode());
+        }
+        for (Step step : r.getSteps()) {
+            h = mix(h, step.getCompressed() != null ? Arrays.hashCode(step.getCompressed()) : String.valueOf(step.getDescription()).hashCode());
+        }
+        if (r.getPhoto() != null && r.getPhoto().getFilePath() != null) {
+            File photo = new File(r.getPhoto().getFilePath());
+            h = mix(h, photo.getPath().hashCode());
+            h = mix(h, Long.hashCode(photo.lastModified()));
+            h = mix(h, Long.hashCode(photo.length()));
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        return (h ^ value) * 0x100000001B3L;
+    }
+}
@@ -0,0 +1,67 @@
+package print;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Eine fertig gesetzte Seite: komprimierter PDF-Inhaltsstrom und optional ein JPEG-Bild (/Im0).
+ * Seiten sind unveränderlich und können daher zwischengespeichert und mehrfach geschrieben werden.
+ */
+final class PageLayout {
+
+    static final PageLayout EMPTY = new PageLayout(new byte[0], null, 0, 0);
+
+    private final byte[] content;
+    private final byte[] jpeg;
+    private final int imageWidth;
+    private final int imageHeight;
+
+    /**
+     * @param operators   unkomprimierter Inhaltsstrom
+     * @param jpeg        Bilddaten oder null
+     * @param imageWidth  Bildbreite in Pixeln
+     * @param imageHeight Bildhöhe in Pixeln
+     */
+    PageLayout(byte[] operators, byte[] jpeg, int imageWidth, int imageHeight) {
+        this.content = deflate(operators);
+        this.jpeg = jpeg;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+    }
+
+    byte[] getContent() {
+        return content;
+    }
+
+    byte[] getJpeg() {
+        return jpeg;
+    }
+
+    int getImageWidth() {
+        return imageWidth;
+    }
+
+    int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * @return ungefährer Speicherbedarf in Bytes
+     */
+    long getSize() {
+        return content.length + (jpeg != null ? jpeg.length : 0) + 32;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+}
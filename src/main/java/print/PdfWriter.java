@@ -0,0 +1,157 @@
+package print;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schreibt ein PDF-Dokument Seite für Seite direkt in einen Ausgabestrom.
+ * Jede Seite wird sofort geschrieben; im Speicher bleiben nur die Objektpositionen für die
+ * Querverweistabelle. Verwendet werden nur die Standardschriften Helvetica und Helvetica-Bold
+ * (ohne Einbettung) sowie JPEG-Bilder, die unverändert übernommen werden.
+ */
+class PdfWriter implements Closeable {
+
+    static final float PAGE_WIDTH = 595.28f;
+    static final float PAGE_HEIGHT = 841.89f;
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT_REGULAR = 3;
+    private static final int FONT_BOLD = 4;
+
+    private final CountingStream out;
+    /** Dateiposition je Objektnummer (Index 0 bleibt frei). */
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageIds = new ArrayList<>();
+
+    PdfWriter(OutputStream out) throws IOException {
+        this.out = new CountingStream(new BufferedOutputStream(out, 64 * 1024));
+        offsets.add(0L);
+        for (int i = CATALOG; i <= FONT_BOLD; i++) {
+            offsets.add(-1L);
+        }
+        write("%PDF-1.4\n%âãÏÓ\n");
+        writeFont(FONT_REGULAR, "Helvetica");
+        writeFont(FONT_BOLD, "Helvetica-Bold");
+    }
+
+    /**
+     * Schreibt eine fertig gesetzte Seite.
+     *
+     * @param page Seite mit komprimiertem Inhaltsstrom und optionalem Bild
+     */
+    void addPage(PageLayout page) throws IOException {
+        int imageId = 0;
+        if (page.getJpeg() != null) {
+            imageId = beginObject();
+            write("<< /Type /XObject /Subtype /Image /Width " + page.getImageWidth() + " /Height " + page.getImageHeight()
+                    + " /ColorSpace /DeviceRGB /BitsPerComponent 8 /Filter /DCTDecode /Length " + page.getJpeg().length + " >>\nstream\n");
+            out.write(page.getJpeg());
+            write("\nendstream\nendobj\n");
+        }
+
+        int contentId = beginObject();
+        write("<< /Length " + page.getContent().length + " /Filter /FlateDecode >>\nstream\n");
+        out.write(page.getContent());
+        write("\nendstream\nendobj\n");
+
+        int pageId = beginObject();
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+                + " /Resources << /Font << /F1 " + FONT_REGULAR + " 0 R /F2 " + FONT_BOLD + " 0 R >>"
+                + (imageId != 0 ? " /XObject << /Im0 " + imageId + " 0 R >>" : "")
+                + " >> /Contents " + contentId + " 0 R >>\nendobj\n");
+        pageIds.add(pageId);
+    }
+
+    /**
+     * @return Anzahl bisher geschriebener Seiten
+     */
+    int getPageCount() {
+        return pageIds.size();
+    }
+
+    /**
+     * Schreibt Seitenbaum, Katalog und Querverweistabelle und schließt den Strom.
+     */
+    @Override
+    public void close() throws IOException {
+        if (pageIds.isEmpty()) {
+            // Ein PDF ohne Seiten ist ungültig: leere Seite anhängen
+            addPage(PageLayout.EMPTY);
+        }
+        startObject(PAGES);
+        StringBuilder kids = new StringBuilder();
+        for (int id : pageIds) {
+            kids.append(id).append(" 0 R ");
+        }
+        write("<< /Type /Pages /Count " + pageIds.size() + " /Kids [" + kids + "] >>\nendobj\n");
+        startObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+        long xref = out.count;
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(offsets.size()).append("\n0000000000 65535 f \n");
+        for (int i = 1; i < offsets.size(); i++) {
+            table.append(String.format("%010d 00000 n \n", offsets.get(i)));
+        }
+        table.append("trailer\n<< /Size ").append(offsets.size()).append(" /Root ").append(CATALOG).append(" 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(table.toString());
+        out.close();
+    }
+
+    private void writeFont(int id, String baseFont) throws IOException {
+        startObject(id);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /" + baseFont + " /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    private int beginObject() throws IOException {
+        offsets.add(-1L);
+        int id = offsets.size() - 1;
+        startObject(id);
+        return id;
+    }
+
+    private void startObject(int id) throws IOException {
+        offsets.set(id, out.count);
+        write(id + " 0 obj\n");
+    }
+
+    private void write(String s) throws IOException {
+        out.write(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Zählt die geschriebenen Bytes für die Querverweistabelle.
+     */
+    private static class CountingStream extends OutputStream {
+        private final OutputStream target;
+        private long count = 0;
+
+        CountingStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package print;
+
+import model.Ingredient;
+import model.Recipe;
+import model.Step;
+import model.Tag;
+import model.UnitConverter;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Setzt ein Rezept auf A4-Seiten: Titel, Portionen und Tags, verkleinertes Foto,
+ * auf die gewünschte Portionszahl umgerechnete Zutaten und nummerierte Schritte.
+ * Passt der Inhalt nicht auf eine Seite, wird umbrochen; jede Seite erhält eine Fußzeile.
+ */
+final class RecipeLayout {
+
+    private static final float MARGIN = 56;
+    private static final float CONTENT_WIDTH = PdfWriter.PAGE_WIDTH - 2 * MARGIN;
+    private static final float TOP = PdfWriter.PAGE_HEIGHT - MARGIN;
+    private static final float BOTTOM = MARGIN + 20;
+    private static final float PHOTO_MAX_WIDTH = 240;
+    private static final float PHOTO_MAX_HEIGHT = 180;
+    /** Pixel je Punkt für das Foto (entspricht etwa 150 dpi). */
+    private static final float PHOTO_PIXELS_PER_POINT = 2;
+
+    private static final float BODY_SIZE = 11;
+    private static final float BODY_LEADING = 14.5f;
+
+    private final List<PageContent> pages = new ArrayList<>();
+    private PageContent page;
+    private float y;
+
+    private RecipeLayout() {
+    }
+
+    /**
+     * Setzt ein Rezept.
+     *
+     * @param recipe   Rezept
+     * @param portions gewünschte Portionen (0 = wie im Rezept)
+     * @return Seiten in Reihenfolge
+     */
+    static List<PageLayout> layout(Recipe recipe, int portions) {
+        return new RecipeLayout().render(recipe, portions);
+    }
+
+    private List<PageLayout> render(Recipe recipe, int portions) {
+        newPage();
+        int original = recipe.getPortions() > 0 ? recipe.getPortions() : 1;
+        int target = portions > 0 ? portions : original;
+        double factor = (double) target / original;
+
+        String name = recipe.getName() != null ? recipe.getName() : "";
+        for (String line : wrap(name, true, 20, CONTENT_WIDTH)) {
+            page.text(line, true, 20, MARGIN, y - 20);
+            y -= 25;
+        }
+
+        StringBuilder info = new StringBuilder("Für " + target + (target == 1 ? " Portion" : " Portionen"));
+        if (recipe.getRating() > 0) {
+            info.append("  ·  Bewertung ").append(recipe.getRating()).append("/5");
+        }
+        List<String> tagNames = new ArrayList<>();
+        for (Tag tag : recipe.getTags()) {
+            tagNames.add(tag.getName());
+        }
+        if (!tagNames.isEmpty()) {
+            info.append("  ·  ").append(String.join(", ", tagNames));
+        }
+        page.gray(0.4f);
+        for (String line : wrap(info.toString(), false, 10, CONTENT_WIDTH)) {
+            page.text(line, false, 10, MARGIN, y - 10);
+            y -= 13;
+        }
+        page.gray(0);
+        y -= 10;
+
+        if (recipe.getPhoto() != null && recipe.getPhoto().getFilePath() != null) {
+            placePhoto(new File(recipe.getPhoto().getFilePath()));
+        }
+
+        if (!recipe.getIngredients().isEmpty()) {
+            heading("Zutaten");
+            for (Ingredient ing : recipe.getIngredients()) {
+                Ingredient scaled = UnitConverter.toDisplay(new Ingredient(ing.getName(), ing.getQuantity() * factor, ing.getUnit()));
+                List<String> lines = wrap(scaled.getName() != null ? scaled.getName() : "", false, BODY_SIZE, CONTENT_WIDTH - 120);
+                ensureSpace(BODY_LEADING);
+                String quantity = formatQuantity(scaled.getQuantity());
+                page.text(quantity, false, BODY_SIZE, MARGIN + 60 - FontMetrics.width(quantity, false, BODY_SIZE), y - BODY_SIZE);
+                if (scaled.getUnit() != null) {
+                    page.text(scaled.getUnit(), false, BODY_SIZE, MARGIN + 66, y - BODY_SIZE);
+                }
+                for (int i = 0; i < lines.size(); i++) {
+                    if (i > 0) ensureSpace(BODY_LEADING);
+                    page.text(lines.get(i), false, BODY_SIZE, MARGIN + 120, y - BODY_SIZE);
+                    y -= BODY_LEADING;
+                }
+                if (lines.isEmpty()) y -= BODY_LEADING;
+            }
+            y -= 10;
+        }
+
+        if (!recipe.getSteps().isEmpty()) {
+            heading("Zubereitung");
+            int number = 1;
+            for (Step step : recipe.getSteps()) {
+                String text = step.getDescription() != null ? step.getDescription() : "";
+                List<String> lines = wrap(text, false, BODY_SIZE, CONTENT_WIDTH - 24);
+                ensureSpace(BODY_LEADING);
+                page.text(number++ + ".", true, BODY_SIZE, MARGIN, y - BODY_SIZE);
+                for (int i = 0; i < lines.size(); i++) {
+                    if (i > 0) ensureSpace(BODY_LEADING);
+                    page.text(lines.get(i), false, BODY_SIZE, MARGIN + 24, y - BODY_SIZE);
+                    y -= BODY_LEADING;
+                }
+                if (lines.isEmpty()) y -= BODY_LEADING;
+                y -= 6;
+            }
+        }
+
+        List<PageLayout> result = new ArrayList<>(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            PageContent p = pages.get(i);
+            p.gray(0.5f);
+            p.text(shorten(name, 380), false, 8, MARGIN, MARGIN);
+            String pageLabel = "Seite " + (i + 1) + " von " + pages.size();
+            p.text(pageLabel, false, 8, PdfWriter.PAGE_WIDTH - MARGIN - FontMetrics.width(pageLabel, false, 8), MARGIN);
+            result.add(p.toPage());
+        }
+        return result;
+    }
+
+    private void heading(String text) {
+        // Überschrift nicht allein am Seitenende stehen lassen
+        ensureSpace(22 + BODY_LEADING);
+        page.text(text, true, 13, MARGIN, y - 13);
+        page.line(MARGIN, y - 17, MARGIN + CONTENT_WIDTH, y - 17);
+        y -= 24;
+    }
+
+    private void placePhoto(File file) {
+        BufferedImage image;
+        try {
+            image = file.isFile() ? ImageIO.read(file) : null;
+        } catch (IOException e) {
+            image = null;
+        }
+        if (image == null) return;
+
+        float scale = Math.min(PHOTO_MAX_WIDTH / image.getWidth(), PHOTO_MAX_HEIGHT / image.getHeight());
+        float width = image.getWidth() * scale;
+        float height = image.getHeight() * scale;
+        int pixelWidth = Math.max(1, Math.min(image.getWidth(), Math.round(width * PHOTO_PIXELS_PER_POINT)));
+        int pixelHeight = Math.max(1, Math.min(image.getHeight(), Math.round(height * PHOTO_PIXELS_PER_POINT)));
+        BufferedImage scaled = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, pixelWidth, pixelHeight, Color.WHITE, null);
+        g.dispose();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(scaled, "jpg", jpeg);
+        } catch (IOException e) {
+            return;
+        }
+        ensureSpace(height + 14);
+        page.image(jpeg.toByteArray(), pixelWidth, pixelHeight, MARGIN, y - height, width, height);
+        y -= height + 14;
+    }
+
+    private void ensureSpace(float needed) {
+        if (y - needed < BOTTOM) {
+            newPage();
+        }
+    }
+
+    private void newPage() {
+        page = new PageContent();
+        pages.add(page);
+        y = TOP;
+    }
+
+    /**
+     * Bricht Text wortweise auf die angegebene Breite um; zu lange Wörter werden getrennt.
+     */
+    static List<String> wrap(String text, boolean bold, float size, float maxWidth) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\\r?\\n")) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.trim().split("\\s+")) {
+                if (word.isEmpty()) continue;
+                String candidate = line.length() == 0 ? word : line + " " + word;
+                if (FontMetrics.width(candidate, bold, size) <= maxWidth) {
+                    line.setLength(0);
+                    line.append(candidate);
+                    continue;
+                }
+                if (line.length() > 0) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                while (FontMetrics.width(word, bold, size) > maxWidth) {
+                    int cut = word.length() - 1;
+                    while (cut > 1 && FontMetrics.width(word.substring(0, cut), bold, size) > maxWidth) cut--;
+                    lines.add(word.substring(0, cut));
+                    word = word.substring(cut);
+                }
+                line.append(word);
+            }
+            if (line.length() > 0) lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static String shorten(String text, float maxWidth) {
+        if (FontMetrics.width(text, false, 8) <= maxWidth) return text;
+        String shortened = text;
+        while (shortened.length() > 1 && FontMetrics.width(shortened + "...", false, 8) > maxWidth) {
+            shortened = shortened.substring(0, shortened.length() - 1);
+        }
+        return shortened + "...";
+    }
+
+    /**
+     * Menge wie auf einem Einkaufszettel: ganze Zahlen ohne Nachkommastellen, sonst höchstens zwei.
+     */
+    static String formatQuantity(double quantity) {
+        if (quantity <= 0) return "";
+        double rounded = Math.round(quantity * 100) / 100.0;
+        if (rounded == Math.rint(rounded)) {
+            return Long.toString((long) rounded);
+        }
+        String text = String.format(Locale.GERMANY, "%.2f", rounded);
+        return text.endsWith("0") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * Sammelt die Zeichenbefehle einer Seite.
+     */
+    private static class PageContent {
+        private final ByteArrayOutputStream ops = new ByteArrayOutputStream(4096);
+        private byte[] jpeg;
+        private int imageWidth;
+        private int imageHeight;
+
+        void text(String text, boolean bold, float size, float x, float y) {
+            write("BT /" + (bold ? "F2 " : "F1 ") + num(size) + " Tf " + num(x) + " " + num(y) + " Td (");
+            for (byte b : FontMetrics.encode(text)) {
+                if (b == '(' || b == ')' || b == '\\') ops.write('\\');
+                ops.write(b);
+            }
+            write(") Tj ET\n");
+        }
+
+        void gray(float level) {
+            write(num(level) + " g\n");
+        }
+
+        void line(float x1, float y1, float x2, float y2) {
+            write("0.5 w 0.6 G " + num(x1) + " " + num(y1) + " m " + num(x2) + " " + num(y2) + " l S 0 G\n");
+        }
+
+        void image(byte[] data, int pixelWidth, int pixelHeight, float x, float y, float width, float height) {
+            jpeg = data;
+            imageWidth = pixelWidth;
+            imageHeight = pixelHeight;
+            write("q " + num(width) + " 0 0 " + num(height) + " " + num(x) + " " + num(y) + " cm /Im0 Do Q\n");
+        }
+
+        PageLayout toPage() {
+            return new PageLayout(ops.toByteArray(), jpeg, imageWidth, imageHeight);
+        }
+
+        private void write(String s) {
+            byte[] bytes = s.getBytes(FontMetrics.WIN_ANSI);
+            ops.write(bytes, 0, bytes.length);
+        }
+
+        private static String num(float value) {
+            return value == Math.rint(value) ? Integer.toString((int) value) : String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+}
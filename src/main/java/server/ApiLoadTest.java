@@ -0,0 +1,125 @@
+package server;
+
+import monitoring.Histogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Einfacher Lasttest für die {@link RecipeApiServer}-Schnittstelle auf localhost.
+ * Mehrere Threads rufen abwechselnd Liste, Suche, Rezeptdetails und Vorschaubilder ab;
+ * die Hälfte der Anfragen schickt das zuletzt erhaltene ETag mit.
+ *
+ * <p>Aufruf: {@code ApiLoadTest [basis-url|--embedded] [threads] [sekunden]}.
+ * Mit {@code --embedded} wird der Server im selben Prozess auf einem freien Port gestartet.</p>
+ */
+public class ApiLoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final String[] SEARCH_TERMS = {"salat", "kartoffel", "nudel", "suppe", "kuchen", "zwiebel"};
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://127.0.0.1:" + RecipeApiServer.DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        RecipeApiServer embedded = null;
+        if ("--embedded".equals(base)) {
+            embedded = new RecipeApiServer();
+            embedded.start(InetAddress.getLoopbackAddress(), 0);
+            base = "http://127.0.0.1:" + embedded.getPort();
+        }
+        String api = base + "/api/recipes";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Integer> ids = new ArrayList<>();
+        Matcher m = ID.matcher(client.send(HttpRequest.newBuilder(URI.create(api + "?limit=200")).build(),
+                HttpResponse.BodyHandlers.ofString()).body());
+        while (m.find()) {
+            ids.add(Integer.parseInt(m.group(1)));
+        }
+        if (ids.isEmpty()) {
+            System.out.println("Keine Rezepte gefunden – Lasttest abgebrochen.");
+            if (embedded != null) embedded.stop();
+            return;
+        }
+
+        Histogram latency = new Histogram();
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        Map<String, String> etags = new ConcurrentHashMap<>();
+        LongAdder bytes = new LongAdder();
+        LongAdder errors = new LongAdder();
+        Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String url = nextUrl(api, ids, random);
+                    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10));
+                    String etag = etags.get(url);
+                    if (etag != null && random.nextBoolean()) {
+                        request.header("If-None-Match", etag);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                        latency.record(System.nanoTime() - start);
+                        statusCounts.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                        bytes.add(response.body().length);
+                        response.headers().firstValue("ETag").ifPresent(value -> etags.put(url, value));
+                    } catch (IOException e) {
+                        errors.increment();
+                        errorTypes.computeIfAbsent(e.getClass().getSimpleName() + ": " + e.getMessage(), k -> new LongAdder()).increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }, "load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (embedded != null) embedded.stop();
+
+        long total = statusCounts.values().stream().mapToLong(LongAdder::sum).sum();
+        System.out.printf("Anfragen: %d in %d s (%.0f/s), Fehler: %d, %.1f MB%n",
+                total, seconds, (double) total / seconds, errors.sum(), bytes.sum() / 1e6);
+        System.out.printf("Latenz p50 %.2f ms, p95 %.2f ms, p99 %.2f ms%n",
+                latency.percentileMillis(50), latency.percentileMillis(95), latency.percentileMillis(99));
+        statusCounts.forEach((status, count) -> System.out.println("  HTTP " + status + ": " + count.sum()));
+        errorTypes.forEach((type, count) -> System.out.println("  Fehler " + type + ": " + count.sum()));
+    }
+
+    private static String nextUrl(String api, List<Integer> ids, ThreadLocalRandom random) {
+        int id = ids.get(random.nextInt(ids.size()));
+        return switch (random.nextInt(4)) {
+            case 0 -> api + "?offset=" + random.nextInt(Math.max(1, ids.size())) + "&limit=20";
+            case 1 -> api + "/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+            case 2 -> api + "/" + id + "?portions=" + (1 + random.nextInt(8));
+            default -> api + "/" + id + "/thumbnail?size=160";
+        };
+    }
+}
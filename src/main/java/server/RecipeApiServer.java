@@ -0,0 +1,525 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import database.Catalog;
+import database.CatalogMaintenance;
+import database.RecipeDAO;
+import model.*;
+import monitoring.Metrics;
+import monitoring.Timer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eingebetteter HTTP-Server, der den Rezeptbestand als JSON ausliefert, ohne die JavaFX-Oberfläche zu starten.
+ *
+ * <ul>
+ *     <li>{@code GET /api/recipes?offset=0&limit=50} – Seitenweise Liste</li>
+ *     <li>{@code GET /api/recipes/search?q=text&tag=a,b&limit=50} – Suche in Namen, Zutaten und Tags</li>
+ *     <li>{@code GET /api/recipes/{id}?portions=4} – Rezept mit auf die Portionen umgerechneten Mengen</li>
+ *     <li>{@code GET /api/recipes/shopping-list?ids=3,7:2,12&portions=4} – gemeinsame Einkaufsliste mehrerer Rezepte
+ *     ({@code id:portionen} für eine eigene Portionszahl, sonst {@code portions} bzw. die Originalportion)</li>
+ *     <li>{@code GET /api/recipes/cookable?have=Mehl,Eier&limit=20} – "Was kann ich kochen?": Rezepte mit den
+ *     meisten vorhandenen Zutaten und den noch fehlenden</li>
+ *     <li>{@code GET /api/recipes/{id}/thumbnail?size=240} – Vorschaubild als JPEG</li>
+ * </ul>
+ *
+ * <p>Alle Antworten tragen ein ETag; bei passendem {@code If-None-Match} wird nur 304 gesendet.
+ * JSON-Antworten hängen nur von der Generation des Katalogs und der Anfrage ab, das ETag wird daher
+ * berechnet, bevor die Antwort erzeugt wird. Listen werden direkt in den Antwortstrom geschrieben.</p>
+ */
+public class RecipeApiServer {
+
+    public static final int DEFAULT_PORT = 8077;
+    private static final String PREFIX = "/api/recipes";
+    private static final int MAX_LIMIT = 200;
+    /** Höchstens so oft wird die Datenbank nach Änderungen gefragt. */
+    private static final long GENERATION_CHECK_MS = 500;
+
+    private final RecipeDAO recipeDAO = new RecipeDAO();
+    private final RecipeManager recipeManager = new RecipeManager();
+    private final ShoppingListAggregator shoppingList = new ShoppingListAggregator();
+    private final ThumbnailCache thumbnails = new ThumbnailCache(32L * 1024 * 1024);
+    private final CatalogMaintenance maintenance = new CatalogMaintenance(Catalog.getDefault());
+    private volatile CatalogView view;
+    private volatile long generationCheckedAt = 0;
+    /** Gesetzt, solange im Hintergrund neu geladen wird. */
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+    private ExecutorService reloader;
+
+    /**
+     * Unveränderlicher Stand des Katalogs, den alle Anfragen ohne Sperre lesen.
+     */
+    private static class CatalogView {
+        final long generation;
+        final List<Recipe> recipes;
+        final Map<Integer, Recipe> byId = new HashMap<>();
+
+        CatalogView(long generation, List<Recipe> recipes) {
+            this.generation = generation;
+            this.recipes = Collections.unmodifiableList(new ArrayList<>(recipes));
+            for (Recipe r : recipes) {
+                byId.put(r.getId(), r);
+            }
+        }
+    }
+
+    /**
+     * Startet den Server.
+     *
+     * @param address Adresse, an die gebunden wird
+     * @param port    Port (0 = beliebiger freier Port)
+     * @throws IOException falls der Port nicht geöffnet werden kann
+     */
+    public void start(InetAddress address, int port) throws IOException {
+        reload(recipeDAO.getGeneration());
+        reloader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "api-reload");
+            t.setDaemon(true);
+            return t;
+        });
+        int workers = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Begrenzte Warteschlange + CallerRunsPolicy: bei Überlast bremst der Annahme-Thread
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 16), r -> {
+            Thread t = new Thread(r, "api-worker-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        // Ohne TCP_NODELAY warten kleine Antworten auf verzögerte ACKs (Nagle), das kostet ~40 ms je Anfrage
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(address, port), 128);
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(executor);
+        server.start();
+        maintenance.start();
+    }
+
+    /**
+     * Beendet den Server und wartet höchstens eine Sekunde auf laufende Anfragen.
+     */
+    public void stop() {
+        maintenance.stop();
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            reloader.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * @return tatsächlich verwendeter Port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) {
+        try (Timer.Sample sample = Metrics.time("api.request")) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Nur GET wird unterstützt");
+                return;
+            }
+            refreshIfChanged();
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.substring(PREFIX.length()).split("/");
+            List<String> parts = new ArrayList<>();
+            for (String s : segments) {
+                if (!s.isEmpty()) parts.add(s);
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if (parts.isEmpty()) {
+                handleList(exchange, query);
+            } else if (parts.size() == 1 && "search".equals(parts.get(0))) {
+                handleSearch(exchange, query);
+            } else if (parts.size() == 1 && "shopping-list".equals(parts.get(0))) {
+                handleShoppingList(exchange, query);
+            } else if (parts.size() == 1 && "cookable".equals(parts.get(0))) {
+                handleCookable(exchange, query);
+            } else if (parts.size() == 1) {
+                handleDetail(exchange, Integer.parseInt(parts.get(0)), query);
+            } else if (parts.size() == 2 && "thumbnail".equals(parts.get(1))) {
+                handleThumbnail(exchange, Integer.parseInt(parts.get(0)), query);
+            } else {
+                sendError(exchange, 404, "Unbekannter Pfad");
+            }
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Ungültige Zahl: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Interner Fehler");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleList(HttpExchange exchange, Map<String, String> query) throws IOException {
+        CatalogView current = view;
+        if (notModified(exchange, jsonETag(current, exchange))) return;
+        int offset = Math.max(0, intParam(query, "offset", 0));
+        int limit = Math.min(MAX_LIMIT, Math.max(1, intParam(query, "limit", 50)));
+        List<Recipe> page = current.recipes.subList(Math.min(offset, current.recipes.size()),
+                Math.min(offset + limit, current.recipes.size()));
+        streamJson(exchange, json -> {
+            json.beginObject();
+            json.name("total").value(current.recipes.size());
+            json.name("offset").value(offset);
+            json.name("limit").value(limit);
+            json.name("items").beginArray();
+            for (Recipe r : page) {
+                writeSummary(json, r);
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    private void handleSearch(HttpExchange exchange, Map<String, String> query) throws IOException {
+        CatalogView current = view;
+        if (notModified(exchange, jsonETag(current, exchange))) return;
+        String text = query.getOrDefault("q", "").trim().toLowerCase(Locale.ROOT);
+        List<String> tags = new ArrayList<>();
+        for (String t : query.getOrDefault("tag", "").split(",")) {
+            if (!t.isBlank()) tags.add(t.trim().toLowerCase(Locale.ROOT));
+        }
+        int limit = Math.min(MAX_LIMIT, Math.max(1, intParam(query, "limit", 50)));
+        streamJson(exchange, json -> {
+            json.beginObject();
+            json.name("items").beginArray();
+            int count = 0;
+            for (Recipe r : current.recipes) {
+                if (count >= limit) break;
+                if (matches(r, text, tags)) {
+                    writeSummary(json, r);
+                    count++;
+                }
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    private void handleDetail(HttpExchange exchange, int id, Map<String, String> query) throws IOException {
+        CatalogView current = view;
+        Recipe r = current.byId.get(id);
+        if (r == null) {
+            sendError(exchange, 404, "Rezept nicht gefunden");
+            return;
+        }
+        if (notModified(exchange, jsonETag(current, exchange))) return;
+        int original = r.getPortions() > 0 ? r.getPortions() : 1;
+        int portions = Math.max(1, intParam(query, "portions", original));
+        double factor = (double) portions / original;
+        streamJson(exchange, json -> {
+            json.beginObject();
+            json.name("id").value(r.getId());
+            json.name("name").value(r.getName());
+            json.name("rating").value(r.getRating());
+            json.name("portions").value(portions);
+            json.name("originalPortions").value(r.getPortions());
+            json.name("createdDate").value(r.getCreatedDate());
+            json.name("thumbnail").value(r.getPhoto() != null ? PREFIX + "/" + r.getId() + "/thumbnail" : null);
+            json.name("ingredients").beginArray();
+            for (Ingredient ing : r.getIngredients()) {
+                Ingredient scaled = UnitConverter.toDisplay(new Ingredient(ing.getName(), ing.getQuantity() * factor, ing.getUnit()));
+                json.beginObject();
+                json.name("name").value(scaled.getName());
+                json.name("quantity").value(Math.round(scaled.getQuantity() * 100) / 100.0);
+                json.name("unit").value(scaled.getUnit());
+                json.endObject();
+            }
+            json.endArray();
+            json.name("steps").beginArray();
+            for (Step step : r.getSteps()) {
+                json.value(step.getDescription());
+            }
+            json.endArray();
+            writeTags(json, r);
+            json.endObject();
+        });
+    }
+
+    private void handleShoppingList(HttpExchange exchange, Map<String, String> query) throws IOException {
+        CatalogView current = view;
+        Integer defaultPortions = query.containsKey("portions") ? Math.max(1, intParam(query, "portions", 1)) : null;
+        List<Recipe> selected = new ArrayList<>();
+        Map<Integer, Integer> targetPortions = new HashMap<>();
+        for (String entry : query.getOrDefault("ids", "").split(",")) {
+            if (entry.isBlank()) continue;
+            String[] idAndPortions = entry.trim().split(":", 2);
+            int id = Integer.parseInt(idAndPortions[0]);
+            Recipe r = current.byId.get(id);
+            if (r == null) {
+                sendError(exchange, 404, "Rezept " + id + " nicht gefunden");
+                return;
+            }
+            if (!targetPortions.containsKey(id)) selected.add(r);
+            if (idAndPortions.length == 2) {
+                targetPortions.put(id, Math.max(1, Integer.parseInt(idAndPortions[1])));
+            } else if (defaultPortions != null) {
+                targetPortions.put(id, defaultPortions);
+            } else {
+                targetPortions.put(id, r.getPortions());
+            }
+        }
+        if (selected.isEmpty()) {
+            sendError(exchange, 400, "Keine Rezepte angegeben (ids=1,2,3)");
+            return;
+        }
+        if (notModified(exchange, jsonETag(current, exchange))) return;
+        List<Ingredient> items = shoppingList.aggregate(selected, targetPortions);
+        streamJson(exchange, json -> {
+            json.beginObject();
+            json.name("recipes").beginArray();
+            for (Recipe r : selected) {
+                json.beginObject();
+                json.name("id").value(r.getId());
+                json.name("name").value(r.getName());
+                json.name("portions").value(targetPortions.get(r.getId()));
+                json.endObject();
+            }
+            json.endArray();
+            json.name("items").beginArray();
+            for (Ingredient ing : items) {
+                json.beginObject();
+                json.name("name").value(ing.getName());
+                json.name("quantity").value(Math.round(ing.getQuantity() * 100) / 100.0);
+                json.name("unit").value(ing.getUnit());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    private void handleCookable(HttpExchange exchange, Map<String, String> query) throws IOException {
+        List<String> pantry = new ArrayList<>();
+        for (String name : query.getOrDefault("have", "").split(",")) {
+            if (!name.isBlank()) pantry.add(name.trim());
+        }
+        if (pantry.isEmpty()) {
+            sendError(exchange, 400, "Keine Zutaten angegeben (have=Mehl,Eier)");
+            return;
+        }
+        if (notModified(exchange, jsonETag(view, exchange))) return;
+        int limit = Math.min(MAX_LIMIT, Math.max(1, intParam(query, "limit", 20)));
+        List<PantryMatch> matches = recipeManager.findCookable(pantry, limit);
+        streamJson(exchange, json -> {
+            json.beginObject();
+            json.name("items").beginArray();
+            for (PantryMatch m : matches) {
+                json.beginObject();
+                json.name("id").value(m.getRecipe().getId());
+                json.name("name").value(m.getRecipe().getName());
+                json.name("matched").value(m.getMatchedCount());
+                json.name("total").value(m.getTotalCount());
+                json.name("missing").beginArray();
+                for (String missing : m.getMissingIngredients()) {
+                    json.value(missing);
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    private void handleThumbnail(HttpExchange exchange, int id, Map<String, String> query) throws IOException {
+        Recipe r = view.byId.get(id);
+        File file = r != null && r.getPhoto() != null ? new File(r.getPhoto().getFilePath()) : null;
+        if (file == null || !file.isFile()) {
+            sendError(exchange, 404, "Kein Foto vorhanden");
+            return;
+        }
+        int size = Math.min(1024, Math.max(32, intParam(query, "size", 240)));
+        String etag = "\"t" + ThumbnailCache.key(file, size) + "\"";
+        if (notModified(exchange, etag)) return;
+        byte[] jpeg = thumbnails.get(file, size);
+        exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, jpeg.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(jpeg);
+        }
+    }
+
+    private static boolean matches(Recipe r, String text, List<String> tags) {
+        if (!tags.isEmpty() && r.getTags().stream().noneMatch(t -> tags.contains(t.getName().toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        if (text.isEmpty() || r.getName().toLowerCase(Locale.ROOT).contains(text)) {
+            return true;
+        }
+        for (Ingredient ing : r.getIngredients()) {
+            if (ing.getName().toLowerCase(Locale.ROOT).contains(text)) return true;
+        }
+        for (Tag tag : r.getTags()) {
+            if (tag.getName().toLowerCase(Locale.ROOT).contains(text)) return true;
+        }
+        return false;
+    }
+
+    private static void writeSummary(JsonWriter json, Recipe r) throws IOException {
+        json.beginObject();
+        json.name("id").value(r.getId());
+        json.name("name").value(r.getName());
+        json.name("rating").value(r.getRating());
+        json.name("portions").value(r.getPortions());
+        json.name("hasPhoto").value(r.getPhoto() != null);
+        writeTags(json, r);
+        json.endObject();
+    }
+
+    private static void writeTags(JsonWriter json, Recipe r) throws IOException {
+        json.name("tags").beginArray();
+        for (Tag tag : r.getTags()) {
+            json.value(tag.getName());
+        }
+        json.endArray();
+    }
+
+    /**
+     * Stößt das Neuladen im Hintergrund an, falls sich die Generation der Datenbank geändert hat.
+     * Bis der neue Stand fertig ist, beantworten die Anfragen weiter den bisherigen.
+     */
+    private void refreshIfChanged() {
+        long now = System.currentTimeMillis();
+        if (now - generationCheckedAt < GENERATION_CHECK_MS) return;
+        generationCheckedAt = now;
+        long generation = recipeDAO.getGeneration();
+        if (generation != view.generation && reloading.compareAndSet(false, true)) {
+            reloader.execute(() -> {
+                try {
+                    reload(generation);
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Lädt den Bestand und ersetzt den Stand, den die Anfragen sehen.
+     *
+     * @param generation Generation der Datenbank vor dem Laden
+     */
+    private void reload(long generation) {
+        recipeManager.loadData();
+        view = new CatalogView(generation, recipeManager.getRecipes());
+    }
+
+    private static String jsonETag(CatalogView current, HttpExchange exchange) {
+        return "\"g" + current.generation + "-" + Integer.toHexString(exchange.getRequestURI().toString().hashCode()) + "\"";
+    }
+
+    /**
+     * Sendet 304, falls der Client die aktuelle Version bereits hat; sonst wird das ETag gesetzt.
+     */
+    private static boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(",")).map(String::trim).anyMatch(etag::equals)) {
+            Metrics.counter("api.notModified").increment();
+            exchange.sendResponseHeaders(304, -1);
+            return true;
+        }
+        return false;
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * Schreibt eine JSON-Antwort mit Chunked-Encoding direkt in den Antwortstrom.
+     */
+    private static void streamJson(HttpExchange exchange, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+            body.write(new JsonWriter(writer));
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            byte[] body = ("{\"error\":\"" + message.replace("\"", "'") + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // Antwort wurde bereits begonnen oder der Client hat die Verbindung getrennt
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return result;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Startet den Server ohne Oberfläche.
+     * Port über das erste Argument oder {@code -Dikladde.api.port}; standardmäßig nur an localhost gebunden,
+     * mit {@code -Dikladde.api.bind=0.0.0.0} auch im lokalen Netz erreichbar (z. B. für Küchen-Tablets).
+     *
+     * @param args optional: Port
+     * @throws IOException falls der Port nicht geöffnet werden kann
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("ikladde.api.port", DEFAULT_PORT);
+        String bind = System.getProperty("ikladde.api.bind");
+        InetAddress address = bind != null ? InetAddress.getByName(bind) : InetAddress.getLoopbackAddress();
+        RecipeApiServer apiServer = new RecipeApiServer();
+        apiServer.start(address, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(apiServer::stop, "api-shutdown"));
+        System.out.println("iKladde-API läuft auf http://" + address.getHostAddress() + ":" + apiServer.getPort() + PREFIX);
+    }
+}
@@ -0,0 +1,82 @@
+package server;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verkleinerte Rezeptfotos als JPEG, begrenzt auf eine Gesamtgröße in Bytes (LRU).
+ * Der Schlüssel enthält Änderungszeit und Größe der Datei, sodass ein ersetztes Foto neu berechnet wird.
+ */
+class ThumbnailCache {
+
+    private final long maxBytes;
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+
+    ThumbnailCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Schlüssel für Cache und ETag eines Vorschaubilds.
+     */
+    static String key(File file, int size) {
+        return size + "-" + file.lastModified() + "-" + file.length() + "-" + file.getPath().hashCode();
+    }
+
+    /**
+     * Gibt das Vorschaubild zurück und berechnet es bei Bedarf.
+     *
+     * @param file Fotodatei
+     * @param size maximale Kantenlänge in Pixeln
+     * @return JPEG-Bytes
+     * @throws IOException falls das Bild nicht gelesen werden kann
+     */
+    byte[] get(File file, int size) throws IOException {
+        String key = key(file, size);
+        synchronized (this) {
+            byte[] cached = entries.get(key);
+            if (cached != null) return cached;
+        }
+        // Berechnung außerhalb der Sperre, damit andere Anfragen nicht warten
+        byte[] jpeg = render(file, size);
+        synchronized (this) {
+            if (entries.put(key, jpeg) == null) {
+                totalBytes += jpeg.length;
+            }
+            Iterator<byte[]> it = entries.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                totalBytes -= it.next().length;
+                it.remove();
+            }
+        }
+        return jpeg;
+    }
+
+    private static byte[] render(File file, int size) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("Unbekanntes Bildformat: " + file);
+        }
+        double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumb.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumb, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -16,10 +16,12 @@ import org.controlsfx.control.Rating;
 public class IkladdeAppView extends BorderPane {
 
     private final TextField filterField = new TextField();
-    private final CheckComboBox<Tag> tagCheckCombo = new CheckComboBox<>();
+    private CheckComboBox<Tag> tagCheckCombo;
+    private final StackPane tagComboSlot = new StackPane();
     private final Button sortByRatingButton = new Button("Nach Bewertung sortieren");
     private final ListView<Recipe> recipeListView = new ListView<>();
     private final Button manageRecipesButton = new Button("Rezeptverwaltung");
+    private final Button importButton = new Button("Ordner importieren");
 
     private final Label centerRecipeNameLabel = new Label();
     private final ImageView recipeImageView = new ImageView();
@@ -30,8 +32,10 @@ public class IkladdeAppView extends BorderPane {
     private final Button portion12Button = new Button("12");
 
     private final Label rightRecipeNameLabel = new Label();
-    private final Rating ratingControl = new Rating(5);
+    private Rating ratingControl;
+    private final StackPane ratingSlot = new StackPane();
     private final FlowPane tagsFlowPane = new FlowPane();
+    private final TagChipRenderer tagChips = new TagChipRenderer(tagsFlowPane);
     private final TextArea stepTextArea = new TextArea();
     private final Button prevStepButton = new Button("◀");
     private final Button nextStepButton = new Button("▶");
@@ -40,9 +44,12 @@ public class IkladdeAppView extends BorderPane {
     private final Button printButton = new Button("🖨️ Rezept ausdrucken");
     private final Label portionDisplayLabel = new Label();
     private final Label stepTitleLabel = new Label();
+    private final ListView<Recipe> similarRecipesListView = new ListView<>();
 
     /**
      * Erstellt das Hauptlayout mit linkem Filterbereich, mittlerem Bereich für Zutaten und rechtem Detailbereich.
+     * Die ControlsFX-Steuerelemente werden erst mit {@link #createDeferredControls()} erzeugt,
+     * damit das erste Bild ohne sie gezeichnet werden kann.
      */
     public IkladdeAppView() {
         this.getStyleClass().add("ikladde-app");
@@ -50,12 +57,17 @@ public class IkladdeAppView extends BorderPane {
         // Linker Bereich
         filterField.setPromptText("Suche");
         filterField.getStyleClass().add("filter-field");
-        tagCheckCombo.setTitle("Tags");
+        tagComboSlot.setAlignment(Pos.CENTER_LEFT);
+        tagComboSlot.setMinHeight(26);
         recipeListView.getStyleClass().add("recipe-list");
+        recipeListView.setCellFactory(list -> new RecipeListCell());
+        recipeListView.setFixedCellSize(RecipeListCell.HEIGHT);
+        setRecipesLoading(true);
         sortByRatingButton.getStyleClass().addAll("button", "sort-button");
         manageRecipesButton.getStyleClass().addAll("button", "manage-button");
+        importButton.getStyleClass().addAll("button", "manage-button");
 
-        VBox leftBox = new VBox(8, filterField, tagCheckCombo, sortByRatingButton, recipeListView, manageRecipesButton);
+        VBox leftBox = new VBox(8, filterField, tagComboSlot, sortByRatingButton, recipeListView, manageRecipesButton, importButton);
         leftBox.setPadding(new Insets(10));
         leftBox.setPrefWidth(220);
         leftBox.getStyleClass().add("sidebar");
@@ -111,7 +123,8 @@ public class IkladdeAppView extends BorderPane {
 
         // Rechter Bereich
         rightRecipeNameLabel.getStyleClass().add("right-recipe-title");
-        ratingControl.getStyleClass().add("rating-control");
+        ratingSlot.setAlignment(Pos.CENTER_LEFT);
+        ratingSlot.setMinHeight(24);
 
         tagsFlowPane.setHgap(6);
         tagsFlowPane.setVgap(6);
@@ -129,16 +142,15 @@ public class IkladdeAppView extends BorderPane {
 
         printButton.getStyleClass().add("button");
 
-        printButton.setOnAction(e -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Druckfunktion ist noch nicht implementiert.");
-            alert.setHeaderText(null);
-            alert.showAndWait();
-        });
+        similarRecipesListView.setPrefHeight(110);
+        similarRecipesListView.getStyleClass().add("similar-list");
+        Label similarLabel = new Label("Ähnliche Rezepte:");
+        VBox similarBox = new VBox(5, similarLabel, similarRecipesListView);
 
         HBox stepButtons = new HBox(10, prevStepButton, nextStepButton);
         stepButtons.setAlignment(Pos.CENTER);
 
-        VBox.setMargin(ratingControl, new Insets(15, 0, 0, 0));
+        VBox.setMargin(ratingSlot, new Insets(15, 0, 0, 0));
         VBox.setMargin(tagsFlowPane, new Insets(15, 0, 0, 0));
         VBox.setMargin(stepTextArea, new Insets(35, 0, 0, 0));
         VBox.setMargin(stepButtons, new Insets(5, 0, 0, 0));
@@ -150,11 +162,12 @@ public class IkladdeAppView extends BorderPane {
         VBox rightBox = new VBox(
                 10,
                 rightRecipeNameLabel,
-                ratingControl,
+                ratingSlot,
                 tagsFlowPane,
                 stepTitleLabel,
                 stepTextArea,
                 stepButtons,
+                similarBox,
                 bottomBox
         );
 
@@ -167,6 +180,37 @@ public class IkladdeAppView extends BorderPane {
         setRight(rightBox);
     }
 
+    /**
+     * Erzeugt Tag-Auswahl und Bewertung (ControlsFX) und setzt sie in das Layout ein.
+     * Wird nach dem ersten Frame aufgerufen; weitere Aufrufe haben keine Wirkung.
+     */
+    public void createDeferredControls() {
+        if (tagCheckCombo != null) return;
+        tagCheckCombo = new CheckComboBox<>();
+        tagCheckCombo.setTitle("Tags");
+        ratingControl = new Rating(5);
+        ratingControl.getStyleClass().add("rating-control");
+        tagComboSlot.getChildren().setAll(tagCheckCombo);
+        ratingSlot.getChildren().setAll(ratingControl);
+    }
+
+    /**
+     * Zeigt in der leeren Rezeptliste einen Ladehinweis bzw. den Hinweis auf eine leere Liste.
+     *
+     * @param loading true, solange die Rezepte noch geladen werden
+     */
+    public void setRecipesLoading(boolean loading) {
+        if (loading) {
+            ProgressIndicator progress = new ProgressIndicator();
+            progress.setMaxSize(32, 32);
+            VBox skeleton = new VBox(8, progress, new Label("Rezepte werden geladen …"));
+            skeleton.setAlignment(Pos.CENTER);
+            recipeListView.setPlaceholder(skeleton);
+        } else {
+            recipeListView.setPlaceholder(new Label("Keine Rezepte gefunden"));
+        }
+    }
+
     // Getter für UI-Elemente
 
     public TextField getFilterField() { return filterField; }
@@ -174,6 +218,7 @@ public class IkladdeAppView extends BorderPane {
     public Button getSortByRatingButton() { return sortByRatingButton; }
     public ListView<Recipe> getRecipeListView() { return recipeListView; }
     public Button getManageRecipesButton() { return manageRecipesButton; }
+    public Button getImportButton() { return importButton; }
 
     public Label getCenterRecipeNameLabel() { return centerRecipeNameLabel; }
     public Label getPortionDisplayLabel() { return portionDisplayLabel; }
@@ -188,9 +233,11 @@ public class IkladdeAppView extends BorderPane {
     public Label getRightRecipeNameLabel() { return rightRecipeNameLabel; }
     public Rating getRatingControl() { return ratingControl; }
     public FlowPane getTagsFlowPane() { return tagsFlowPane; }
+    public TagChipRenderer getTagChips() { return tagChips; }
     public TextArea getStepTextArea() { return stepTextArea; }
     public Button getPrevStepButton() { return prevStepButton; }
     public Button getNextStepButton() { return nextStepButton; }
     public Label getLastModifiedLabel() { return lastModifiedLabel; }
     public Button getPrintButton() { return printButton; }
+    public ListView<Recipe> getSimilarRecipesListView() { return similarRecipesListView; }
 }
\ No newline at end of file
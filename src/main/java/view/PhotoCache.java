@@ -0,0 +1,95 @@
+package view;
+
+import javafx.scene.image.Image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Zwischenspeicher für dekodierte Fotos, begrenzt auf eine Anzahl Bytes (Breite × Höhe × 4).
+ * Am längsten nicht benutzte Bilder werden zuerst verdrängt. Wird dasselbe Foto gerade in einem
+ * anderen Thread dekodiert, wartet ein weiterer Aufruf auf dieses Ergebnis statt erneut zu dekodieren.
+ */
+final class PhotoCache {
+
+    private final long maxBytes;
+    private long bytes = 0;
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Image>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxBytes Obergrenze für alle zwischengespeicherten Bilder zusammen
+     */
+    PhotoCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Image get(String path) {
+        return images.get(path);
+    }
+
+    /**
+     * @return true, wenn das Foto bereits dekodiert vorliegt (ändert die Verdrängungsreihenfolge nicht)
+     */
+    synchronized boolean contains(String path) {
+        return images.containsKey(path);
+    }
+
+    /**
+     * Gibt das Foto aus dem Zwischenspeicher zurück oder dekodiert es.
+     * Fehlerhafte Bilder werden zurückgegeben, aber nicht gespeichert.
+     *
+     * @param path    Pfad zur Bilddatei
+     * @param decoder dekodiert das Foto
+     * @return dekodiertes Bild
+     */
+    Image load(String path, Function<String, Image> decoder) {
+        Image cached = get(path);
+        if (cached != null) return cached;
+        CompletableFuture<Image> mine = new CompletableFuture<>();
+        CompletableFuture<Image> running = loading.putIfAbsent(path, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Image image = decoder.apply(path);
+            if (!image.isError()) {
+                put(path, image);
+            }
+            mine.complete(image);
+            return image;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(path);
+        }
+    }
+
+    /**
+     * Speichert ein fertig geladenes Bild.
+     */
+    synchronized void put(String path, Image image) {
+        Image old = images.put(path, image);
+        if (old != null) bytes -= sizeOf(old);
+        bytes += sizeOf(image);
+        Iterator<Map.Entry<String, Image>> eldest = images.entrySet().iterator();
+        // Das gerade gespeicherte Bild bleibt auch dann, wenn es allein die Grenze überschreitet
+        while (bytes > maxBytes && images.size() > 1) {
+            Image evicted = eldest.next().getValue();
+            eldest.remove();
+            bytes -= sizeOf(evicted);
+        }
+    }
+
+    private static long sizeOf(Image image) {
+        // Im Hintergrund geladene Bilder kennen ihre Größe erst am Ende; dann zählt die angeforderte Größe
+        double width = image.getWidth() > 0 ? image.getWidth() : image.getRequestedWidth();
+        double height = image.getHeight() > 0 ? image.getHeight() : image.getRequestedHeight();
+        return (long) width * (long) height * 4;
+    }
+}
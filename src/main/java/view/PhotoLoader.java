@@ -0,0 +1,108 @@
+package view;
+
+import javafx.scene.image.Image;
+import monitoring.Metrics;
+import monitoring.PhotoLoadEvent;
+import monitoring.Timer;
+
+/**
+ * Lädt Rezeptfotos von der Festplatte und erfasst dabei Dauer und Bildgröße
+ * als Messwert und als JFR-Ereignis. Dekodierte Fotos werden zwischengespeichert,
+ * sodass ein erneut oder vorab ({@link PhotoPrefetcher}) geladenes Foto sofort bereitsteht.
+ *
+ * <p>Fotos werden beim Dekodieren auf {@link #DETAIL_WIDTH} × {@link #DETAIL_HEIGHT} verkleinert. Die Kameras
+ * liefern 1500 bis 2400 Pixel Breite (6–13 MB dekodiert); so passen statt fünf bis zehn rund zwanzig Fotos in den
+ * Zwischenspeicher, genug für einen ganzen Vorlade-Durchgang samt den Nachbarn der Auswahl.</p>
+ */
+public final class PhotoLoader {
+
+    /**
+     * Größte dekodierte Breite und Höhe. Die Bildfläche im Hauptfenster ist 360 Pixel hoch und etwa so breit
+     * wie die Mitte des Fensters; die doppelte Höhe lässt Reserve für hochauflösende Bildschirme.
+     */
+    public static final int DETAIL_WIDTH = 1080;
+    public static final int DETAIL_HEIGHT = 720;
+
+    private static final PhotoCache CACHE = new PhotoCache(64L * 1024 * 1024);
+    private static final PhotoCache THUMBNAILS = new PhotoCache(16L * 1024 * 1024);
+
+    private PhotoLoader() {
+    }
+
+    /**
+     * Gibt ein Foto aus dem Zwischenspeicher zurück oder lädt und dekodiert es synchron
+     * (höchstens in Detailgröße).
+     *
+     * @param path Pfad zur Bilddatei (relativ zum Arbeitsverzeichnis oder absolut)
+     * @return dekodiertes Bild
+     */
+    public static Image load(String path) {
+        Image cached = CACHE.get(path);
+        if (cached != null) {
+            Metrics.counter("image.cacheHits").increment();
+            return cached;
+        }
+        Metrics.counter("image.cacheMisses").increment();
+        return CACHE.load(path, PhotoLoader::decode);
+    }
+
+    /**
+     * Gibt ein Vorschaubild aus dem Zwischenspeicher zurück oder startet das Laden im Hintergrund.
+     * Das Bild wird erst nach vollständigem Laden zwischengespeichert; wird es vorher nicht mehr
+     * gebraucht, kann es mit {@link Image#cancel()} abgebrochen werden.
+     *
+     * @param path Pfad zur Bilddatei
+     * @param size Kantenlänge in Pixeln (Seitenverhältnis bleibt erhalten)
+     * @return fertiges oder noch ladendes Bild
+     */
+    public static Image loadThumbnail(String path, double size) {
+        String key = path + "@" + size;
+        Image cached = THUMBNAILS.get(key);
+        if (cached != null) {
+            Metrics.counter("image.thumbnailHits").increment();
+            return cached;
+        }
+        Metrics.counter("image.thumbnailLoads").increment();
+        Image image = new Image("file:" + path, size, size, true, true, true);
+        image.progressProperty().addListener((obs, oldV, newV) -> {
+            if (newV.doubleValue() >= 1 && !image.isError()) {
+                THUMBNAILS.put(key, image);
+            }
+        });
+        return image;
+    }
+
+    /**
+     * Dekodiert ein Foto im aufrufenden (Hintergrund-)Thread in den Zwischenspeicher.
+     *
+     * @param path Pfad zur Bilddatei
+     */
+    static void prefetch(String path) {
+        if (!CACHE.contains(path)) {
+            CACHE.load(path, PhotoLoader::decode);
+            Metrics.counter("image.prefetched").increment();
+        }
+    }
+
+    /**
+     * @param path Pfad zur Bilddatei
+     * @return true, wenn das Foto bereits dekodiert vorliegt
+     */
+    static boolean isCached(String path) {
+        return CACHE.contains(path);
+    }
+
+    private static Image decode(String path) {
+        PhotoLoadEvent event = new PhotoLoadEvent();
+        event.begin();
+        Image image;
+        try (Timer.Sample sample = Metrics.time("image.decode")) {
+            image = new Image("file:" + path, DETAIL_WIDTH, DETAIL_HEIGHT, true, true);
+        }
+        event.path = path;
+        event.width = (int) image.getWidth();
+        event.height = (int) image.getHeight();
+        event.commit();
+        return image;
+    }
+}
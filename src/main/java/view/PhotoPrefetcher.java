@@ -0,0 +1,118 @@
+package view;
+
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import model.Recipe;
+import monitoring.Metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dekodiert die Fotos der Nachbarn des ausgewählten Rezepts und der sichtbaren Einträge einer Rezeptliste
+ * im Hintergrund vor, damit beim Blättern mit der Tastatur das Foto sofort bereitsteht.
+ *
+ * <p>Zuerst kommen die direkten Nachbarn der Auswahl an die Reihe (nächstes, vorheriges, übernächstes, ...),
+ * danach die übrigen sichtbaren Einträge. Ändert sich Auswahl, Bildlaufposition oder Liste, werden alle
+ * noch nicht begonnenen Aufträge verworfen; ein bereits laufendes Dekodieren wird zu Ende geführt
+ * und landet im Zwischenspeicher.</p>
+ */
+public class PhotoPrefetcher {
+
+    /** So viele Rezepte vor und nach der Auswahl werden vorgeladen. */
+    private static final int RADIUS = 3;
+    /**
+     * Höchstens so viele Fotos werden je Auslöser vorgeladen. Bei höchstens
+     * {@link PhotoLoader#DETAIL_WIDTH} × {@link PhotoLoader#DETAIL_HEIGHT} je Foto belegt ein Durchgang
+     * weniger als die Hälfte des Zwischenspeichers und verdrängt die zuerst geladenen Nachbarn nicht.
+     */
+    private static final int MAX_PREFETCH = 10;
+
+    private final ListView<Recipe> listView;
+    private final ThreadPoolExecutor worker;
+    private VirtualFlow<?> flow;
+
+    /**
+     * Beobachtet Auswahl, Inhalt und Bildlaufposition der Liste.
+     *
+     * @param listView Rezeptliste
+     */
+    public PhotoPrefetcher(ListView<Recipe> listView) {
+        this.listView = listView;
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "photo-prefetch");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+
+        listView.getSelectionModel().selectedIndexProperty().addListener((obs, oldV, newV) -> schedule());
+        listView.itemsProperty().addListener((obs, oldV, newV) -> schedule());
+        listView.skinProperty().addListener((obs, oldV, newV) -> attachFlow());
+        attachFlow();
+    }
+
+    /**
+     * Verwirft alle offenen Aufträge und beendet den Hintergrund-Thread.
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void attachFlow() {
+        if (listView.lookup(".virtual-flow") instanceof VirtualFlow<?> found && found != flow) {
+            flow = found;
+            flow.positionProperty().addListener((obs, oldV, newV) -> schedule());
+        }
+    }
+
+    /**
+     * Ermittelt die vorzuladenden Fotos und ersetzt damit die Warteschlange. Läuft im JavaFX-Thread.
+     */
+    private void schedule() {
+        List<Recipe> items = listView.getItems();
+        Set<String> paths = new LinkedHashSet<>();
+        int selected = listView.getSelectionModel().getSelectedIndex();
+        if (selected >= 0) {
+            for (int d = 1; d <= RADIUS; d++) {
+                addPhoto(paths, items, selected + d);
+                addPhoto(paths, items, selected - d);
+            }
+        }
+        if (flow == null) attachFlow();
+        IndexedCell<?> first = flow != null ? flow.getFirstVisibleCell() : null;
+        IndexedCell<?> last = flow != null ? flow.getLastVisibleCell() : null;
+        if (first != null && last != null) {
+            for (int i = first.getIndex(); i <= last.getIndex() && paths.size() < MAX_PREFETCH; i++) {
+                addPhoto(paths, items, i);
+            }
+        }
+
+        List<Runnable> dropped = new ArrayList<>();
+        worker.getQueue().drainTo(dropped);
+        if (!dropped.isEmpty()) {
+            Metrics.counter("image.prefetchCancelled").add(dropped.size());
+        }
+        int count = 0;
+        for (String path : paths) {
+            if (count++ >= MAX_PREFETCH) break;
+            worker.execute(() -> PhotoLoader.prefetch(path));
+        }
+    }
+
+    private static void addPhoto(Set<String> paths, List<Recipe> items, int index) {
+        if (index < 0 || index >= items.size()) return;
+        Recipe recipe = items.get(index);
+        if (recipe.getPhoto() == null || recipe.getPhoto().getFilePath() == null) return;
+        String path = recipe.getPhoto().getFilePath();
+        if (!PhotoLoader.isCached(path)) {
+            paths.add(path);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package view;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import model.Recipe;
+import model.Tag;
+
+import java.util.List;
+
+/**
+ * Zeile der Rezeptliste mit Vorschaubild, Name, Sternen und den ersten Tags.
+ *
+ * <p>Die Knoten werden einmal pro Zelle angelegt und beim Blättern nur mit neuen Texten und Bildern
+ * gefüllt; die Liste erzeugt nur so viele Zellen, wie gleichzeitig sichtbar sind. Vorschaubilder werden
+ * im Hintergrund geladen; verlässt ein Rezept die Zelle, bevor sein Bild fertig ist, wird das Laden abgebrochen.</p>
+ */
+public class RecipeListCell extends ListCell<Recipe> {
+
+    /** Feste Zeilenhöhe, damit die Liste Zeilen nicht einzeln vermessen muss. */
+    public static final double HEIGHT = 52;
+
+    private static final double THUMBNAIL_SIZE = 40;
+    private static final int MAX_TAGS = 3;
+    private static final String[] STARS = {"☆☆☆☆☆", "★☆☆☆☆", "★★☆☆☆", "★★★☆☆", "★★★★☆", "★★★★★"};
+
+    private final ImageView thumbnail = new ImageView();
+    private final Label nameLabel = new Label();
+    private final Label starsLabel = new Label();
+    private final Label tagsLabel = new Label();
+    private final HBox root;
+    private final StringBuilder tagText = new StringBuilder();
+    private String photoPath;
+
+    public RecipeListCell() {
+        thumbnail.setFitWidth(THUMBNAIL_SIZE);
+        thumbnail.setFitHeight(THUMBNAIL_SIZE);
+        thumbnail.setPreserveRatio(true);
+        StackPane thumbnailBox = new StackPane(thumbnail);
+        thumbnailBox.setMinSize(THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+        thumbnailBox.setPrefSize(THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+        thumbnailBox.getStyleClass().add("recipe-cell-thumbnail");
+
+        nameLabel.getStyleClass().add("recipe-cell-name");
+        starsLabel.getStyleClass().add("recipe-cell-stars");
+        tagsLabel.getStyleClass().add("recipe-cell-tags");
+        HBox details = new HBox(6, starsLabel, tagsLabel);
+        details.setAlignment(Pos.CENTER_LEFT);
+        VBox text = new VBox(2, nameLabel, details);
+        text.setAlignment(Pos.CENTER_LEFT);
+        text.setMinWidth(0);
+
+        root = new HBox(8, thumbnailBox, text);
+        root.setAlignment(Pos.CENTER_LEFT);
+        root.setPadding(new Insets(2, 0, 2, 0));
+        getStyleClass().add("recipe-cell");
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    @Override
+    protected void updateItem(Recipe recipe, boolean empty) {
+        super.updateItem(recipe, empty);
+        if (empty || recipe == null) {
+            showThumbnail(null);
+            setGraphic(null);
+            return;
+        }
+        nameLabel.setText(recipe.getName());
+        starsLabel.setText(STARS[Math.max(0, Math.min(5, recipe.getRating()))]);
+        tagsLabel.setText(topTags(recipe.getTags()));
+        showThumbnail(recipe.getPhoto() != null ? recipe.getPhoto().getFilePath() : null);
+        setGraphic(root);
+    }
+
+    private String topTags(List<Tag> tags) {
+        tagText.setLength(0);
+        for (int i = 0; i < tags.size() && i < MAX_TAGS; i++) {
+            if (i > 0) tagText.append(" · ");
+            tagText.append(tags.get(i).getName());
+        }
+        if (tags.size() > MAX_TAGS) tagText.append(" …");
+        return tagText.toString();
+    }
+
+    private void showThumbnail(String path) {
+        if (path != null && path.equals(photoPath)) return;
+        Image previous = thumbnail.getImage();
+        if (previous != null && previous.getProgress() < 1) {
+            previous.cancel();
+        }
+        photoPath = path;
+        thumbnail.setImage(path != null ? PhotoLoader.loadThumbnail(path, THUMBNAIL_SIZE * 2) : null);
+    }
+}
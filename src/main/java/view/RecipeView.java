@@ -27,10 +27,13 @@ public class RecipeView extends BorderPane {
     private final ListView<Tag> tagListView = new ListView<>();
     private final Button addTagButton = new Button("Tag +");
     private final Button removeTagButton = new Button("Tag -");
+    private final Button undoButton = new Button("Rückgängig");
+    private final Button redoButton = new Button("Wiederholen");
     private final Button saveButton = new Button("Speichern");
     private final Button addRecipeButton = new Button("Neu");
     private final Button removeRecipeButton = new Button("Löschen");
     private final Button closeButton = new Button("Schließen");
+    private final Button findDuplicatesButton = new Button("Duplikate");
 
     /**
      * Initialisiert das Layout für das Rezeptbearbeitungsfenster.
@@ -49,7 +52,7 @@ public class RecipeView extends BorderPane {
         photoBox.setAlignment(Pos.CENTER);
         photoBox.getStyleClass().add("photo-section");
 
-        VBox leftBox = new VBox(10, new Label("Rezepte:"), recipeListView, addRecipeButton, removeRecipeButton);
+        VBox leftBox = new VBox(10, new Label("Rezepte:"), recipeListView, addRecipeButton, removeRecipeButton, findDuplicatesButton);
         leftBox.setPadding(new Insets(10));
         leftBox.getStyleClass().add("sidebar");
 
@@ -60,7 +63,7 @@ public class RecipeView extends BorderPane {
         centerBox.setPadding(new Insets(10));
         centerBox.getStyleClass().add("editor-center");
 
-        HBox bottomBar = new HBox(10, saveButton, closeButton);
+        HBox bottomBar = new HBox(10, undoButton, redoButton, saveButton, closeButton);
         bottomBar.setAlignment(Pos.CENTER_RIGHT);
         bottomBar.setPadding(new Insets(10));
         bottomBar.getStyleClass().add("editor-buttons");
@@ -87,10 +90,13 @@ public class RecipeView extends BorderPane {
     public ListView<Tag> getTagListView() { return tagListView; }
     public Button getAddTagButton() { return addTagButton; }
     public Button getRemoveTagButton() { return removeTagButton; }
+    public Button getUndoButton() { return undoButton; }
+    public Button getRedoButton() { return redoButton; }
     public Button getSaveButton() { return saveButton; }
     public Button getAddRecipeButton() { return addRecipeButton; }
     public Button getRemoveRecipeButton() { return removeRecipeButton; }
     public Button getCloseButton() { return closeButton; }
+    public Button getFindDuplicatesButton() { return findDuplicatesButton; }
 
     /**
      * Aktualisiert das Bild im Editor.
@@ -98,7 +104,7 @@ public class RecipeView extends BorderPane {
      * @param path Pfad zur Bilddatei
      */
     public void updatePhoto(String path) {
-        imageView.setImage(new javafx.scene.image.Image("file:" + path));
+        imageView.setImage(PhotoLoader.load(path));
     }
 
     /**
@@ -111,7 +117,7 @@ public class RecipeView extends BorderPane {
         if (recipe != null) {
             nameField.setText(recipe.getName());
             portionsField.setText(String.valueOf(recipe.getPortions()));
-            imageView.setImage(recipe.getPhoto() != null ? new javafx.scene.image.Image("file:" + recipe.getPhoto().getFilePath()) : null);
+            imageView.setImage(recipe.getPhoto() != null ? PhotoLoader.load(recipe.getPhoto().getFilePath()) : null);
             ingredientListView.getItems().setAll(recipe.getIngredients());
             stepListView.getItems().setAll(recipe.getSteps());
             tagListView.getItems().setAll(recipe.getTags());
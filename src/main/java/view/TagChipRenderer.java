@@ -0,0 +1,49 @@
+package view;
+
+import javafx.scene.control.Label;
+import javafx.scene.layout.FlowPane;
+import model.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zeigt Tags als Chips in einem {@link FlowPane}. Die Chips werden wiederverwendet:
+ * Beim Wechsel des Rezepts erhalten vorhandene Labels nur einen neuen Text, überzählige werden
+ * ausgeblendet, und neue entstehen nur, wenn ein Rezept mehr Tags hat als jedes bisher gezeigte.
+ */
+public class TagChipRenderer {
+
+    private final FlowPane pane;
+    private final List<Label> chips = new ArrayList<>();
+
+    /**
+     * @param pane Bereich, in dem die Chips angezeigt werden
+     */
+    public TagChipRenderer(FlowPane pane) {
+        this.pane = pane;
+    }
+
+    /**
+     * Zeigt die Tags eines Rezepts an.
+     *
+     * @param tags anzuzeigende Tags (leer = keine Chips)
+     */
+    public void show(List<Tag> tags) {
+        while (chips.size() < tags.size()) {
+            Label chip = new Label();
+            chip.setStyle("-fx-border-color: gray; -fx-padding: 2;");
+            chips.add(chip);
+            pane.getChildren().add(chip);
+        }
+        for (int i = 0; i < chips.size(); i++) {
+            Label chip = chips.get(i);
+            boolean used = i < tags.size();
+            if (used) {
+                chip.setText(tags.get(i).getName());
+            }
+            chip.setVisible(used);
+            chip.setManaged(used);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package database;
+
+import database.CatalogSync.ConflictPolicy;
+import database.CatalogSync.SyncResult;
+import model.EditOperation;
+import model.Ingredient;
+import model.Recipe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Gleicht zwei temporäre Katalogdateien ab: die rechte ist eine Kopie der linken,
+ * danach werden beide Seiten getrennt bearbeitet.
+ */
+class CatalogSyncTest {
+
+    @TempDir
+    Path dir;
+
+    private File left;
+    private File right;
+    private final List<Catalog> open = new ArrayList<>();
+    private final CatalogSync sync = new CatalogSync();
+
+    @BeforeEach
+    void createCatalogs() throws IOException {
+        left = dir.resolve("links.db").toFile();
+        Catalog catalog = new Catalog("links", left);
+        List<Recipe> recipes = new ArrayList<>();
+        for (String name : new String[]{"Gulasch", "Kartoffelsalat", "Apfelkuchen"}) {
+            Recipe recipe = new Recipe(name);
+            recipe.setPortions(4);
+            recipe.addIngredient(new Ingredient("Zwiebel", 2, "Stk"));
+            recipes.add(recipe);
+        }
+        assertTrue(new RecipeDAO(catalog).insertRecipes(recipes));
+        catalog.close();
+        right = copy(left, "rechts.db");
+    }
+
+    @AfterEach
+    void closeCatalogs() {
+        open.forEach(Catalog::close);
+    }
+
+    @Test
+    void copiesOneSidedEdit() throws SQLException {
+        sync(ConflictPolicy.REPORT);
+        rename(left, "Gulasch", "Rindergulasch");
+
+        SyncResult result = sync(ConflictPolicy.REPORT);
+
+        assertEquals(1, result.getLeftToRight());
+        assertEquals(0, result.getRightToLeft());
+        assertEquals(names(left), names(right));
+        assertTrue(names(right).contains("Rindergulasch"));
+    }
+
+    @Test
+    void copiesDeletion() throws SQLException {
+        sync(ConflictPolicy.REPORT);
+        delete(right, "Apfelkuchen");
+
+        SyncResult result = sync(ConflictPolicy.REPORT);
+
+        assertEquals(1, result.getRightToLeft());
+        assertEquals(Set.of("Gulasch", "Kartoffelsalat"), names(left));
+    }
+
+    @Test
+    void reportsConflictAndLeavesBothSides() throws SQLException {
+        sync(ConflictPolicy.REPORT);
+        rename(left, "Gulasch", "Gulasch links");
+        rename(right, "Gulasch", "Gulasch rechts");
+
+        SyncResult result = sync(ConflictPolicy.REPORT);
+
+        assertEquals(1, result.getConflicts().size());
+        assertTrue(names(left).contains("Gulasch links"));
+        assertTrue(names(right).contains("Gulasch rechts"));
+        // offene Konflikte werden beim nächsten Abgleich erneut geprüft
+        assertEquals(1, sync(ConflictPolicy.REPORT).getConflicts().size());
+    }
+
+    @Test
+    void preferLeftResolvesConflict() throws SQLException {
+        sync(ConflictPolicy.REPORT);
+        rename(left, "Gulasch", "Gulasch links");
+        rename(right, "Gulasch", "Gulasch rechts");
+
+        SyncResult result = sync(ConflictPolicy.PREFER_LEFT);
+
+        assertTrue(result.getConflicts().isEmpty());
+        assertEquals(1, result.getLeftToRight());
+        assertEquals(names(left), names(right));
+        assertTrue(names(right).contains("Gulasch links"));
+    }
+
+    @Test
+    void preferRightResolvesConflict() throws SQLException {
+        sync(ConflictPolicy.REPORT);
+        rename(left, "Gulasch", "Gulasch links");
+        rename(right, "Gulasch", "Gulasch rechts");
+        sync(ConflictPolicy.REPORT);
+
+        SyncResult result = sync(ConflictPolicy.PREFER_RIGHT);
+
+        assertTrue(result.getConflicts().isEmpty());
+        assertEquals(1, result.getRightToLeft());
+        assertEquals(names(left), names(right));
+        assertTrue(names(left).contains("Gulasch rechts"));
+    }
+
+    @Test
+    void repeatedSyncChangesNothing() throws SQLException {
+        rename(left, "Gulasch", "Rindergulasch");
+        sync(ConflictPolicy.REPORT);
+
+        SyncResult result = sync(ConflictPolicy.REPORT);
+
+        assertEquals(0, result.getLeftToRight());
+        assertEquals(0, result.getRightToLeft());
+        assertEquals(0, result.getUnchanged());
+        assertTrue(result.getConflicts().isEmpty());
+    }
+
+    @Test
+    void deletedRecipeDoesNotReturnFromNewPeer() throws IOException, SQLException {
+        File backup = copy(left, "sicherung.db");
+        delete(left, "Apfelkuchen");
+        // Nach dem Abgleich kennen alle bekannten Gegenstellen die Löschung; das Protokoll wird gekürzt
+        sync(ConflictPolicy.REPORT);
+
+        SyncResult result = sync.sync(left, backup, ConflictPolicy.PREFER_RIGHT);
+
+        assertEquals(1, result.getLeftToRight());
+        assertEquals(Set.of("Gulasch", "Kartoffelsalat"), names(left));
+        assertEquals(names(left), names(backup));
+    }
+
+    private SyncResult sync(ConflictPolicy policy) throws SQLException {
+        return sync.sync(left, right, policy);
+    }
+
+    private File copy(File source, String name) throws IOException {
+        return Files.copy(source.toPath(), dir.resolve(name)).toFile();
+    }
+
+    private RecipeDAO dao(File file) {
+        Catalog catalog = new Catalog(file.getName(), file);
+        open.add(catalog);
+        return new RecipeDAO(catalog);
+    }
+
+    private Recipe find(File file, String name) {
+        return dao(file).getAllRecipes().stream().filter(r -> r.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    private void rename(File file, String from, String to) {
+        Recipe recipe = find(file, from);
+        assertNotNull(recipe, from);
+        assertTrue(dao(file).applyEdits(recipe.getId(), List.of(EditOperation.setName(from, to))));
+        assertNull(find(file, from));
+    }
+
+    private void delete(File file, String name) {
+        Recipe recipe = find(file, name);
+        assertNotNull(recipe, name);
+        dao(file).deleteRecipe(recipe.getId());
+    }
+
+    private Set<String> names(File file) {
+        Set<String> names = new TreeSet<>();
+        dao(file).getAllRecipes().forEach(r -> names.add(r.getName()));
+        return names;
+    }
+}
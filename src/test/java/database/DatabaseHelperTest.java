@@ -0,0 +1,54 @@
+package database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass eine fehlgeschlagene Schemaumstellung nicht als erledigt gilt.
+ */
+class DatabaseHelperTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void retriesMigrationAfterBusyDatabase() throws SQLException {
+        File file = dir.resolve("alt.db").toFile();
+        String url = "jdbc:sqlite:" + file.getPath();
+        try (Connection legacy = DriverManager.getConnection(url);
+             Statement stmt = legacy.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE recipe (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL,"
+                    + " photoPath TEXT, rating INTEGER DEFAULT 0, portions INTEGER DEFAULT 2, createdDate TEXT)");
+            stmt.executeUpdate("CREATE TABLE ingredient (id INTEGER PRIMARY KEY AUTOINCREMENT, recipe_id INTEGER NOT NULL,"
+                    + " name TEXT NOT NULL, quantity REAL, unit TEXT)");
+            stmt.executeUpdate("INSERT INTO recipe (name) VALUES ('Gulasch')");
+            stmt.executeUpdate("INSERT INTO ingredient (recipe_id, name, quantity, unit) VALUES (1, 'Zwiebel', 2, 'Stk')");
+
+            // Eine andere Verbindung hält die Datei gesperrt, etwa der API-Server während eines Schreibvorgangs
+            stmt.execute("BEGIN EXCLUSIVE");
+            assertThrows(SQLException.class, () -> DatabaseHelper.getConnection(file).close());
+            stmt.execute("COMMIT");
+        }
+
+        try (Connection conn = DatabaseHelper.getConnection(file);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT n.name, u.name FROM ingredient i"
+                     + " JOIN ingredient_name n ON n.id = i.name_id JOIN unit u ON u.id = i.unit_id")) {
+            assertTrue(rs.next(), "Zutat nach der Umstellung nicht lesbar");
+            assertEquals("Zwiebel", rs.getString(1));
+            assertEquals("Stk", rs.getString(2));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package model;
+
+import database.Catalog;
+import database.RecipeDAO;
+import database.StatisticsDAO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft den Ordnerimport mit dem deterministischen {@link SidecarTextExtractor} statt einer echten Texterkennung.
+ */
+class RecipeImportPipelineTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importsEveryImageAndStoresRecipes() throws IOException {
+        File folder = imageFolder(7);
+        Catalog catalog = new Catalog("Import", dir.resolve("import.db").toFile());
+        try {
+            RecipeManager manager = new RecipeManager(catalog);
+            List<RecipeChange> changes = new ArrayList<>();
+            manager.addChangeListener(changes::addAll, Runnable::run);
+            ImportResult result = new RecipeImportPipeline(new SidecarTextExtractor(), 2, 3, manager).importFolder(folder);
+
+            assertTrue(result.getFailed().isEmpty(), () -> "fehlgeschlagen: " + result.getFailed());
+            assertEquals(7, result.getImported().size());
+            RecipeDAO dao = new RecipeDAO(catalog);
+            List<Recipe> stored = dao.getAllRecipes();
+            assertEquals(names(result.getImported()), names(stored));
+            Recipe first = stored.stream().filter(r -> r.getName().equals("Rezept 0")).findFirst().orElseThrow();
+            assertEquals(4, first.getPortions());
+            assertEquals(2, dao.getIngredientsForRecipe(first.getId()).size());
+            assertEquals(1, dao.getStepsForRecipe(first.getId()).size());
+
+            // Ohne Neuladen im Bestand, in den Indizes und bei den Beobachtern angekommen
+            assertEquals(names(stored), names(manager.getRecipes()));
+            assertEquals(7, changes.stream().filter(c -> c.getType() == RecipeChange.Type.ADDED).count());
+            assertEquals(7, manager.findCookable(List.of("Mehl", "Ei"), 10).size());
+            assertEquals(7, manager.getStatistics().getRecipeCount());
+            assertSameStatistics(new StatisticsDAO(catalog).load(), manager.getStatistics());
+
+            // Speichern und Löschen führen die Kennzahlen im Speicher nach, wie es die Trigger in der Datenbank tun
+            Recipe changed = manager.getRecipes().get(0).copy();
+            changed.setRating(5);
+            changed.setPortions(6);
+            changed.addTag(new Tag("Schnell"));
+            manager.saveRecipe(changed);
+            manager.removeRecipe(manager.getRecipes().get(1));
+            assertEquals(6, manager.getStatistics().getRecipeCount());
+            assertSameStatistics(new StatisticsDAO(catalog).load(), manager.getStatistics());
+        } finally {
+            catalog.close();
+        }
+    }
+
+    private static void assertSameStatistics(CatalogStatistics expected, CatalogStatistics actual) {
+        assertEquals(expected.getRecipeCount(), actual.getRecipeCount());
+        assertEquals(expected.getIngredientCount(), actual.getIngredientCount());
+        assertEquals(expected.getTagCounts(), actual.getTagCounts());
+        assertArrayEquals(expected.getRatingHistogram(), actual.getRatingHistogram());
+        assertEquals(expected.getPortionCounts(), actual.getPortionCounts());
+    }
+
+    @Test
+    void reportsUnreadableImagesAndExtractorErrors() throws IOException {
+        File folder = imageFolder(4);
+        Files.writeString(folder.toPath().resolve("kaputt.png"), "kein Bild", StandardCharsets.UTF_8);
+        TextExtractor extractor = (image, source) -> {
+            if (source.getName().equals("rezept_2.png")) throw new IOException("nicht lesbar");
+            return new SidecarTextExtractor().extractText(image, source);
+        };
+        Catalog catalog = new Catalog("Import", dir.resolve("import.db").toFile());
+        try {
+            ImportResult result = new RecipeImportPipeline(extractor, 2, 2, new RecipeManager(catalog)).importFolder(folder);
+
+            assertEquals(Set.of(new File(folder, "kaputt.png"), new File(folder, "rezept_2.png")), result.getFailed().keySet());
+            assertEquals(3, result.getImported().size());
+            assertEquals(3, new RecipeDAO(catalog).getAllRecipes().size());
+        } finally {
+            catalog.close();
+        }
+    }
+
+    @Test
+    void reportsEveryFileOfFailedBatch() throws IOException {
+        File folder = imageFolder(5);
+        // Ein Verzeichnis lässt sich nicht als Datenbank öffnen, also schlägt jeder Block fehl
+        File notADatabase = Files.createDirectory(dir.resolve("kein.db")).toFile();
+        Catalog catalog = new Catalog("Import", notADatabase);
+        try {
+            ImportResult result = new RecipeImportPipeline(new SidecarTextExtractor(), 2, 2, new RecipeManager(catalog)).importFolder(folder);
+
+            assertTrue(result.getImported().isEmpty());
+            assertEquals(5, result.getFailed().size());
+        } finally {
+            catalog.close();
+        }
+    }
+
+    /**
+     * Legt einen Ordner mit Bildern "rezept_i.png" und dazu passendem Rezepttext "rezept_i.txt" an.
+     */
+    private File imageFolder(int count) throws IOException {
+        File folder = Files.createDirectories(dir.resolve("bilder")).toFile();
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < count; i++) {
+            ImageIO.write(image, "png", new File(folder, "rezept_" + i + ".png"));
+            Files.writeString(folder.toPath().resolve("rezept_" + i + ".txt"),
+                    "Rezept " + i + "\nPortionen: 4\nZutaten\n200 g Mehl\n2 Stk Ei\nZubereitung\nAlles verrühren.\n",
+                    StandardCharsets.UTF_8);
+        }
+        return folder;
+    }
+
+    private static Set<String> names(List<Recipe> recipes) {
+        Set<String> names = new TreeSet<>();
+        recipes.forEach(r -> names.add(r.getName()));
+        return names;
+    }
+}
@@ -0,0 +1,175 @@
+package model;
+
+import database.Catalog;
+import database.RecipeDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Belastungstest für den gleichzeitigen Zugriff auf einen {@link RecipeManager}.
+ * In einem eigenen Katalog legen Schreiber Rezepte an, bewerten und löschen sie,
+ * Leser durchsuchen gleichzeitig Bestand, Rezeptlisten und Indizes, und ein weiterer Thread lädt regelmäßig neu.
+ * Am Ende wird geprüft, dass kein Thread einen Fehler gesehen hat, dass der Bestand im Speicher
+ * der Datenbank entspricht und dass jede Änderung genau einmal gemeldet wurde.
+ */
+class RecipeManagerStressTest {
+
+    private static final String[] PANTRY = {"Zwiebel", "Salz", "Butter", "Mehl", "Ei"};
+    private static final String[] QUERIES = {"salat", "kartoffel", "suppe", "kuchen"};
+    private static final int WRITERS = 2;
+    private static final int READERS = 4;
+    private static final long DURATION_MILLIS = 3000;
+
+    @TempDir
+    Path dir;
+
+    private Catalog catalog;
+    private RecipeManager manager;
+
+    @BeforeEach
+    void createCatalog() {
+        catalog = new Catalog("Stresstest", dir.resolve("stress.db").toFile());
+        RecipeDAO dao = new RecipeDAO(catalog);
+        List<Recipe> seed = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Recipe recipe = new Recipe(QUERIES[i % QUERIES.length] + " " + i);
+            recipe.addIngredient(new Ingredient(PANTRY[i % PANTRY.length], 1, "Stk"));
+            recipe.addIngredient(new Ingredient(PANTRY[(i + 2) % PANTRY.length], 100, "g"));
+            recipe.setRating(i % 6);
+            seed.add(recipe);
+        }
+        assertTrue(dao.insertRecipes(seed));
+        manager = new RecipeManager(catalog);
+        manager.loadData();
+    }
+
+    @AfterEach
+    void closeCatalog() {
+        catalog.close();
+    }
+
+    @Test
+    void concurrentReadersAndWritersKeepManagerConsistent() throws Exception {
+        LongAdder expectedChanges = new LongAdder();
+        LongAdder deliveredChanges = new LongAdder();
+        LongAdder writes = new LongAdder();
+        LongAdder reads = new LongAdder();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        ExecutorService listenerThread = Executors.newSingleThreadExecutor();
+        manager.addChangeListener(changes -> deliveredChanges.add(changes.size()), listenerThread);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Recipe> own = new ArrayList<>();
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    try {
+                        int action = random.nextInt(3);
+                        if (action == 0 || own.isEmpty()) {
+                            Recipe recipe = new Recipe("Stresstest " + writer + "-" + n++);
+                            recipe.addIngredient(new Ingredient(PANTRY[random.nextInt(PANTRY.length)], 1, "Stk"));
+                            manager.saveRecipe(recipe);
+                            own.add(recipe);
+                        } else if (action == 1) {
+                            Recipe recipe = own.get(random.nextInt(own.size()));
+                            recipe.setRating(random.nextInt(6));
+                            manager.saveRecipe(recipe);
+                        } else {
+                            manager.removeRecipe(own.remove(random.nextInt(own.size())));
+                        }
+                        expectedChanges.increment();
+                        writes.increment();
+                    } catch (RuntimeException e) {
+                        errors.computeIfAbsent(e.toString(), k -> new LongAdder()).increment();
+                    }
+                }
+            }, "stress-writer-" + w));
+        }
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    try {
+                        List<Recipe> snapshot = manager.getRecipes();
+                        Set<Integer> ids = new HashSet<>();
+                        for (Recipe recipe : snapshot) {
+                            if (recipe.getId() != 0 && !ids.add(recipe.getId())) {
+                                throw new IllegalStateException("Rezept doppelt im Bestand: " + recipe.getId());
+                            }
+                            // wie Such-Thread und Druck: Listen der Rezepte ohne Sperre durchlaufen
+                            recipe.getTags().forEach(Tag::getKey);
+                            recipe.getIngredients().forEach(Ingredient::getName);
+                        }
+                        if (!snapshot.isEmpty()) {
+                            manager.findSimilar(snapshot.get(random.nextInt(snapshot.size())), 5);
+                        }
+                        manager.findCookable(List.of(PANTRY), 10);
+                        manager.search(QUERIES[random.nextInt(QUERIES.length)], 10);
+                        manager.getSuggestions().suggestIngredients("z", 8);
+                        reads.increment();
+                    } catch (RuntimeException e) {
+                        errors.computeIfAbsent(e.toString(), k -> new LongAdder()).increment();
+                    }
+                }
+            }, "stress-reader-" + r));
+        }
+        threads.add(new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                try {
+                    manager.loadData();
+                    expectedChanges.increment();
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    errors.computeIfAbsent(e.toString(), k -> new LongAdder()).increment();
+                }
+            }
+        }, "stress-reloader"));
+
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+        listenerThread.shutdown();
+        assertTrue(listenerThread.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(errors.isEmpty(), () -> "Fehler in Threads: " + errors);
+        assertTrue(writes.sum() > 0, "keine Schreibvorgänge");
+        assertTrue(reads.sum() > 0, "keine Lesedurchläufe");
+        assertThrows(UnsupportedOperationException.class, () -> manager.getRecipes().add(new Recipe("unzulässig")));
+        Recipe published = manager.getRecipes().get(0);
+        assertThrows(UnsupportedOperationException.class, () -> published.getTags().add(new Tag("unzulässig")));
+        assertThrows(IllegalStateException.class, () -> published.setRating(1));
+
+        Set<Integer> inMemory = new HashSet<>();
+        manager.getRecipes().forEach(r -> inMemory.add(r.getId()));
+        Set<Integer> inDatabase = new HashSet<>();
+        new RecipeDAO(catalog).getAllRecipes().forEach(r -> inDatabase.add(r.getId()));
+        assertEquals(inDatabase, inMemory, "Bestand im Speicher weicht von der Datenbank ab");
+        assertEquals(expectedChanges.sum(), deliveredChanges.sum(), "nicht jede Änderung genau einmal gemeldet");
+    }
+}